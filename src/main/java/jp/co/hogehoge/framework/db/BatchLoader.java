@@ -0,0 +1,291 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * 一括ローダー。
+ * 単一キーによるレコード取得要求を収集し、IN句を用いた1回のSELECT処理にまとめて実行する。
+ *
+ * SQLはIN句に指定したパラメータ・マーカー（例：{@code WHERE ID IN (:ID)}）を複数レコード取得のSELECT処理として定義し、
+ * 実行時にキー数分のパラメータ・マーカー（{@code :ID_0, :ID_1, ...}）へ展開する。
+ * 要求の収集単位は次の通り。
+ * (1)トランザクション内：スレッド毎に収集し、{@link #dispatch()}の呼び出し時に現在のコネクションで実行する。
+ * {@link #dispatch()}を呼び出さずにトランザクションが終了した場合、収集した要求はエラーとして破棄する。
+ * (2)トランザクション外：収集待機時間内に全スレッドから要求されたキーを収集し、新たなトランザクションで実行する。
+ *
+ * @param <K> キーのデータ型
+ * @param <R> SQL実行結果のデータ型
+ */
+public class BatchLoader<K, R extends Entity> {
+
+	/** logger */
+	protected static Logger logger = LogManager.getLogger(BatchLoader.class);
+
+	/** トランザクション外の要求を実行するスケジューラー */
+	private static final ScheduledExecutorService SCHEDULER = Executors
+			.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+				Thread thread = new Thread(runnable, "db-batch-loader");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/** SQL定義 */
+	private final Sql<?, List<R>> sql;
+
+	/** IN句のパラメータ・マーカー */
+	private final Pattern marker;
+
+	/** IN句のパラメータ・マーカー名 */
+	private final String markerName;
+
+	/** SQL実行結果からキーを取得する関数 */
+	private final Function<R, K> keyMapper;
+
+	/** 収集待機時間（ms） */
+	private final long window;
+
+	/** トランザクション内の要求（スレッド毎に管理） */
+	private final ThreadLocal<Map<K, CompletableFuture<Optional<R>>>> local = ThreadLocal
+			.withInitial(() -> new LinkedHashMap<>());
+
+	/** トランザクション外の要求 */
+	private Map<K, CompletableFuture<Optional<R>>> shared = new LinkedHashMap<>();
+
+	/** トランザクション外の要求に対するロック */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param sql       SQL定義
+	 * @param marker    IN句のパラメータ・マーカー名
+	 * @param keyMapper SQL実行結果からキーを取得する関数
+	 * @param window    収集待機時間（ms）
+	 */
+	protected BatchLoader(Sql<?, List<R>> sql, String marker, Function<R, K> keyMapper, long window) {
+		this.sql = sql;
+		this.markerName = marker;
+		this.marker = Pattern.compile(":" + Pattern.quote(marker) + "\\b");
+		this.keyMapper = keyMapper;
+		this.window = window;
+	}
+
+	/**
+	 * 一括ローダーを定義する。
+	 * トランザクション外の要求の収集待機時間は{@link DatabaseConfig#BATCH_LOADER_WINDOW}に従う。
+	 *
+	 * @param           <K> キーのデータ型
+	 * @param           <R> SQL実行結果のデータ型
+	 * @param sql       複数のレコードを取得するSQL定義
+	 * @param marker    IN句のパラメータ・マーカー名
+	 * @param keyMapper SQL実行結果からキーを取得する関数
+	 * @return 一括ローダー
+	 */
+	public static <K, R extends Entity> BatchLoader<K, R> define(Sql<?, List<R>> sql, String marker,
+			Function<R, K> keyMapper) {
+		return define(sql, marker, keyMapper, DatabaseConfig.BATCH_LOADER_WINDOW.get());
+	}
+
+	/**
+	 * 一括ローダーを定義する。
+	 *
+	 * @param           <K> キーのデータ型
+	 * @param           <R> SQL実行結果のデータ型
+	 * @param sql       複数のレコードを取得するSQL定義
+	 * @param marker    IN句のパラメータ・マーカー名
+	 * @param keyMapper SQL実行結果からキーを取得する関数
+	 * @param window    トランザクション外の要求の収集待機時間（ms）
+	 * @return 一括ローダー
+	 */
+	public static <K, R extends Entity> BatchLoader<K, R> define(Sql<?, List<R>> sql, String marker,
+			Function<R, K> keyMapper, long window) {
+		return new BatchLoader<>(sql, marker, keyMapper, window);
+	}
+
+	/**
+	 * キーに該当するレコードの取得を要求する。
+	 * トランザクション内で要求した場合、{@link #dispatch()}の呼び出し後に結果が確定する。
+	 *
+	 * @param key キー
+	 * @return SQL実行結果
+	 */
+	public CompletableFuture<Optional<R>> load(K key) {
+		if (Objects.isNull(key)) {
+			return CompletableFuture.completedFuture(Optional.empty());
+		}
+
+		// トランザクション内の要求はスレッド毎に収集し、トランザクションの終了時に未実行の要求を破棄
+		TransactionContext context = Transaction.current();
+		if (Objects.nonNull(context)) {
+			Map<K, CompletableFuture<Optional<R>>> pending = this.local.get();
+			if (pending.isEmpty()) {
+				context.afterCompletion(this::abandon);
+			}
+			return pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+		}
+
+		// 収集待機時間が指定されていない場合は即時実行
+		if (this.window <= 0) {
+			Map<K, CompletableFuture<Optional<R>>> pending = new LinkedHashMap<>();
+			CompletableFuture<Optional<R>> future = pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+			this.dispatchOutsideTransaction(pending);
+			return future;
+		}
+
+		// トランザクション外の要求は全スレッドで収集し、最初の要求から収集待機時間の経過後に実行
+		this.lock.lock();
+		try {
+			boolean first = this.shared.isEmpty();
+			CompletableFuture<Optional<R>> future = this.shared.computeIfAbsent(key, k -> new CompletableFuture<>());
+			if (first) {
+				SCHEDULER.schedule(() -> {
+					Map<K, CompletableFuture<Optional<R>>> pending;
+					this.lock.lock();
+					try {
+						pending = this.shared;
+						this.shared = new LinkedHashMap<>();
+					} finally {
+						this.lock.unlock();
+					}
+					this.dispatchOutsideTransaction(pending);
+				}, this.window, TimeUnit.MILLISECONDS);
+			}
+			return future;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * 複数のキーに該当するレコードを一括で取得する。
+	 * トランザクション内で実行した場合、収集済みの要求も併せて実行する。
+	 *
+	 * @param keys キーのリスト
+	 * @return キーとSQL実行結果のマップ
+	 */
+	public Map<K, Optional<R>> loadMany(Collection<K> keys) {
+		if (!Transaction.isActive()) {
+			return Transaction.execute(() -> this.loadMany(keys));
+		}
+		Map<K, CompletableFuture<Optional<R>>> futures = new LinkedHashMap<>();
+		for (K key : keys) {
+			futures.put(key, this.load(key));
+		}
+		this.dispatch();
+
+		Map<K, Optional<R>> result = new LinkedHashMap<>();
+		for (Entry<K, CompletableFuture<Optional<R>>> entry : futures.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().join());
+		}
+		return result;
+	}
+
+	/**
+	 * 現在のスレッドで収集した要求を現在のコネクションで一括実行する。
+	 */
+	public void dispatch() {
+		Map<K, CompletableFuture<Optional<R>>> pending = this.local.get();
+		if (pending.isEmpty()) {
+			return;
+		}
+		this.local.remove();
+		this.execute(pending);
+	}
+
+	/**
+	 * 現在のスレッドで収集した未実行の要求をエラーとして破棄する。
+	 * {@link #dispatch()}を呼び出さずにトランザクションが終了した場合に実行する。
+	 */
+	private void abandon() {
+		Map<K, CompletableFuture<Optional<R>>> pending = this.local.get();
+		this.local.remove();
+		if (pending.isEmpty()) {
+			return;
+		}
+		IllegalStateException e = new IllegalStateException(
+				"一括ローダーの要求が実行されずにトランザクションが終了しました。SQLID={" + this.sql.getSqlId() + "}");
+		pending.values().forEach(future -> future.completeExceptionally(e));
+	}
+
+	/**
+	 * トランザクション外で収集した要求を新たなトランザクションで一括実行する。
+	 * エラーが発生した場合、エラー情報は要求元へ通知する。
+	 *
+	 * @param pending 収集した要求
+	 */
+	private void dispatchOutsideTransaction(Map<K, CompletableFuture<Optional<R>>> pending) {
+		try {
+			Transaction.execute(() -> this.execute(pending));
+		} catch (RuntimeException e) {
+			logger.debug("一括ローダー実行エラー（SQLID=" + this.sql.getSqlId() + "）");
+			pending.values().forEach(future -> future.completeExceptionally(e));
+		}
+	}
+
+	/**
+	 * 収集した要求を最大キー数毎に分割して実行し、要求元へ結果を通知する。
+	 *
+	 * @param pending 収集した要求
+	 */
+	private void execute(Map<K, CompletableFuture<Optional<R>>> pending) {
+		int maxSize = Math.max(1, DatabaseConfig.BATCH_LOADER_MAX_SIZE.get());
+		List<K> keys = new ArrayList<>(pending.keySet());
+		for (int from = 0; from < keys.size(); from += maxSize) {
+			List<K> chunk = keys.subList(from, Math.min(from + maxSize, keys.size()));
+			try {
+				Map<K, R> rows = this.select(chunk);
+				for (K key : chunk) {
+					pending.get(key).complete(Optional.ofNullable(rows.get(key)));
+				}
+			} catch (RuntimeException e) {
+				keys.subList(from, keys.size()).forEach(key -> pending.get(key).completeExceptionally(e));
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * IN句を展開したSELECT処理を実行する。
+	 *
+	 * @param keys キーのリスト
+	 * @return キーとSQL実行結果のマップ
+	 */
+	private Map<K, R> select(List<K> keys) {
+		// IN句のパラメータ・マーカーをキー数分展開
+		StringBuilder markers = new StringBuilder();
+		Map<String, Object> args = new HashMap<>();
+		for (int index = 0; index < keys.size(); index++) {
+			String name = this.markerName + "_" + index;
+			markers.append(index == 0 ? ":" : ", :").append(name);
+			args.put(name, keys.get(index));
+		}
+		String sql = this.marker.matcher(this.sql.getSql()).replaceAll(Matcher.quoteReplacement(markers.toString()));
+
+		// SQL実行結果をキー毎に格納（キーが重複する場合は先頭のレコードを採用）
+		Map<K, R> rows = new HashMap<>();
+		for (R row : this.sql.execute(sql, args)) {
+			rows.putIfAbsent(this.keyMapper.apply(row), row);
+		}
+		return rows;
+	}
+
+}
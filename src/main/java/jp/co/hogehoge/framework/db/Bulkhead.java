@@ -0,0 +1,198 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jp.co.hogehoge.framework.db.DatabaseMetrics.Metric;
+import jp.co.hogehoge.framework.db.exception.DatabaseConnectionException;
+
+/**
+ * バルクヘッド。
+ * ワークロード（オンライン、バッチ、帳票等）毎にコネクションを同時に使用できる数を制限し、
+ * 特定のワークロードがデータ・ソースのコネクションを占有して他のワークロードの処理が滞ることを防ぐ。
+ * ワークロードと上限数は{@link DatabaseConfig#BULKHEAD}で定義し、定義されていないワークロードは制限しない。
+ * 定義はワークロードが最初に指定されたタイミングで解析し、不正な場合はエラーとして次の呼び出しで再度解析する。
+ * 上限に達している場合は{@link DatabaseConfig#BULKHEAD_TIMEOUT}まで待機し、待機中の処理数は{@link DatabaseMetrics}で参照できる。
+ */
+final class Bulkhead {
+
+	/** logger */
+	private static Logger logger = LogManager.getLogger(Bulkhead.class);
+
+	/** ワークロード毎のインスタンス（初期化前はnull） */
+	private static volatile Map<String, Bulkhead> instances = null;
+
+	/** 初期化処理のロック */
+	private static final ReentrantLock LOCK = new ReentrantLock();
+
+	/** ワークロード */
+	private final String workload;
+
+	/** 同時に使用できるコネクション数 */
+	private final int limit;
+
+	/** 最大待機時間（ナノ秒） */
+	private final long timeout;
+
+	/** 使用許可 */
+	private final Semaphore permits;
+
+	/** 待機中の処理数 */
+	private final AtomicInteger waiting = new AtomicInteger();
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param workload ワークロード
+	 * @param limit    同時に使用できるコネクション数（1以上）
+	 * @param timeout  最大待機時間（ms）
+	 * @throws IllegalArgumentException 同時に使用できるコネクション数が0以下の場合
+	 */
+	Bulkhead(String workload, int limit, long timeout) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("上限数には1以上を指定してください。[ワークロード=" + workload + ",上限=" + limit + "]");
+		}
+		this.workload = workload;
+		this.limit = limit;
+		this.timeout = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeout));
+		this.permits = new Semaphore(this.limit, true);
+	}
+
+	/**
+	 * ワークロードのインスタンスを取得する。
+	 *
+	 * @param workload ワークロード
+	 * @return インスタンス（ワークロードが指定されていない、または定義されていない場合はnull）
+	 * @throws DatabaseConnectionException ワークロードの定義が不正な場合
+	 */
+	static Bulkhead of(String workload) {
+		return Objects.isNull(workload) ? null : instances().get(workload);
+	}
+
+	/**
+	 * ワークロード毎のインスタンスを取得する。
+	 * 初期化されていない場合は{@link DatabaseConfig#BULKHEAD}を解析して初期化し、失敗した場合は次の呼び出しで再度初期化する。
+	 *
+	 * @return ワークロードとインスタンスのマップ
+	 * @throws DatabaseConnectionException ワークロードの定義が不正な場合
+	 */
+	private static Map<String, Bulkhead> instances() {
+		Map<String, Bulkhead> map = instances;
+		if (Objects.nonNull(map)) {
+			return map;
+		}
+		LOCK.lock();
+		try {
+			if (Objects.isNull(instances)) {
+				instances = parse(DatabaseConfig.BULKHEAD.get(), DatabaseConfig.BULKHEAD_TIMEOUT.get());
+			}
+			return instances;
+		} finally {
+			LOCK.unlock();
+		}
+	}
+
+	/**
+	 * コネクションの使用許可を取得する。
+	 * 上限に達している場合は、他の処理が許可を返却するまで最大待機時間まで待機する。
+	 *
+	 * @throws DatabaseConnectionException 最大待機時間までに許可を取得できなかった場合、または待機中に割り込まれた場合
+	 */
+	void acquire() {
+		if (this.permits.tryAcquire()) {
+			return;
+		}
+		this.waiting.incrementAndGet();
+		try {
+			if (this.permits.tryAcquire(this.timeout, TimeUnit.NANOSECONDS)) {
+				DatabaseMetrics.increment(Metric.BULKHEAD_WAITED);
+				return;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DatabaseConnectionException(e, Message.DBE00013, this.workload, this.limit);
+		} finally {
+			this.waiting.decrementAndGet();
+		}
+		DatabaseMetrics.increment(Metric.BULKHEAD_REJECTED);
+		logger.warn("ワークロードの同時実行数の上限に達しています。[ワークロード=" + this.workload + "]");
+		throw new DatabaseConnectionException(
+				new TimeoutException("[待機時間=" + TimeUnit.NANOSECONDS.toMillis(this.timeout) + "ms]"),
+				Message.DBE00013, this.workload, this.limit);
+	}
+
+	/**
+	 * コネクションの使用許可を返却する。
+	 */
+	void release() {
+		this.permits.release();
+	}
+
+	/**
+	 * 待機中の処理数を取得する。
+	 *
+	 * @return 待機中の処理数
+	 */
+	int getWaiting() {
+		return this.waiting.get();
+	}
+
+	/**
+	 * 使用中のコネクション数を取得する。
+	 *
+	 * @return 使用中のコネクション数
+	 */
+	int getActive() {
+		return this.limit - this.permits.availablePermits();
+	}
+
+	/**
+	 * 全てのワークロードのインスタンスを取得する。
+	 *
+	 * @return ワークロードとインスタンスのマップ
+	 * @throws DatabaseConnectionException ワークロードの定義が不正な場合
+	 */
+	static Map<String, Bulkhead> all() {
+		return instances();
+	}
+
+	/**
+	 * ワークロードの定義（ワークロード:上限数をセミコロン区切り）を解析する。
+	 * 空の項目は無視し、形式が誤っている項目、および上限数が1以上の整数でない項目はエラーとする。
+	 *
+	 * @param value   ワークロードの定義
+	 * @param timeout 最大待機時間（ms）
+	 * @return ワークロードとインスタンスのマップ
+	 * @throws DatabaseConnectionException ワークロードの定義が不正な場合
+	 */
+	static Map<String, Bulkhead> parse(String value, long timeout) {
+		Map<String, Bulkhead> map = new HashMap<>();
+		for (String item : value.split(";")) {
+			if (item.trim().isEmpty()) {
+				continue;
+			}
+			String[] pair = item.split(":");
+			try {
+				if (pair.length != 2 || pair[0].trim().isEmpty()) {
+					throw new IllegalArgumentException("ワークロード:上限数の形式で指定してください。");
+				}
+				String workload = pair[0].trim();
+				map.put(workload, new Bulkhead(workload, Integer.parseInt(pair[1].trim()), timeout));
+			} catch (IllegalArgumentException e) {
+				throw new DatabaseConnectionException(e, Message.DBE00018, item.trim());
+			}
+		}
+		return Collections.unmodifiableMap(map);
+	}
+
+}
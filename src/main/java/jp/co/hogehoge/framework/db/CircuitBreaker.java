@@ -0,0 +1,318 @@
+package jp.co.hogehoge.framework.db;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jp.co.hogehoge.framework.db.DatabaseMetrics.Metric;
+import jp.co.hogehoge.framework.db.exception.DatabaseUnavailableException;
+
+/**
+ * サーキット・ブレーカー。
+ * コネクションの取得、およびSQLの実行結果を監視し、直近の処理における障害率が閾値を超えた場合に遮断（OPEN）する。
+ * 障害とするのは、SQLSTATEが{@link DatabaseConfig#CIRCUIT_BREAKER_SQL_STATE}に前方一致するエラー
+ * （08：接続例外、57011：リソース不足等）のみとし、SQL自体の誤り等は障害としない。
+ * ロック・タイムアウト（57033）、およびSQLの取り消し（57014）はデータベースが応答しているため、設定に関わらず障害としない。
+ * 遮断中は{@link DatabaseUnavailableException}を即時にスローし、一定時間経過後は1スレッドのみが
+ * 確認用のSQLを実行（HALF_OPEN）して、成功した場合に遮断を解除（CLOSED）する。
+ * データ・ソース（プライマリ、読み取り用レプリカ、シャード毎）にインスタンスを生成し、
+ * 1つのデータ・ソースの障害が他のデータ・ソースを遮断しないよう、処理結果の記録と回復の確認はデータ・ソース毎に行う。
+ */
+final class CircuitBreaker {
+
+	/** logger */
+	private static Logger logger = LogManager.getLogger(CircuitBreaker.class);
+
+	/** 障害としないSQLSTATE（57033：ロック・タイムアウト、57014：SQLの取り消し） */
+	private static final List<String> EXCLUDED_SQL_STATES = Arrays.asList("57033", "57014");
+
+	/** インスタンス（データ・ソース名毎） */
+	private static final ConcurrentMap<String, CircuitBreaker> INSTANCES = new ConcurrentHashMap<>();
+
+	/**
+	 * 状態。
+	 */
+	static enum State {
+
+		/** 通常 */
+		CLOSED,
+
+		/** 遮断 */
+		OPEN,
+
+		/** 回復確認中 */
+		HALF_OPEN;
+	}
+
+	/** データ・ソース名 */
+	private final String name;
+
+	/** 有効かどうか */
+	private final boolean enabled;
+
+	/** 障害率を判定する最小処理数 */
+	private final int minimumCalls;
+
+	/** 遮断する障害率（%） */
+	private final int threshold;
+
+	/** 遮断してから回復を確認するまでの時間（ナノ秒） */
+	private final long openTime;
+
+	/** 障害とするSQLSTATE（前方一致） */
+	private final List<String> sqlStates;
+
+	/** 回復確認処理 */
+	private final Callable<?> probe;
+
+	/** 状態 */
+	private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+	/** 直近の処理結果（障害の場合はtrue） */
+	private final boolean[] outcomes;
+
+	/** 直近の処理結果のロック */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/** 次に処理結果を格納する位置 */
+	private int index = 0;
+
+	/** 格納済みの処理結果数 */
+	private int count = 0;
+
+	/** 格納済みの障害数 */
+	private int failures = 0;
+
+	/** 遮断した時刻（ナノ秒） */
+	private volatile long openedAt = 0;
+
+	/** 直近に遮断の原因となったエラー情報 */
+	private volatile Throwable cause = null;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param name         データ・ソース名
+	 * @param enabled      有効かどうか
+	 * @param window       障害率を算出する直近の処理数
+	 * @param minimumCalls 障害率を判定する最小処理数
+	 * @param threshold    遮断する障害率（%）
+	 * @param openTime     遮断してから回復を確認するまでの時間（ms）
+	 * @param sqlStates    障害とするSQLSTATE（前方一致）
+	 * @param probe        回復確認処理
+	 */
+	CircuitBreaker(String name, boolean enabled, int window, int minimumCalls, int threshold, long openTime,
+			List<String> sqlStates, Callable<?> probe) {
+		this.name = name;
+		this.enabled = enabled;
+		this.outcomes = new boolean[Math.max(1, window)];
+		this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.outcomes.length));
+		this.threshold = threshold;
+		this.openTime = TimeUnit.MILLISECONDS.toNanos(openTime);
+		this.sqlStates = sqlStates;
+		this.probe = probe;
+	}
+
+	/**
+	 * データ・ソースのインスタンスを取得する。
+	 * 最初に取得された時点で、{@link DatabaseConfig}の設定に従いインスタンスを生成する。
+	 *
+	 * @param name  データ・ソース名
+	 * @param probe 回復確認処理（同じデータ・ソースで確認用のSQLを実行する処理）
+	 * @return インスタンス
+	 */
+	static CircuitBreaker of(String name, Callable<?> probe) {
+		CircuitBreaker breaker = INSTANCES.get(name);
+		if (Objects.nonNull(breaker)) {
+			return breaker;
+		}
+		return INSTANCES.computeIfAbsent(name,
+				key -> new CircuitBreaker(key, Boolean.parseBoolean(DatabaseConfig.CIRCUIT_BREAKER_ENABLED.get().trim()),
+						DatabaseConfig.CIRCUIT_BREAKER_WINDOW.get(),
+						DatabaseConfig.CIRCUIT_BREAKER_MINIMUM_CALLS.get(),
+						DatabaseConfig.CIRCUIT_BREAKER_THRESHOLD.get(),
+						DatabaseConfig.CIRCUIT_BREAKER_OPEN_TIME.get(),
+						split(DatabaseConfig.CIRCUIT_BREAKER_SQL_STATE.get()), probe));
+	}
+
+	/**
+	 * 状態を取得する。
+	 *
+	 * @return 状態
+	 */
+	State getState() {
+		return this.state.get();
+	}
+
+	/**
+	 * 処理の実行可否を確認する。
+	 * 遮断してから一定時間経過している場合は、1スレッドのみが回復を確認し、成功した場合は処理を継続する。
+	 *
+	 * @throws DatabaseUnavailableException 遮断中の場合
+	 */
+	void acquire() {
+		if (!this.enabled) {
+			return;
+		}
+		State current = this.state.get();
+		if (current == State.CLOSED) {
+			return;
+		}
+		if (current == State.OPEN && System.nanoTime() - this.openedAt >= this.openTime
+				&& this.state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+			this.probe();
+			return;
+		}
+		DatabaseMetrics.increment(Metric.CIRCUIT_REJECTED);
+		throw new DatabaseUnavailableException(this.cause, Message.DBE00011, current, this.name);
+	}
+
+	/**
+	 * 処理の成功を記録する。
+	 */
+	void onSuccess() {
+		if (this.enabled) {
+			this.record(false, null);
+		}
+	}
+
+	/**
+	 * 処理のエラーを記録する。
+	 * SQLSTATEが障害に該当しないエラーは、データベースが応答しているため成功として記録する。
+	 *
+	 * @param e エラー情報
+	 */
+	void onError(Throwable e) {
+		if (this.enabled) {
+			this.record(this.isFailure(e), e);
+		}
+	}
+
+	/**
+	 * 障害に該当するエラーかどうかを取得する。
+	 * 原因となったエラーを辿り、SQLSTATEが前方一致するSQLExceptionが含まれるかどうかを判定する。
+	 *
+	 * @param e エラー情報
+	 * @return 判定結果
+	 */
+	boolean isFailure(Throwable e) {
+		for (Throwable t = e; Objects.nonNull(t); t = t.getCause()) {
+			if (t instanceof SQLException) {
+				String sqlState = ((SQLException) t).getSQLState();
+				if (Objects.nonNull(sqlState) && !EXCLUDED_SQL_STATES.contains(sqlState)
+						&& this.sqlStates.stream().anyMatch(sqlState::startsWith)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 処理結果を記録し、障害率が閾値を超えた場合は遮断する。
+	 *
+	 * @param failure 障害の場合はtrue
+	 * @param e       エラー情報
+	 */
+	private void record(boolean failure, Throwable e) {
+		if (this.state.get() != State.CLOSED) {
+			return;
+		}
+		boolean trip = false;
+		this.lock.lock();
+		try {
+			if (this.count == this.outcomes.length) {
+				if (this.outcomes[this.index]) {
+					this.failures--;
+				}
+			} else {
+				this.count++;
+			}
+			this.outcomes[this.index] = failure;
+			if (failure) {
+				this.failures++;
+			}
+			this.index = (this.index + 1) % this.outcomes.length;
+			trip = failure && this.count >= this.minimumCalls
+					&& this.failures * 100L >= (long) this.threshold * this.count;
+			if (trip) {
+				this.reset();
+			}
+		} finally {
+			this.lock.unlock();
+		}
+		if (trip) {
+			this.open(e);
+			this.state.compareAndSet(State.CLOSED, State.OPEN);
+		}
+	}
+
+	/**
+	 * 回復を確認する。
+	 *
+	 * @throws DatabaseUnavailableException 回復を確認できなかった場合
+	 */
+	private void probe() {
+		try {
+			this.probe.call();
+		} catch (Exception e) {
+			this.open(e);
+			this.state.set(State.OPEN);
+			DatabaseMetrics.increment(Metric.CIRCUIT_REJECTED);
+			throw new DatabaseUnavailableException(e, Message.DBE00011, State.HALF_OPEN, this.name);
+		}
+		this.state.set(State.CLOSED);
+		logger.info("データベースの回復を確認したため、サーキット・ブレーカーの遮断を解除しました。[データ・ソース=" + this.name + "]");
+	}
+
+	/**
+	 * 遮断する。
+	 *
+	 * @param e 遮断の原因となったエラー情報
+	 */
+	private void open(Throwable e) {
+		this.cause = e;
+		this.openedAt = System.nanoTime();
+		DatabaseMetrics.increment(Metric.CIRCUIT_OPENED);
+		logger.error("データベースの障害を検知したため、サーキット・ブレーカーを遮断しました。[データ・ソース=" + this.name + "]", e);
+	}
+
+	/**
+	 * 直近の処理結果を初期化する。
+	 */
+	private void reset() {
+		Arrays.fill(this.outcomes, false);
+		this.index = 0;
+		this.count = 0;
+		this.failures = 0;
+	}
+
+	/**
+	 * セミコロン区切りの文字列を分割する。
+	 *
+	 * @param value 文字列
+	 * @return 分割した文字列リスト
+	 */
+	private static List<String> split(String value) {
+		List<String> list = new ArrayList<>();
+		for (String item : value.split(";")) {
+			if (!item.trim().isEmpty()) {
+				list.add(item.trim());
+			}
+		}
+		return Collections.unmodifiableList(list);
+	}
+
+}
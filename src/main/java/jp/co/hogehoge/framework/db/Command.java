@@ -44,6 +44,11 @@ abstract class Command<R> {
 				}
 				return result;
 			}
+
+			@Override
+			public boolean isQuery() {
+				return true;
+			}
 		};
 	}
 
@@ -151,6 +156,35 @@ abstract class Command<R> {
 		}
 	}
 
+	/**
+	 * 問合せ（SELECT処理）かどうかを取得する。
+	 * 
+	 * @return 判定結果
+	 */
+	public boolean isQuery() {
+		return false;
+	}
+
+	/**
+	 * 更新処理をバッチ実行する。
+	 * 
+	 * @param conn  データベース・コネクション
+	 * @param sql   SQL
+	 * @param batch SQL実行パラメータのリスト
+	 * @return 処理件数の配列
+	 * @throws SQLException
+	 */
+	public int[] executeBatch(DatabaseConnection conn, String sql, List<Map<String, Object>> batch)
+			throws SQLException {
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			for (Map<String, Object> param : batch) {
+				setPreparedStatement(ps, param);
+				ps.addBatch();
+			}
+			return ps.executeBatch();
+		}
+	}
+
 	/**
 	 * SQLを実行する。
 	 * 
@@ -0,0 +1,727 @@
+package jp.co.hogehoge.framework.db;
+
+import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sql.DataSource;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jp.co.hogehoge.framework.db.DatabaseMetrics.Metric;
+
+/**
+ * 組み込みのコネクション・プール。
+ * JNDIでデータ・ソースを取得できない環境（バッチ処理等）で、{@link DatabaseConfig#POOL_ENABLED}を指定した場合に使用する。
+ * コネクションの取得は次の順に行い、ロックを使用せずに状態の比較と更新（CAS）でコネクションを確保する。
+ * (1)同一スレッドが直近に返却したコネクション
+ * (2)全てのスレッドで共有するコネクション
+ * (3)最大コネクション数に達していない場合は新規のコネクション
+ * (4)他のスレッドから直接受け渡されるコネクション（最大待機時間まで待機）
+ * 取得したコネクションはプロキシとし、クローズ時に未確定の更新処理をロールバックしてプールへ返却する。
+ * 保守処理では、未使用時間や生存時間を超えたコネクションの破棄、返却されていないコネクションの警告、
+ * 最小の未使用コネクション数までの補充を行う。
+ */
+final class ConnectionPool implements DataSource, AutoCloseable {
+
+	/** logger */
+	private static Logger logger = LogManager.getLogger(ConnectionPool.class);
+
+	/** 状態：未使用 */
+	private static final int NOT_IN_USE = 0;
+
+	/** 状態：使用中 */
+	private static final int IN_USE = 1;
+
+	/** 状態：破棄 */
+	private static final int REMOVED = -1;
+
+	/** スレッド毎に保持する直近に返却したコネクションの上限数 */
+	private static final int THREAD_LOCAL_SIZE = 16;
+
+	/** 接続先URL */
+	private final String url;
+
+	/** 接続ユーザー */
+	private final String user;
+
+	/** 接続パスワード */
+	private final String password;
+
+	/** 最小の未使用コネクション数 */
+	private final int minIdle;
+
+	/** 最大コネクション数 */
+	private final int maxSize;
+
+	/** 最大待機時間（ナノ秒） */
+	private final long connectionTimeout;
+
+	/** 未使用のコネクションを破棄するまでの時間（ナノ秒、0以下の場合は破棄しない） */
+	private final long idleTimeout;
+
+	/** コネクションの最大生存時間（ナノ秒、0以下の場合は制限しない） */
+	private final long maxLifetime;
+
+	/** 返却されない場合に警告するまでの時間（ナノ秒、0以下の場合は警告しない） */
+	private final long leakDetection;
+
+	/** 直近に返却したコネクションの接続の確認を省略する時間（ナノ秒） */
+	private final long validationInterval;
+
+	/** コネクションの接続を確認する際の最大待機時間（秒） */
+	private final int validationTimeout;
+
+	/** 全てのコネクション */
+	private final CopyOnWriteArrayList<PoolEntry> entries = new CopyOnWriteArrayList<>();
+
+	/** スレッド毎の直近に返却したコネクション */
+	private final ThreadLocal<List<WeakReference<PoolEntry>>> threadEntries = ThreadLocal
+			.withInitial(() -> new ArrayList<>(THREAD_LOCAL_SIZE));
+
+	/** 待機中のスレッドへの受け渡しキュー */
+	private final SynchronousQueue<PoolEntry> handoff = new SynchronousQueue<>(true);
+
+	/** 待機中のスレッド数 */
+	private final AtomicInteger waiters = new AtomicInteger();
+
+	/** コネクション数（生成中を含む） */
+	private final AtomicInteger total = new AtomicInteger();
+
+	/** 保守処理 */
+	private final ScheduledExecutorService housekeeper;
+
+	/** 停止済みかどうか */
+	private volatile boolean closed = false;
+
+	/**
+	 * プール内のコネクション。
+	 */
+	private static class PoolEntry {
+
+		/** コネクション */
+		private final Connection raw;
+
+		/** 状態 */
+		private final AtomicInteger state = new AtomicInteger(IN_USE);
+
+		/** 生成時の分離レベル */
+		private final int isolation;
+
+		/** 生成時刻（ナノ秒） */
+		private final long createdAt = System.nanoTime();
+
+		/** 最終返却時刻（ナノ秒） */
+		private volatile long lastAccessed = this.createdAt;
+
+		/** 取得時刻（ナノ秒） */
+		private volatile long borrowedAt = this.createdAt;
+
+		/** 取得時のスタック・トレース（返却されない場合の警告用） */
+		private volatile Throwable borrowedBy = null;
+
+		/** 返却されない警告を出力済みかどうか */
+		private volatile boolean leakReported = false;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param raw       コネクション
+		 * @param isolation 生成時の分離レベル
+		 */
+		private PoolEntry(Connection raw, int isolation) {
+			this.raw = raw;
+			this.isolation = isolation;
+		}
+	}
+
+	/**
+	 * コネクションのプロキシ。
+	 * クローズ時にプールへ返却し、返却後の操作はエラーとする。
+	 */
+	private class ProxyHandler implements InvocationHandler {
+
+		/** プール内のコネクション */
+		private final PoolEntry entry;
+
+		/** 生成したステートメント（クローズ済みのものは生成時に除外し、残りは返却時にクローズする） */
+		private final List<Statement> statements = new ArrayList<>();
+
+		/** 返却済みかどうか */
+		private boolean closed = false;
+
+		/** 接続属性を変更したかどうか */
+		private boolean dirty = false;
+
+		/** 未確定の更新処理が存在する可能性があるかどうか */
+		private boolean uncommitted = false;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param entry プール内のコネクション
+		 */
+		private ProxyHandler(PoolEntry entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!this.closed) {
+					this.closed = true;
+					ConnectionPool.this.release(this.entry, this.statements, this.dirty, this.uncommitted);
+				}
+				return null;
+			case "isClosed":
+				return this.closed;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "ConnectionPool$Proxy[" + this.entry.raw + "]";
+			default:
+				break;
+			}
+			if (this.closed) {
+				throw new SQLException(Message.DBE00012.format("返却済みのコネクション"), "08003");
+			}
+			switch (method.getName()) {
+			case "setAutoCommit":
+			case "setReadOnly":
+			case "setTransactionIsolation":
+			case "setCatalog":
+			case "setSchema":
+				this.dirty = true;
+				break;
+			case "commit":
+				this.uncommitted = false;
+				break;
+			case "rollback":
+				this.uncommitted = Objects.nonNull(args) && args.length > 0;
+				break;
+			default:
+				break;
+			}
+			try {
+				Object result = method.invoke(this.entry.raw, args);
+				if (result instanceof Statement) {
+					this.uncommitted = true;
+					this.track((Statement) result);
+				}
+				return result;
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+		/**
+		 * クローズ済みのステートメントを除外し、生成したステートメントを保持する。
+		 * 1つのコネクションで多数のSQLを実行した場合も、保持するステートメントが増え続けないようにする。
+		 *
+		 * @param statement 生成したステートメント
+		 */
+		private void track(Statement statement) {
+			Iterator<Statement> iterator = this.statements.iterator();
+			while (iterator.hasNext()) {
+				try {
+					if (iterator.next().isClosed()) {
+						iterator.remove();
+					}
+				} catch (SQLException e) {
+					// 判定できない場合は返却時にクローズする
+				}
+			}
+			this.statements.add(statement);
+		}
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param url                接続先URL
+	 * @param user               接続ユーザー
+	 * @param password           接続パスワード
+	 * @param minIdle            最小の未使用コネクション数
+	 * @param maxSize            最大コネクション数
+	 * @param connectionTimeout  最大待機時間（ms）
+	 * @param idleTimeout        未使用のコネクションを破棄するまでの時間（ms）
+	 * @param maxLifetime        コネクションの最大生存時間（ms）
+	 * @param leakDetection      返却されない場合に警告するまでの時間（ms）
+	 * @param housekeeping       保守処理の実行間隔（ms）
+	 * @param validationInterval 直近に返却したコネクションの接続の確認を省略する時間（ms）
+	 * @param validationTimeout  コネクションの接続を確認する際の最大待機時間（秒）
+	 */
+	ConnectionPool(String url, String user, String password, int minIdle, int maxSize, long connectionTimeout,
+			long idleTimeout, long maxLifetime, long leakDetection, long housekeeping, long validationInterval,
+			int validationTimeout) {
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.maxSize = Math.max(1, maxSize);
+		this.minIdle = Math.max(0, Math.min(minIdle, this.maxSize));
+		this.connectionTimeout = TimeUnit.MILLISECONDS.toNanos(Math.max(0, connectionTimeout));
+		this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+		this.maxLifetime = TimeUnit.MILLISECONDS.toNanos(maxLifetime);
+		this.leakDetection = TimeUnit.MILLISECONDS.toNanos(leakDetection);
+		this.validationInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(0, validationInterval));
+		this.validationTimeout = Math.max(0, validationTimeout);
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.housekeeper.scheduleWithFixedDelay(this::housekeep, 0, Math.max(1, housekeeping),
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * {@link DatabaseConfig}の設定でコネクション・プールを生成する。
+	 *
+	 * @return コネクション・プール
+	 */
+	static ConnectionPool create() {
+		return create(DatabaseConfig.POOL_URL.get());
+	}
+
+	/**
+	 * 接続先URLを指定し、それ以外は{@link DatabaseConfig}の設定でコネクション・プールを生成する。
+	 *
+	 * @param url 接続先URL
+	 * @return コネクション・プール
+	 */
+	static ConnectionPool create(String url) {
+		return new ConnectionPool(url, DatabaseConfig.POOL_USER.get(),
+				DatabaseConfig.POOL_PASSWORD.get(), DatabaseConfig.POOL_MIN_IDLE.get(),
+				DatabaseConfig.POOL_MAX_SIZE.get(), DatabaseConfig.POOL_CONNECTION_TIMEOUT.get(),
+				DatabaseConfig.POOL_IDLE_TIMEOUT.get(), DatabaseConfig.POOL_MAX_LIFETIME.get(),
+				DatabaseConfig.POOL_LEAK_DETECTION.get(), DatabaseConfig.POOL_HOUSEKEEPING.get(),
+				DatabaseConfig.VALIDATION_INTERVAL.get(), DatabaseConfig.VALIDATION_TIMEOUT.get());
+	}
+
+	/**
+	 * 接続情報を指定し、指定されていない項目は{@link DatabaseConfig}の設定でコネクション・プールを生成する。
+	 * 接続情報のキーは{@link DatabaseConfig}のコネクション・プールの設定（db.pool.url等）と同じとする。
+	 *
+	 * @param properties 接続情報
+	 * @return コネクション・プール
+	 */
+	static ConnectionPool create(Properties properties) {
+		return new ConnectionPool(properties.getProperty("db.pool.url", DatabaseConfig.POOL_URL.get()),
+				properties.getProperty("db.pool.user", DatabaseConfig.POOL_USER.get()),
+				properties.getProperty("db.pool.password", DatabaseConfig.POOL_PASSWORD.get()),
+				intValue(properties, "db.pool.minidle", DatabaseConfig.POOL_MIN_IDLE.get()),
+				intValue(properties, "db.pool.maxsize", DatabaseConfig.POOL_MAX_SIZE.get()),
+				intValue(properties, "db.pool.connectiontimeout", DatabaseConfig.POOL_CONNECTION_TIMEOUT.get()),
+				intValue(properties, "db.pool.idletimeout", DatabaseConfig.POOL_IDLE_TIMEOUT.get()),
+				intValue(properties, "db.pool.maxlifetime", DatabaseConfig.POOL_MAX_LIFETIME.get()),
+				intValue(properties, "db.pool.leakdetection", DatabaseConfig.POOL_LEAK_DETECTION.get()),
+				intValue(properties, "db.pool.housekeeping", DatabaseConfig.POOL_HOUSEKEEPING.get()),
+				intValue(properties, "db.validation.interval", DatabaseConfig.VALIDATION_INTERVAL.get()),
+				intValue(properties, "db.validation.timeout", DatabaseConfig.VALIDATION_TIMEOUT.get()));
+	}
+
+	/**
+	 * 接続情報から数値の項目を取得する。
+	 *
+	 * @param properties   接続情報
+	 * @param key          キー
+	 * @param defaultValue 指定されていない場合の値
+	 * @return 項目の値
+	 */
+	private static int intValue(Properties properties, String key, int defaultValue) {
+		String value = properties.getProperty(key);
+		return Objects.isNull(value) ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (this.closed) {
+			throw new SQLException(Message.DBE00012.format("停止済み"), "08003");
+		}
+		long deadline = System.nanoTime() + this.connectionTimeout;
+
+		// (1)同一スレッドが直近に返却したコネクション（仮想スレッドは再利用されないため対象外）
+		List<WeakReference<PoolEntry>> list = TransactionScope.isVirtualThread() ? Collections.emptyList()
+				: this.threadEntries.get();
+		for (int i = list.size() - 1; i >= 0; i--) {
+			PoolEntry entry = list.remove(i).get();
+			if (Objects.nonNull(entry) && entry.state.compareAndSet(NOT_IN_USE, IN_USE)) {
+				Connection conn = this.lease(entry);
+				if (Objects.nonNull(conn)) {
+					return conn;
+				}
+			}
+		}
+
+		this.waiters.incrementAndGet();
+		try {
+			while (true) {
+				// (2)全てのスレッドで共有するコネクション
+				for (PoolEntry entry : this.entries) {
+					if (entry.state.compareAndSet(NOT_IN_USE, IN_USE)) {
+						Connection conn = this.lease(entry);
+						if (Objects.nonNull(conn)) {
+							return conn;
+						}
+					}
+				}
+
+				// (3)新規のコネクション（接続を確認できずに破棄した場合は最大待機時間まで再試行）
+				PoolEntry created = this.create(IN_USE);
+				if (Objects.nonNull(created)) {
+					Connection conn = this.lease(created);
+					if (Objects.nonNull(conn)) {
+						return conn;
+					}
+					if (deadline - System.nanoTime() <= 0) {
+						break;
+					}
+					continue;
+				}
+
+				// (4)他のスレッドから受け渡されるコネクション
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					break;
+				}
+				PoolEntry entry = this.handoff.poll(remaining, TimeUnit.NANOSECONDS);
+				if (Objects.nonNull(entry) && entry.state.compareAndSet(NOT_IN_USE, IN_USE)) {
+					Connection conn = this.lease(entry);
+					if (Objects.nonNull(conn)) {
+						return conn;
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLTransientConnectionException(Message.DBE00012.format("割り込み"), "08001", e);
+		} finally {
+			this.waiters.decrementAndGet();
+		}
+		DatabaseMetrics.increment(Metric.POOL_TIMEOUT);
+		throw new SQLTransientConnectionException(
+				Message.DBE00012.format("タイムアウト（" + TimeUnit.NANOSECONDS.toMillis(this.connectionTimeout) + "ms）"));
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	/**
+	 * コネクション・プールを停止する。
+	 * 未使用のコネクションは即時に、使用中のコネクションは返却時にクローズする。
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+		this.housekeeper.shutdownNow();
+		for (PoolEntry entry : this.entries) {
+			if (entry.state.compareAndSet(NOT_IN_USE, REMOVED)) {
+				this.remove(entry);
+			}
+		}
+	}
+
+	/**
+	 * コネクション数を取得する。
+	 *
+	 * @return コネクション数
+	 */
+	int getTotalConnections() {
+		return this.entries.size();
+	}
+
+	/**
+	 * 未使用のコネクション数を取得する。
+	 *
+	 * @return 未使用のコネクション数
+	 */
+	int getIdleConnections() {
+		int count = 0;
+		for (PoolEntry entry : this.entries) {
+			if (entry.state.get() == NOT_IN_USE) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 確保したコネクションを貸し出す。
+	 * 最大生存時間を超えたコネクション、および接続を確認できないコネクションは破棄する。
+	 *
+	 * @param entry 確保したコネクション
+	 * @return コネクションのプロキシ（破棄した場合はnull）
+	 */
+	private Connection lease(PoolEntry entry) {
+		long now = System.nanoTime();
+		if (this.isExpired(entry, now) || !this.isValid(entry, now)) {
+			entry.state.set(REMOVED);
+			this.remove(entry);
+			return null;
+		}
+		entry.borrowedAt = now;
+		entry.leakReported = false;
+		if (this.leakDetection > 0) {
+			entry.borrowedBy = new Exception("コネクション取得時のスタック・トレース");
+		}
+		return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, new ProxyHandler(entry));
+	}
+
+	/**
+	 * 返却されたコネクションを初期化し、待機中のスレッドへ受け渡す、または未使用とする。
+	 * 初期化に失敗した場合、最大生存時間を超えた場合、およびプールが停止済みの場合は破棄する。
+	 *
+	 * @param entry       返却されたコネクション
+	 * @param statements  生成したステートメント
+	 * @param dirty       接続属性を変更したかどうか
+	 * @param uncommitted 未確定の更新処理が存在する可能性があるかどうか
+	 */
+	private void release(PoolEntry entry, List<Statement> statements, boolean dirty, boolean uncommitted) {
+		try {
+			for (Statement statement : statements) {
+				if (!statement.isClosed()) {
+					statement.close();
+				}
+			}
+			if (uncommitted && !entry.raw.getAutoCommit()) {
+				entry.raw.rollback();
+			}
+			if (dirty) {
+				this.initialize(entry.raw);
+				if (entry.raw.getTransactionIsolation() != entry.isolation) {
+					entry.raw.setTransactionIsolation(entry.isolation);
+				}
+			}
+		} catch (SQLException e) {
+			logger.warn("返却されたコネクションの初期化に失敗したため破棄します。", e);
+			entry.state.set(REMOVED);
+			this.remove(entry);
+			return;
+		}
+
+		long now = System.nanoTime();
+		if (this.closed || this.isExpired(entry, now)) {
+			entry.state.set(REMOVED);
+			this.remove(entry);
+			return;
+		}
+		entry.lastAccessed = now;
+		entry.borrowedBy = null;
+		entry.state.set(NOT_IN_USE);
+
+		// 待機中のスレッドが存在する場合は直接受け渡す
+		for (int i = 0; this.waiters.get() > 0; i++) {
+			if (entry.state.get() != NOT_IN_USE || this.handoff.offer(entry)) {
+				return;
+			}
+			if ((i & 0xff) == 0xff) {
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+			} else {
+				Thread.yield();
+			}
+		}
+
+		// 仮想スレッドは再利用されないため、スレッド毎に保持しない
+		if (TransactionScope.isVirtualThread()) {
+			return;
+		}
+		List<WeakReference<PoolEntry>> list = this.threadEntries.get();
+		if (list.size() < THREAD_LOCAL_SIZE) {
+			list.add(new WeakReference<>(entry));
+		}
+	}
+
+	/**
+	 * 最大コネクション数に達していない場合、新規のコネクションを生成する。
+	 *
+	 * @param state 生成したコネクションの状態
+	 * @return 生成したコネクション（最大コネクション数に達している場合はnull）
+	 * @throws SQLException
+	 */
+	private PoolEntry create(int state) throws SQLException {
+		while (true) {
+			int count = this.total.get();
+			if (count >= this.maxSize) {
+				return null;
+			}
+			if (this.total.compareAndSet(count, count + 1)) {
+				break;
+			}
+		}
+		try {
+			Connection raw = DriverManager.getConnection(this.url, this.user, this.password);
+			this.initialize(raw);
+			PoolEntry entry = new PoolEntry(raw, raw.getTransactionIsolation());
+			entry.state.set(state);
+			this.entries.add(entry);
+			return entry;
+		} catch (SQLException | RuntimeException e) {
+			this.total.decrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * コネクションの接続属性を初期化する。
+	 *
+	 * @param raw コネクション
+	 * @throws SQLException
+	 */
+	private void initialize(Connection raw) throws SQLException {
+		raw.setAutoCommit(false);
+		raw.setReadOnly(false);
+	}
+
+	/**
+	 * コネクションを破棄する。
+	 *
+	 * @param entry コネクション
+	 */
+	private void remove(PoolEntry entry) {
+		if (this.entries.remove(entry)) {
+			this.total.decrementAndGet();
+		}
+		try {
+			entry.raw.close();
+		} catch (SQLException e) {
+			// NOP
+		}
+	}
+
+	/**
+	 * 最大生存時間を超えているかどうかを取得する。
+	 *
+	 * @param entry コネクション
+	 * @param now   現在時刻（ナノ秒）
+	 * @return 判定結果
+	 */
+	private boolean isExpired(PoolEntry entry, long now) {
+		return this.maxLifetime > 0 && now - entry.createdAt > this.maxLifetime;
+	}
+
+	/**
+	 * コネクションが使用可能かどうかを取得する。
+	 * 直近に返却したコネクションは確認を省略し、それ以外は{@link Connection#isValid(int)}で接続を確認する。
+	 *
+	 * @param entry コネクション
+	 * @param now   現在時刻（ナノ秒）
+	 * @return 判定結果
+	 */
+	private boolean isValid(PoolEntry entry, long now) {
+		if (now - entry.lastAccessed < this.validationInterval) {
+			return true;
+		}
+		DatabaseMetrics.increment(Metric.VALIDATION);
+		try {
+			if (entry.raw.isValid(this.validationTimeout)) {
+				return true;
+			}
+		} catch (SQLException e) {
+			// エラーが発生した場合は使用不可
+		}
+		DatabaseMetrics.increment(Metric.VALIDATION_FAILED);
+		logger.warn("接続を確認できないコネクションを破棄します。");
+		return false;
+	}
+
+	/**
+	 * 保守処理。
+	 */
+	private void housekeep() {
+		try {
+			long now = System.nanoTime();
+			for (PoolEntry entry : this.entries) {
+				int state = entry.state.get();
+				if (state == NOT_IN_USE) {
+					boolean idle = this.idleTimeout > 0 && now - entry.lastAccessed > this.idleTimeout
+							&& this.total.get() > this.minIdle;
+					if ((idle || this.isExpired(entry, now)) && entry.state.compareAndSet(NOT_IN_USE, REMOVED)) {
+						this.remove(entry);
+					}
+				} else if (state == IN_USE && this.leakDetection > 0 && !entry.leakReported
+						&& now - entry.borrowedAt > this.leakDetection) {
+					entry.leakReported = true;
+					DatabaseMetrics.increment(Metric.POOL_LEAK);
+					logger.warn("コネクションが返却されていません。[経過時間="
+							+ TimeUnit.NANOSECONDS.toMillis(now - entry.borrowedAt) + "ms]", entry.borrowedBy);
+				}
+			}
+
+			// 最小の未使用コネクション数まで補充
+			while (!this.closed && this.getIdleConnections() < this.minIdle
+					&& Objects.nonNull(this.create(NOT_IN_USE))) {
+				// NOP
+			}
+		} catch (Exception e) {
+			logger.warn("コネクション・プールの保守処理でエラーが発生しました。", e);
+		}
+	}
+
+	@Override
+	public PrintWriter getLogWriter() throws SQLException {
+		return DriverManager.getLogWriter();
+	}
+
+	@Override
+	public void setLogWriter(PrintWriter out) throws SQLException {
+		DriverManager.setLogWriter(out);
+	}
+
+	@Override
+	public void setLoginTimeout(int seconds) throws SQLException {
+		DriverManager.setLoginTimeout(seconds);
+	}
+
+	@Override
+	public int getLoginTimeout() throws SQLException {
+		return DriverManager.getLoginTimeout();
+	}
+
+	@Override
+	public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return iface.cast(this);
+		}
+		throw new SQLException("Wrapped DataSource is not an instance of " + iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this);
+	}
+
+}
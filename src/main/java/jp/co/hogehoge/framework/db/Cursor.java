@@ -0,0 +1,190 @@
+package jp.co.hogehoge.framework.db;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * カーソル。
+ * SELECT処理の実行結果を、要求された件数ずつエンティティに変換して取得する。
+ * 取得件数をフェッチ・サイズとしてドライバーに伝えることで、実行結果全体をメモリに読み込まずに逐次処理できる。
+ * カーソルは専用のコネクションで実行し（トランザクションには参加しない）、終端まで取得した場合も呼び出し元でクローズすること。
+ */
+final class Cursor implements AutoCloseable {
+
+	/** logger */
+	private static Logger logger = LogManager.getLogger(Cursor.class);
+
+	/** SQLID */
+	private final String sqlId;
+
+	/** SQL */
+	private final String sql;
+
+	/** SQL実行パラメータ（マップ） */
+	private final Map<String, Object> args;
+
+	/** SQL命令 */
+	private final Command<?> command;
+
+	/** ResultSetパーサー */
+	private final ResultSetParser<?> parser;
+
+	/** ワークロード */
+	private final String workload;
+
+	/** 読み取り用レプリカで実行するかどうか */
+	private final boolean replica;
+
+	/** シャード名（シャードを使用しない場合はnull） */
+	private final String shard;
+
+	/** データベース・コネクション */
+	private DatabaseConnection conn = null;
+
+	/** プリペアード・ステートメント */
+	private volatile PreparedStatement ps = null;
+
+	/** 実行結果 */
+	private ResultSet rs = null;
+
+	/** 終端まで取得したかどうか */
+	private boolean exhausted = false;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param sqlId    SQLID
+	 * @param sql      SQL
+	 * @param args     SQL実行パラメータ（マップ）
+	 * @param command  SQL命令
+	 * @param parser   ResultSetパーサー
+	 * @param workload ワークロード
+	 * @param replica  読み取り用レプリカで実行するかどうか
+	 * @param shard    シャード名（シャードを使用しない場合はnull）
+	 */
+	Cursor(String sqlId, String sql, Map<String, Object> args, Command<?> command, ResultSetParser<?> parser,
+			String workload, boolean replica, String shard) {
+		this.sqlId = sqlId;
+		this.sql = sql;
+		this.args = args;
+		this.command = command;
+		this.parser = parser;
+		this.workload = workload;
+		this.replica = replica;
+		this.shard = shard;
+	}
+
+	/**
+	 * 要求された件数のレコードを取得する。
+	 * 初回の取得時にコネクションを取得してSQLを実行する。
+	 * 1回で取得する件数は{@link DatabaseConfig#STREAM_FETCH_SIZE}を上限とする。
+	 *
+	 * @param n 要求件数
+	 * @return エンティティのリスト（終端に達した場合は要求件数未満）
+	 * @throws SQLException
+	 */
+	List<Entity> fetch(long n) throws SQLException {
+		if (this.exhausted || n <= 0) {
+			return Collections.emptyList();
+		}
+		int size = (int) Math.min(n, Math.max(1, DatabaseConfig.STREAM_FETCH_SIZE.get()));
+		if (Objects.isNull(this.rs)) {
+			this.open(size);
+		} else {
+			this.rs.setFetchSize(size);
+		}
+		List<Entity> rows = new ArrayList<>(size);
+		while (rows.size() < size) {
+			if (!this.rs.next()) {
+				this.exhausted = true;
+				break;
+			}
+			rows.add(this.parser.parseEntity(this.rs));
+		}
+		return rows;
+	}
+
+	/**
+	 * 終端まで取得したかどうかを取得する。
+	 *
+	 * @return 判定結果
+	 */
+	boolean isExhausted() {
+		return this.exhausted;
+	}
+
+	/**
+	 * 実行中の取得処理を中止する。
+	 * 他のスレッドから呼び出すことができる。
+	 */
+	void cancel() {
+		PreparedStatement current = this.ps;
+		if (Objects.isNull(current)) {
+			return;
+		}
+		try {
+			current.cancel();
+		} catch (SQLException e) {
+			logger.debug("カーソルの中止に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * カーソルをクローズし、コネクションを返却する。
+	 * 複数回呼び出した場合、2回目以降は何もしない。
+	 */
+	@Override
+	public void close() {
+		DatabaseConnection current = this.conn;
+		if (Objects.isNull(current)) {
+			return;
+		}
+		this.conn = null;
+		try {
+			if (Objects.nonNull(this.rs)) {
+				this.rs.close();
+			}
+			if (Objects.nonNull(this.ps)) {
+				this.ps.close();
+			}
+			current.rollback();
+		} catch (SQLException e) {
+			logger.warn("カーソルのクローズに失敗しました。SQLID={" + this.sqlId + "}", e);
+		} finally {
+			this.rs = null;
+			this.ps = null;
+			try {
+				current.close();
+			} catch (Exception e) {
+				logger.warn("コネクションのクローズに失敗しました。", e);
+			}
+		}
+	}
+
+	/**
+	 * コネクションを取得してSQLを実行する。
+	 *
+	 * @param fetchSize フェッチ・サイズ
+	 * @throws SQLException
+	 */
+	private void open(int fetchSize) throws SQLException {
+		if (logger.isInfoEnabled()) {
+			logger.info("SQLID={" + this.sqlId + "}, SQL={" + this.sql + "}, PARAM=" + this.args + ", CURSOR");
+		}
+		this.conn = DatabaseConnection.open(Bulkhead.of(this.workload), this.replica, this.shard);
+		this.ps = this.conn.prepareStatement(this.sql);
+		this.command.setPreparedStatement(this.ps, this.args);
+		this.ps.setFetchSize(fetchSize);
+		this.rs = this.ps.executeQuery();
+	}
+
+}
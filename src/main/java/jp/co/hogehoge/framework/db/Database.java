@@ -0,0 +1,171 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.MissingResourceException;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * データベースの初期設定。
+ * プライマリのデータ・ソースを管理する。既定では{@link DatabaseConfig}の設定に従い、
+ * 最初にコネクションを取得するタイミングで組み込みのコネクション・プールを生成するか、JNDIでデータ・ソースを取得する。
+ * JNDIを使用できない（使用しない）バッチ処理、コマンドライン・ツールおよびテストでは、
+ * 処理の開始時にデータ・ソースまたは接続情報を設定する。
+ *
+ * <pre>
+ * public static void main(String[] args) {
+ *     Properties properties = new Properties();
+ *     properties.setProperty("db.pool.url", "jdbc:db2://localhost:50000/SAMPLE");
+ *     properties.setProperty("db.pool.user", "db2inst1");
+ *     properties.setProperty("db.pool.password", "password");
+ *     Database.configure(properties);
+ *     try {
+ *         Transaction.execute(() -&gt; CustomerSql.UPDATE_001.execute(customer));
+ *     } finally {
+ *         Database.reset();
+ *     }
+ * }
+ * </pre>
+ */
+public final class Database {
+
+	/** logger */
+	private static Logger logger = LogManager.getLogger(Database.class);
+
+	/** データ・ソースの設定・初期化の排他制御 */
+	private static final ReentrantLock LOCK = new ReentrantLock();
+
+	/** データ・ソースの生成処理 */
+	private static Supplier<DataSource> factory = Database::initialize;
+
+	/** データ・ソースを外部から設定したかどうか（外部から設定した場合は停止しない） */
+	private static boolean external = false;
+
+	/** データ・ソース・インスタンス（未初期化の場合はnull） */
+	private static volatile DataSource instance = null;
+
+	/**
+	 * コンストラクタ。
+	 */
+	private Database() {
+		// NOP
+	}
+
+	/**
+	 * プライマリのデータ・ソースを設定する。
+	 * 設定したデータ・ソースは、{@link #reset()}または再設定した場合でも停止しない。
+	 *
+	 * @param dataSource データ・ソース
+	 */
+	public static void configure(DataSource dataSource) {
+		Objects.requireNonNull(dataSource, "dataSource");
+		replace(() -> dataSource, true);
+	}
+
+	/**
+	 * 接続情報を設定し、組み込みのコネクション・プールをプライマリのデータ・ソースとする。
+	 * コネクション・プールは最初にコネクションを取得するタイミングで生成する。
+	 * 接続情報のキーは{@link DatabaseConfig}のコネクション・プールの設定（db.pool.url等）と同じとし、
+	 * 指定されていない項目は{@link DatabaseConfig}の設定を使用する。
+	 *
+	 * @param properties 接続情報
+	 * @throws IllegalArgumentException 接続先URL（db.pool.url）が指定されていない場合
+	 */
+	public static void configure(Properties properties) {
+		Properties copy = new Properties();
+		copy.putAll(properties);
+		if (copy.getProperty("db.pool.url", DatabaseConfig.POOL_URL.get()).trim().isEmpty()) {
+			throw new IllegalArgumentException("接続先URL（db.pool.url）が指定されていません。");
+		}
+		replace(() -> ConnectionPool.create(copy), false);
+	}
+
+	/**
+	 * 設定したデータ・ソースを破棄し、{@link DatabaseConfig}の設定に従う初期状態に戻す。
+	 * 組み込みのコネクション・プールを使用していた場合は停止する。
+	 */
+	public static void reset() {
+		replace(Database::initialize, false);
+	}
+
+	/**
+	 * プライマリのデータ・ソースを取得する。
+	 * 初期化されていない場合は初期化する。初期化に失敗した場合は、次回の取得時に再度初期化する。
+	 *
+	 * @return データ・ソース
+	 * @throws MissingResourceException JNDIでデータ・ソースが取得できない場合
+	 */
+	static DataSource dataSource() {
+		DataSource dataSource = instance;
+		if (Objects.nonNull(dataSource)) {
+			return dataSource;
+		}
+		LOCK.lock();
+		try {
+			if (Objects.isNull(instance)) {
+				instance = factory.get();
+			}
+			return instance;
+		} finally {
+			LOCK.unlock();
+		}
+	}
+
+	/**
+	 * データ・ソースの生成処理を置き換える。
+	 * 初期化済みの組み込みのコネクション・プールは停止する。
+	 *
+	 * @param supplier   データ・ソースの生成処理
+	 * @param isExternal データ・ソースを外部から設定したかどうか
+	 */
+	private static void replace(Supplier<DataSource> supplier, boolean isExternal) {
+		DataSource previous;
+		boolean wasExternal;
+		LOCK.lock();
+		try {
+			previous = instance;
+			wasExternal = external;
+			factory = supplier;
+			external = isExternal;
+			instance = null;
+		} finally {
+			LOCK.unlock();
+		}
+		if (!wasExternal && previous instanceof ConnectionPool) {
+			logger.info("コネクション・プールを停止します。");
+			((ConnectionPool) previous).close();
+		}
+	}
+
+	/**
+	 * {@link DatabaseConfig}の設定でデータ・ソースを初期化する。
+	 * 組み込みのコネクション・プールを使用する場合はコネクション・プールを生成し、それ以外の場合はJNDIで取得する。
+	 *
+	 * @return データ・ソース
+	 * @throws MissingResourceException JNDIでデータ・ソースが取得できない場合
+	 */
+	private static DataSource initialize() {
+		if (Boolean.parseBoolean(DatabaseConfig.POOL_ENABLED.get().trim())) {
+			return ConnectionPool.create();
+		}
+		try {
+			return (DataSource) InitialContext.doLookup(DatabaseConfig.DATA_SOURCE_NAME.get());
+		} catch (NamingException e) {
+			MissingResourceException me = new MissingResourceException(
+					Message.DBE00004.format(DatabaseConfig.DATA_SOURCE_NAME.get()),
+					DatabaseConfig.DATA_SOURCE_NAME.get(),
+					DatabaseConfig.DATA_SOURCE_NAME.get());
+			me.addSuppressed(e);
+			throw me;
+		}
+	}
+
+}
@@ -25,6 +25,109 @@ public abstract class DatabaseConfig {
 	public static final Property<String> DATA_SOURCE_NAME = Property
 			.define(FILENAME, "db.datasource.name", "java:comp/env/jdbc", PropertyType.isString());
 
+	/**
+	 * シャード毎のデータ・ソース名（シャード名=データ・ソース名をセミコロン区切り）。
+	 * 組み込みのコネクション・プールを使用する場合はデータ・ソース名の代わりに接続先URLを指定する。
+	 */
+	public static final Property<String> SHARDS = Property
+			.define(FILENAME, "db.shards", "", PropertyType.isString());
+
+	/** 全てのシャードで並列に実行するスレッド数の上限。0以下の場合はコネクション・プールの最大コネクション数 */
+	public static final Property<Integer> SHARD_POOL_SIZE = Property
+			.define(FILENAME, "db.shard.poolsize", 0, PropertyType.isInteger());
+
+	/** 読み取り用レプリカのデータ・ソース名（空の場合はレプリカを使用しない） */
+	public static final Property<String> REPLICA_DATA_SOURCE_NAME = Property
+			.define(FILENAME, "db.replica.datasource.name", "", PropertyType.isString());
+
+	/** 読み取り用レプリカの取得に失敗した場合に、プライマリを使用する時間（ms） */
+	public static final Property<Integer> REPLICA_RETRY_INTERVAL = Property
+			.define(FILENAME, "db.replica.retryinterval", 30000, PropertyType.isInteger());
+
+	/** 組み込みのコネクション・プールを使用するかどうか（true/false）。falseの場合はJNDIでデータ・ソースを取得する */
+	public static final Property<String> POOL_ENABLED = Property
+			.define(FILENAME, "db.pool.enabled", "false", PropertyType.isString());
+
+	/** コネクション・プールの接続先URL */
+	public static final Property<String> POOL_URL = Property
+			.define(FILENAME, "db.pool.url", "", PropertyType.isString());
+
+	/** 読み取り用レプリカのコネクション・プールの接続先URL（空の場合はレプリカを使用しない） */
+	public static final Property<String> POOL_REPLICA_URL = Property
+			.define(FILENAME, "db.pool.replica.url", "", PropertyType.isString());
+
+	/** コネクション・プールの接続ユーザー */
+	public static final Property<String> POOL_USER = Property
+			.define(FILENAME, "db.pool.user", "", PropertyType.isString());
+
+	/** コネクション・プールの接続パスワード */
+	public static final Property<String> POOL_PASSWORD = Property
+			.define(FILENAME, "db.pool.password", "", PropertyType.isString());
+
+	/** コネクション・プールで維持する最小の未使用コネクション数 */
+	public static final Property<Integer> POOL_MIN_IDLE = Property
+			.define(FILENAME, "db.pool.minidle", 2, PropertyType.isInteger());
+
+	/** コネクション・プールの最大コネクション数 */
+	public static final Property<Integer> POOL_MAX_SIZE = Property
+			.define(FILENAME, "db.pool.maxsize", 20, PropertyType.isInteger());
+
+	/** コネクション・プールからコネクションを取得する際の最大待機時間（ms） */
+	public static final Property<Integer> POOL_CONNECTION_TIMEOUT = Property
+			.define(FILENAME, "db.pool.connectiontimeout", 30000, PropertyType.isInteger());
+
+	/** 未使用のコネクションを破棄するまでの時間（ms）。0以下の場合は破棄しない */
+	public static final Property<Integer> POOL_IDLE_TIMEOUT = Property
+			.define(FILENAME, "db.pool.idletimeout", 600000, PropertyType.isInteger());
+
+	/** コネクションの最大生存時間（ms）。0以下の場合は制限しない */
+	public static final Property<Integer> POOL_MAX_LIFETIME = Property
+			.define(FILENAME, "db.pool.maxlifetime", 1800000, PropertyType.isInteger());
+
+	/** 取得したコネクションが返却されない場合に警告するまでの時間（ms）。0以下の場合は警告しない */
+	public static final Property<Integer> POOL_LEAK_DETECTION = Property
+			.define(FILENAME, "db.pool.leakdetection", 0, PropertyType.isInteger());
+
+	/** コネクション・プールの保守処理の実行間隔（ms） */
+	public static final Property<Integer> POOL_HOUSEKEEPING = Property
+			.define(FILENAME, "db.pool.housekeeping", 30000, PropertyType.isInteger());
+
+	/** コネクションの接続を確認する際の最大待機時間（秒） */
+	public static final Property<Integer> VALIDATION_TIMEOUT = Property
+			.define(FILENAME, "db.validation.timeout", 5, PropertyType.isInteger());
+
+	/** 直近に使用したコネクションの接続の確認を省略する時間（ms） */
+	public static final Property<Integer> VALIDATION_INTERVAL = Property
+			.define(FILENAME, "db.validation.interval", 500, PropertyType.isInteger());
+
+	/** ワークロード毎に同時に使用できるコネクション数（ワークロード:上限数をセミコロン区切り。例：online:20;batch:5;report:3） */
+	public static final Property<String> BULKHEAD = Property
+			.define(FILENAME, "db.bulkhead", "", PropertyType.isString());
+
+	/** ワークロードの同時実行数の上限に達している場合の最大待機時間（ms） */
+	public static final Property<Integer> BULKHEAD_TIMEOUT = Property
+			.define(FILENAME, "db.bulkhead.timeout", 1000, PropertyType.isInteger());
+
+	/** 非同期実行（{@link DatabaseExecutor}）のスレッド数。0以下の場合はコネクション・プールの最大コネクション数 */
+	public static final Property<Integer> ASYNC_POOL_SIZE = Property
+			.define(FILENAME, "db.async.poolsize", 0, PropertyType.isInteger());
+
+	/** 非同期実行（{@link DatabaseExecutor}）の実行待ちの上限数 */
+	public static final Property<Integer> ASYNC_QUEUE_SIZE = Property
+			.define(FILENAME, "db.async.queuesize", 1000, PropertyType.isInteger());
+
+	/** カーソル（{@link Cursor}）で1回に取得するレコード数の上限 */
+	public static final Property<Integer> STREAM_FETCH_SIZE = Property
+			.define(FILENAME, "db.stream.fetchsize", 500, PropertyType.isInteger());
+
+	/** 並列実行（{@link QueryGroup}）の制限時間（ms） */
+	public static final Property<Integer> PARALLEL_TIMEOUT = Property
+			.define(FILENAME, "db.parallel.timeout", 30000, PropertyType.isInteger());
+
+	/** SQLのウォームアップの並列数（コネクション数） */
+	public static final Property<Integer> WARM_UP_PARALLELISM = Property
+			.define(FILENAME, "db.warmup.parallelism", 4, PropertyType.isInteger());
+
 	/** リトライ対象エラーコードリスト */
 	public static final Property<List<Integer>> RETRY_ERROR_CODE = Property.define(FILENAME,
 			"db.retry.errorcode",
@@ -39,4 +142,92 @@ public abstract class DatabaseConfig {
 	public static final Property<Integer> RETRY_WAIT = Property
 			.define(FILENAME, "db.retry.wait", 1000, PropertyType.isInteger());
 
+	/** 既定のリトライ方針（fixed：一定時間待機、exponential：待機時間を指数的に延長） */
+	public static final Property<String> RETRY_POLICY = Property
+			.define(FILENAME, "db.retry.policy", "fixed", PropertyType.isString());
+
+	/** リトライ方針がexponentialの場合の最大待機時間（ms） */
+	public static final Property<Integer> RETRY_MAX_WAIT = Property
+			.define(FILENAME, "db.retry.maxwait", 10000, PropertyType.isInteger());
+
+	/** アプリケーション全体のリトライ上限（トークン数）。0以下の場合は制限しない */
+	public static final Property<Integer> RETRY_BUDGET_CAPACITY = Property
+			.define(FILENAME, "db.retry.budget.capacity", 100, PropertyType.isInteger());
+
+	/** アプリケーション全体のリトライ上限の1秒毎の補充数 */
+	public static final Property<Integer> RETRY_BUDGET_RATE = Property
+			.define(FILENAME, "db.retry.budget.rate", 10, PropertyType.isInteger());
+
+	/** サーキット・ブレーカーを有効にするかどうか（true/false） */
+	public static final Property<String> CIRCUIT_BREAKER_ENABLED = Property
+			.define(FILENAME, "db.circuitbreaker.enabled", "false", PropertyType.isString());
+
+	/** サーキット・ブレーカーの障害率を算出する直近の処理数 */
+	public static final Property<Integer> CIRCUIT_BREAKER_WINDOW = Property
+			.define(FILENAME, "db.circuitbreaker.window", 20, PropertyType.isInteger());
+
+	/** サーキット・ブレーカーが障害率を判定する最小処理数 */
+	public static final Property<Integer> CIRCUIT_BREAKER_MINIMUM_CALLS = Property
+			.define(FILENAME, "db.circuitbreaker.minimumcalls", 10, PropertyType.isInteger());
+
+	/** サーキット・ブレーカーが遮断する障害率（%） */
+	public static final Property<Integer> CIRCUIT_BREAKER_THRESHOLD = Property
+			.define(FILENAME, "db.circuitbreaker.threshold", 50, PropertyType.isInteger());
+
+	/** サーキット・ブレーカーが遮断してから回復を確認するまでの時間（ms） */
+	public static final Property<Integer> CIRCUIT_BREAKER_OPEN_TIME = Property
+			.define(FILENAME, "db.circuitbreaker.opentime", 30000, PropertyType.isInteger());
+
+	/** サーキット・ブレーカーが障害とするSQLSTATE（前方一致、セミコロン区切り） */
+	public static final Property<String> CIRCUIT_BREAKER_SQL_STATE = Property
+			.define(FILENAME, "db.circuitbreaker.sqlstate", "08;57011;57019;57030", PropertyType.isString());
+
+	/** サーキット・ブレーカーが回復を確認するSQL */
+	public static final Property<String> CIRCUIT_BREAKER_PROBE = Property
+			.define(FILENAME, "db.circuitbreaker.probe", "SELECT 1 FROM SYSIBM.SYSDUMMY1", PropertyType.isString());
+
+	/** 一括ローダーの収集待機時間（ms）。0以下の場合はトランザクション外の要求を収集せず即時実行する */
+	public static final Property<Integer> BATCH_LOADER_WINDOW = Property
+			.define(FILENAME, "db.batchloader.window", 5, PropertyType.isInteger());
+
+	/** 一括ローダーが1回のSELECT処理で取得する最大キー数 */
+	public static final Property<Integer> BATCH_LOADER_MAX_SIZE = Property
+			.define(FILENAME, "db.batchloader.maxsize", 100, PropertyType.isInteger());
+
+	/** SQL実行結果キャッシュの上限件数 */
+	public static final Property<Integer> QUERY_CACHE_SIZE = Property
+			.define(FILENAME, "db.querycache.size", 10000, PropertyType.isInteger());
+
+	/** SQL実行結果キャッシュのストライプ（ロック単位）数 */
+	public static final Property<Integer> QUERY_CACHE_STRIPES = Property
+			.define(FILENAME, "db.querycache.stripes", 16, PropertyType.isInteger());
+
+	/** エンティティ・キャッシュのエンティティ・クラス毎の上限件数 */
+	public static final Property<Integer> ENTITY_CACHE_CAPACITY = Property
+			.define(FILENAME, "db.entitycache.capacity", 1000, PropertyType.isInteger());
+
+	/** トランザクション再実行の上限回数 */
+	public static final Property<Integer> REPLAY_COUNT = Property
+			.define(FILENAME, "db.replay.count", 3, PropertyType.isInteger());
+
+	/** トランザクション再実行時の最小待機時間（ms） */
+	public static final Property<Integer> REPLAY_WAIT = Property
+			.define(FILENAME, "db.replay.wait", 50, PropertyType.isInteger());
+
+	/** トランザクション再実行時の最大待機時間（ms） */
+	public static final Property<Integer> REPLAY_MAX_WAIT = Property
+			.define(FILENAME, "db.replay.maxwait", 2000, PropertyType.isInteger());
+
+	/** トランザクション再実行を行う期限（最初の実行開始からの経過時間（ms）） */
+	public static final Property<Integer> REPLAY_TIMEOUT = Property
+			.define(FILENAME, "db.replay.timeout", 10000, PropertyType.isInteger());
+
+	/** グループ・コミットで1回のコミットにまとめる最大処理数 */
+	public static final Property<Integer> GROUP_COMMIT_MAX_SIZE = Property
+			.define(FILENAME, "db.groupcommit.maxsize", 100, PropertyType.isInteger());
+
+	/** グループ・コミットで処理を収集する最大待機時間（ms） */
+	public static final Property<Integer> GROUP_COMMIT_WAIT = Property
+			.define(FILENAME, "db.groupcommit.wait", 5, PropertyType.isInteger());
+
 }
@@ -3,98 +3,404 @@ package jp.co.hogehoge.framework.db;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.MissingResourceException;
+import java.sql.Savepoint;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.sql.DataSource;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jp.co.hogehoge.framework.db.DatabaseMetrics.Metric;
 import jp.co.hogehoge.framework.db.exception.DatabaseConnectionException;
+import jp.co.hogehoge.framework.db.exception.DatabaseUnavailableException;
+import jp.co.hogehoge.framework.db.exception.ShardingException;
 
 /**
  * データベース・コネクション。
  */
 class DatabaseConnection implements AutoCloseable {
 
+	/** logger */
+	private static Logger logger = LogManager.getLogger(DatabaseConnection.class);
+
 	/** コネクション */
 	private Connection conn = null;
 
+	/** 最終使用時刻（ナノ秒） */
+	private long lastUsed = 0;
+
+	/** 使用許可を取得したワークロードのバルクヘッド（取得していない場合はnull） */
+	private Bulkhead bulkhead = null;
+
+	/** コネクションを取得したデータ・ソースのサーキット・ブレーカー */
+	private CircuitBreaker breaker = null;
+
+	/** サーキット・ブレーカーのデータ・ソース名（プライマリ） */
+	private static final String PRIMARY = "primary";
+
+	/** サーキット・ブレーカーのデータ・ソース名（読み取り用レプリカ） */
+	private static final String REPLICA = "replica";
+
+	/** サーキット・ブレーカーのデータ・ソース名の接頭辞（シャード） */
+	private static final String SHARD_PREFIX = "shard:";
+
 	/** コネクション（スレッド毎に管理） */
 	private static final ThreadLocal<DatabaseConnection> CONNECTION = new ThreadLocal<>();
 
 	/**
-	 * データ・ソース格納クラス。
-	 * 
-	 * データ・ソースを通常のstatic変数として定義し、同様の処理にて初期化（※）した場合、
-	 * データ・ソースがContextにbindされる前にlookupが実行されるため、データ・ソースが取得できない。
-	 * （※staticイニシャライザを想定。それ以外の方法で初期化した場合、排他制御が必要になる。）
-	 * 
-	 * 内部クラスのstatic変数で定義した場合、親クラスがロードされたタイミングでは初期化されず、
-	 * 最初にアクセスされたタイミングで初期化される遅延ロードとなるため、
-	 * データ・ソースがContextのlookupにて取得される前にbindすることが出来る。
+	 * 読み取り用レプリカのデータ・ソース格納クラス。
+	 * プライマリのデータ・ソース（{@link Database}）と同様に、最初にアクセスされたタイミングで初期化する。
+	 * レプリカを使用しない場合、およびデータ・ソースを取得できない場合は、全ての処理をプライマリで実行する。
+	 * データ・ソースを取得できなかった場合は、{@link DatabaseConfig#REPLICA_RETRY_INTERVAL}を経過した後に再度初期化する。
 	 */
-	private static class DatabaseDataSource {
+	private static class ReplicaDataSource {
+
+		/** レプリカを使用するかどうか */
+		private static final boolean CONFIGURED = isConfigured();
+
+		/** データ・ソース・インスタンス（初期化前、または取得できなかった場合はnull） */
+		private static volatile DataSource instance = null;
 
-		/** データ・ソース・インスタンス */
-		private static DataSource INSTANCE = initialize();
+		/** 初期化処理のロック */
+		private static final ReentrantLock LOCK = new ReentrantLock();
+
+		/** コネクション、またはデータ・ソースの取得に失敗した時刻（ナノ秒） */
+		private static volatile long failedAt = 0;
+
+		/** コネクション、またはデータ・ソースの取得に失敗し、プライマリを使用しているかどうか */
+		private static volatile boolean suspended = false;
+
+		/**
+		 * レプリカを使用するかどうかを取得する。
+		 * 
+		 * @return 判定結果
+		 */
+		private static boolean isConfigured() {
+			if (Boolean.parseBoolean(DatabaseConfig.POOL_ENABLED.get().trim())) {
+				return !DatabaseConfig.POOL_REPLICA_URL.get().trim().isEmpty();
+			}
+			return !DatabaseConfig.REPLICA_DATA_SOURCE_NAME.get().trim().isEmpty();
+		}
 
 		/**
 		 * データ・ソース初期化処理。
+		 * 組み込みのコネクション・プールを使用する場合は{@link DatabaseConfig#POOL_REPLICA_URL}に接続するコネクション・プールを生成し、
+		 * それ以外の場合は{@link DatabaseConfig#REPLICA_DATA_SOURCE_NAME}をJNDIで取得する。
 		 * 
-		 * @return データ・ソース
+		 * @return データ・ソース（取得できなかった場合はnull）
 		 */
 		private static DataSource initialize() {
+			if (Boolean.parseBoolean(DatabaseConfig.POOL_ENABLED.get().trim())) {
+				return ConnectionPool.create(DatabaseConfig.POOL_REPLICA_URL.get().trim());
+			}
+			String name = DatabaseConfig.REPLICA_DATA_SOURCE_NAME.get().trim();
 			try {
-				return (DataSource) InitialContext.doLookup(DatabaseConfig.DATA_SOURCE_NAME.get());
+				return (DataSource) InitialContext.doLookup(name);
 			} catch (NamingException e) {
-				MissingResourceException me = new MissingResourceException(
-						Message.DBE00004.format(DatabaseConfig.DATA_SOURCE_NAME.get()),
-						DatabaseConfig.DATA_SOURCE_NAME.get(),
-						DatabaseConfig.DATA_SOURCE_NAME.get());
-				me.addSuppressed(e);
-				throw me;
+				logger.warn(Message.DBE00004.format(name), e);
+				record(false);
+				return null;
+			}
+		}
+
+		/**
+		 * 使用できるレプリカのデータ・ソースを取得する。
+		 * コネクション、またはデータ・ソースの取得に失敗してから{@link DatabaseConfig#REPLICA_RETRY_INTERVAL}を
+		 * 経過するまでは使用しない。
+		 * 
+		 * @return データ・ソース（使用できない場合はnull）
+		 */
+		private static DataSource getAvailable() {
+			if (!CONFIGURED || suspended && System.nanoTime() - failedAt < TimeUnit.MILLISECONDS
+					.toNanos(DatabaseConfig.REPLICA_RETRY_INTERVAL.get())) {
+				return null;
+			}
+			DataSource dataSource = instance;
+			if (Objects.nonNull(dataSource)) {
+				return dataSource;
+			}
+			LOCK.lock();
+			try {
+				if (Objects.isNull(instance)) {
+					instance = initialize();
+				}
+				return instance;
+			} finally {
+				LOCK.unlock();
+			}
+		}
+
+		/**
+		 * コネクションの取得結果を記録する。
+		 * 
+		 * @param success 取得できた場合はtrue
+		 */
+		private static void record(boolean success) {
+			if (success) {
+				suspended = false;
+			} else {
+				failedAt = System.nanoTime();
+				suspended = true;
 			}
 		}
 	}
 
 	/**
 	 * コネクションを確立する。
+	 * サーキット・ブレーカー（プライマリ）にはコネクションの取得に失敗した場合のみ記録し、
+	 * 成功はコネクションを使用した処理の結果として記録する（1回の処理で重複して記録しない）。
 	 * 
 	 * @return データベース・コネクション
+	 * @throws DatabaseUnavailableException サーキット・ブレーカーが遮断中の場合
 	 */
 	private DatabaseConnection connect() {
+		return this.connect(CircuitBreaker.of(PRIMARY, () -> probe(Database.dataSource())), Database::dataSource);
+	}
+
+	/**
+	 * データ・ソースのサーキット・ブレーカーで実行可否を確認し、コネクションを確立する。
+	 * 
+	 * @param breaker    データ・ソースのサーキット・ブレーカー
+	 * @param dataSource データ・ソースの取得処理
+	 * @return データベース・コネクション
+	 * @throws DatabaseUnavailableException サーキット・ブレーカーが遮断中の場合
+	 */
+	private DatabaseConnection connect(CircuitBreaker breaker, Supplier<DataSource> dataSource) {
+		breaker.acquire();
 		try {
-			this.conn = DatabaseDataSource.INSTANCE.getConnection();
+			this.conn = dataSource.get().getConnection();
+			this.lastUsed = System.nanoTime();
 		} catch (Exception e) {
+			breaker.onError(e);
 			throw new DatabaseConnectionException(e, Message.DBE00003);
 		}
+		this.breaker = breaker;
 		return this;
 	}
 
+	/**
+	 * 読み取り用レプリカのコネクションを確立する。
+	 * レプリカを使用できない場合、レプリカのサーキット・ブレーカーが遮断中の場合、およびコネクションの取得に失敗した場合は
+	 * プライマリのコネクションを確立する。
+	 * 
+	 * @return データベース・コネクション
+	 * @throws DatabaseUnavailableException プライマリのサーキット・ブレーカーが遮断中の場合
+	 */
+	private DatabaseConnection connectReplica() {
+		DataSource replica = ReplicaDataSource.getAvailable();
+		if (Objects.nonNull(replica)) {
+			try {
+				this.connect(CircuitBreaker.of(REPLICA, () -> probe(replica)), () -> replica);
+				ReplicaDataSource.record(true);
+				DatabaseMetrics.increment(Metric.REPLICA);
+				return this;
+			} catch (DatabaseUnavailableException e) {
+				logger.debug("読み取り用レプリカのサーキット・ブレーカーが遮断中のため、プライマリを使用します。");
+			} catch (Exception e) {
+				ReplicaDataSource.record(false);
+				logger.warn("読み取り用レプリカのコネクションの取得に失敗したため、プライマリを使用します。", e);
+			}
+			DatabaseMetrics.increment(Metric.REPLICA_FALLBACK);
+		} else if (ReplicaDataSource.CONFIGURED) {
+			DatabaseMetrics.increment(Metric.REPLICA_FALLBACK);
+		}
+		return this.connect();
+	}
+
+	/**
+	 * シャードのコネクションを確立する。
+	 * 
+	 * @param shard シャード名
+	 * @return データベース・コネクション
+	 * @throws ShardingException シャードが定義されていない場合
+	 * @throws DatabaseUnavailableException サーキット・ブレーカーが遮断中の場合
+	 */
+	private DatabaseConnection connectShard(String shard) {
+		DataSource dataSource = Shards.get(shard);
+		return this.connect(CircuitBreaker.of(SHARD_PREFIX + shard, () -> probe(dataSource)), () -> dataSource);
+	}
+
+	/**
+	 * データ・ソースから取得した新規のコネクションで確認用のSQL（{@link DatabaseConfig#CIRCUIT_BREAKER_PROBE}）を実行する。
+	 * スレッド毎に管理するコネクションは使用しない。
+	 * 
+	 * @param dataSource 確認するデータ・ソース
+	 * @return 実行結果
+	 * @throws SQLException
+	 */
+	private static boolean probe(DataSource dataSource) throws SQLException {
+		try (Connection conn = dataSource.getConnection();
+				PreparedStatement ps = conn.prepareStatement(DatabaseConfig.CIRCUIT_BREAKER_PROBE.get())) {
+			return ps.execute();
+		}
+	}
+
+	/**
+	 * 新規のコネクションを取得する。
+	 * 取得したコネクションはスレッド毎に管理しないため、呼び出し元でクローズすること。
+	 * 
+	 * @return データベース・コネクション
+	 * @throws DatabaseConnectionException 新規コネクションの取得に失敗した場合
+	 */
+	static DatabaseConnection open() {
+		return open(null, false, null);
+	}
+
+	/**
+	 * ワークロードの使用許可を取得して新規のコネクションを取得する。
+	 * 使用許可はコネクションのクローズ時に返却する。
+	 * シャードを指定した場合はシャードのコネクションを、読み取り用レプリカを使用する場合はレプリカのコネクション
+	 * （取得できない場合はプライマリ）を、それ以外の場合はプライマリのコネクションを取得する。
+	 * 取得したコネクションはスレッド毎に管理しないため、呼び出し元でクローズすること。
+	 * 
+	 * @param bulkhead ワークロードのバルクヘッド（同時実行数を制限しない場合はnull）
+	 * @param replica  読み取り用レプリカを使用する場合はtrue
+	 * @param shard    シャード名（シャードを使用しない場合はnull）
+	 * @return データベース・コネクション
+	 * @throws DatabaseConnectionException 使用許可、または新規コネクションの取得に失敗した場合
+	 * @throws ShardingException           シャードが定義されていない場合
+	 */
+	static DatabaseConnection open(Bulkhead bulkhead, boolean replica, String shard) {
+		if (Objects.nonNull(bulkhead)) {
+			bulkhead.acquire();
+		}
+		try {
+			DatabaseConnection conn = new DatabaseConnection();
+			if (Objects.nonNull(shard)) {
+				conn.connectShard(shard);
+			} else if (replica) {
+				conn.connectReplica();
+			} else {
+				conn.connect();
+			}
+			conn.bulkhead = bulkhead;
+			return conn;
+		} catch (RuntimeException e) {
+			if (Objects.nonNull(bulkhead)) {
+				bulkhead.release();
+			}
+			throw e;
+		}
+	}
+
 	/**
 	 * コネクションを取得する。
+	 * トランザクション内の場合はトランザクションのコネクションを取得する。
 	 * 
 	 * @return データベース・コネクション
 	 * @throws DatabaseConnectionException 新規コネクションの取得に失敗した場合
 	 */
 	protected static DatabaseConnection getConnection() {
+		TransactionContext context = Transaction.current();
+		if (Objects.nonNull(context)) {
+			return context.getConnection();
+		}
 		DatabaseConnection conn = CONNECTION.get();
 		if (Objects.isNull(conn)) {
 			conn = new DatabaseConnection();
 			CONNECTION.set(conn.connect());
-		} else {
-			boolean closed = true;
+		} else if (!conn.isValid()) {
+			// 使用できないコネクションは破棄して再取得
+			conn.discard();
+			conn.connect();
+		}
+		return conn;
+	}
+
+	/**
+	 * コネクションを使用して処理を実行する。
+	 * トランザクション内の場合、およびスレッド毎に管理するコネクション（{@link #getConnection()}で取得済み）が
+	 * 使用可能（{@link #isValid()}）な場合はそのコネクションを使用する。
+	 * それ以外の場合は新規のコネクションを取得して処理を実行し、正常終了した場合はコミット、エラーの場合はロールバックして、
+	 * 即時にクローズする（スレッド毎には管理しない）。
+	 * 
+	 * @param          <R> 処理結果のデータ型
+	 * @param function 処理
+	 * @return 処理結果
+	 * @throws SQLException
+	 * @throws DatabaseConnectionException 新規コネクションの取得に失敗した場合
+	 */
+	static <R> R execute(ConnectionFunction<R> function) throws SQLException {
+		return execute(null, false, null, function);
+	}
+
+	/**
+	 * ワークロード、読み取り用レプリカの使用、シャードを指定して、コネクションを使用して処理を実行する。
+	 * 新規のコネクションを取得する場合は、ワークロードの使用許可を取得し、指定に従いシャード、
+	 * または読み取り用レプリカのコネクションを取得する（詳細は{@link #execute(ConnectionFunction)}を参照）。
+	 * トランザクション内の場合はトランザクションのワークロード、コネクションに従い、シャードを指定した場合はトランザクションをそのシャードに固定する。
+	 * シャードを指定した場合、スレッド毎に管理するコネクションは使用しない。
+	 * 
+	 * @param          <R> 処理結果のデータ型
+	 * @param workload ワークロード（指定しない場合はnull）
+	 * @param replica  読み取り用レプリカを使用する場合はtrue
+	 * @param shard    シャード名（シャードを使用しない場合はnull）
+	 * @param function 処理
+	 * @return 処理結果
+	 * @throws SQLException
+	 * @throws DatabaseConnectionException 使用許可、または新規コネクションの取得に失敗した場合
+	 * @throws ShardingException           トランザクション内で異なるシャードを指定した場合、またはシャードが定義されていない場合
+	 */
+	static <R> R execute(String workload, boolean replica, String shard, ConnectionFunction<R> function)
+			throws SQLException {
+		TransactionContext context = Transaction.current();
+		if (Objects.nonNull(context)) {
+			return context.getConnection(shard).apply(function);
+		}
+		DatabaseConnection bound = CONNECTION.get();
+		if (Objects.isNull(shard) && Objects.nonNull(bound) && bound.isValid()) {
+			return bound.apply(function);
+		}
+		try (DatabaseConnection conn = open(Bulkhead.of(workload), replica, shard)) {
 			try {
-				closed = conn.isClosed();
-			} catch (Exception e) {
-				// エラーが発生した場合はコネクションを再取得
-			}
-			if (closed) {
-				conn.connect();
+				return conn.apply(c -> {
+					R result = function.apply(c);
+					c.commit();
+					return result;
+				});
+			} catch (SQLException | RuntimeException e) {
+				try {
+					conn.rollback();
+				} catch (SQLException se) {
+					e.addSuppressed(se);
+				}
+				throw e;
 			}
 		}
-		return conn;
+	}
+
+	/**
+	 * コネクションを使用して処理を実行し、処理結果をコネクションを取得したデータ・ソースのサーキット・ブレーカーに記録する。
+	 * 
+	 * @param          <R> 処理結果のデータ型
+	 * @param function 処理
+	 * @return 処理結果
+	 * @throws SQLException
+	 */
+	private <R> R apply(ConnectionFunction<R> function) throws SQLException {
+		try {
+			R result = function.apply(this);
+			this.breaker.onSuccess();
+			return result;
+		} catch (SQLException e) {
+			this.breaker.onError(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * コネクションを使用する処理。
+	 *
+	 * @param <R> 処理結果のデータ型
+	 */
+	static interface ConnectionFunction<R> {
+		R apply(DatabaseConnection conn) throws SQLException;
 	}
 
 	/**
@@ -106,7 +412,10 @@ class DatabaseConnection implements AutoCloseable {
 	 * @throws SQLException
 	 */
 	protected PreparedStatement prepareStatement(String sql) throws SQLException {
-		return this.conn.prepareStatement(sql);
+		this.lastUsed = System.nanoTime();
+		PreparedStatement ps = this.conn.prepareStatement(sql);
+		DatabaseExecutor.running(ps);
+		return ps;
 	}
 
 	/**
@@ -120,6 +429,95 @@ class DatabaseConnection implements AutoCloseable {
 		return this.conn.isClosed();
 	}
 
+	/**
+	 * コネクションが使用可能かどうかを取得する。
+	 * クローズされている場合は使用不可とし、直近（{@link DatabaseConfig#VALIDATION_INTERVAL}以内）に使用している場合は確認を省略する。
+	 * それ以外の場合は{@link Connection#isValid(int)}で接続を確認し、フェイルオーバー等で切断されたコネクションを検知する。
+	 * 確認中にエラーが発生した場合は使用不可とする。
+	 * 
+	 * @return 判定結果
+	 */
+	protected boolean isValid() {
+		try {
+			if (this.isClosed()) {
+				return false;
+			}
+			long now = System.nanoTime();
+			if (now - this.lastUsed < TimeUnit.MILLISECONDS.toNanos(DatabaseConfig.VALIDATION_INTERVAL.get())) {
+				return true;
+			}
+			DatabaseMetrics.increment(Metric.VALIDATION);
+			if (this.conn.isValid(DatabaseConfig.VALIDATION_TIMEOUT.get())) {
+				this.lastUsed = now;
+				return true;
+			}
+		} catch (Exception e) {
+			// エラーが発生した場合は使用不可
+		}
+		DatabaseMetrics.increment(Metric.VALIDATION_FAILED);
+		return false;
+	}
+
+	/**
+	 * 使用できないコネクションを破棄する。
+	 * クローズ時のエラーは無視する。
+	 */
+	private void discard() {
+		try {
+			this.conn.close();
+		} catch (Exception e) {
+			// NOP
+		}
+	}
+
+	/**
+	 * 読み取り専用かどうかを取得する。
+	 * 詳細は{@link Connection#isReadOnly()}を参照。
+	 *
+	 * @return 判定結果
+	 * @throws SQLException
+	 */
+	protected boolean isReadOnly() throws SQLException {
+		return this.conn.isReadOnly();
+	}
+
+	/**
+	 * 読み取り専用かどうかを設定する。
+	 * 詳細は{@link Connection#setReadOnly(boolean)}を参照。
+	 *
+	 * @param readOnly 読み取り専用の場合はtrue
+	 * @return this
+	 * @throws SQLException
+	 */
+	protected DatabaseConnection setReadOnly(boolean readOnly) throws SQLException {
+		this.conn.setReadOnly(readOnly);
+		return this;
+	}
+
+	/**
+	 * 分離レベルを取得する。
+	 * 詳細は{@link Connection#getTransactionIsolation()}を参照。
+	 *
+	 * @return 分離レベル
+	 * @throws SQLException
+	 */
+	protected int getTransactionIsolation() throws SQLException {
+		return this.conn.getTransactionIsolation();
+	}
+
+	/**
+	 * 分離レベルを設定する。
+	 * 詳細は{@link Connection#setTransactionIsolation(int)}を参照。
+	 *
+	 * @param level 分離レベル
+	 * @return this
+	 * @throws SQLException
+	 */
+	protected DatabaseConnection setTransactionIsolation(int level) throws SQLException {
+		this.conn.setTransactionIsolation(level);
+		return this;
+	}
+
 	/**
 	 * コミットを行う。
 	 * 詳細は{@link Connection#commit()}を参照。
@@ -128,6 +526,7 @@ class DatabaseConnection implements AutoCloseable {
 	 * @throws SQLException
 	 */
 	protected DatabaseConnection commit() throws SQLException {
+		this.lastUsed = System.nanoTime();
 		this.conn.commit();
 		return this;
 	}
@@ -140,18 +539,64 @@ class DatabaseConnection implements AutoCloseable {
 	 * @throws SQLException
 	 */
 	protected DatabaseConnection rollback() throws SQLException {
+		this.lastUsed = System.nanoTime();
 		this.conn.rollback();
 		return this;
 	}
 
+	/**
+	 * セーブポイントを設定する。
+	 * 詳細は{@link Connection#setSavepoint()}を参照。
+	 * 
+	 * @return セーブポイント
+	 * @throws SQLException
+	 */
+	protected Savepoint setSavepoint() throws SQLException {
+		return this.conn.setSavepoint();
+	}
+
+	/**
+	 * セーブポイントまでロールバックを行う。
+	 * 詳細は{@link Connection#rollback(Savepoint)}を参照。
+	 * 
+	 * @param savepoint セーブポイント
+	 * @return this
+	 * @throws SQLException
+	 */
+	protected DatabaseConnection rollback(Savepoint savepoint) throws SQLException {
+		this.conn.rollback(savepoint);
+		return this;
+	}
+
+	/**
+	 * セーブポイントを解放する。
+	 * 詳細は{@link Connection#releaseSavepoint(Savepoint)}を参照。
+	 * 
+	 * @param savepoint セーブポイント
+	 * @return this
+	 * @throws SQLException
+	 */
+	protected DatabaseConnection releaseSavepoint(Savepoint savepoint) throws SQLException {
+		this.conn.releaseSavepoint(savepoint);
+		return this;
+	}
+
 	/**
 	 * コネクションをクローズする。
+	 * ワークロードの使用許可を取得している場合は返却する。
 	 * 詳細は{@link Connection#close()}を参照。
 	 * 
 	 * @throws SQLException
 	 */
 	@Override
 	public void close() throws SQLException {
-		this.conn.close();
+		try {
+			this.conn.close();
+		} finally {
+			if (Objects.nonNull(this.bulkhead)) {
+				this.bulkhead.release();
+				this.bulkhead = null;
+			}
+		}
 	}
 }
@@ -0,0 +1,197 @@
+package jp.co.hogehoge.framework.db;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * データベース処理の非同期実行。
+ * SQLおよびトランザクションを専用のスレッド・プールで実行し、{@link CompletableFuture}で結果を返却する。
+ * スレッド数は{@link DatabaseConfig#ASYNC_POOL_SIZE}（未指定の場合はコネクション・プールの最大コネクション数）、
+ * 実行待ちの上限は{@link DatabaseConfig#ASYNC_QUEUE_SIZE}とし、上限を超えた場合は
+ * {@link RejectedExecutionException}で完了する。
+ * 返却した{@link CompletableFuture}を取り消した場合、実行待ちの処理は実行せず、実行中のSQLは
+ * {@link Statement#cancel()}で中止する。
+ *
+ * <pre>
+ * CompletableFuture&lt;List&lt;Order&gt;&gt; orders = OrderSql.SELECT_BY_CUSTOMER.executeAsync(customer);
+ * CompletableFuture&lt;Optional&lt;Point&gt;&gt; point = PointSql.SELECT_001.executeAsync(customer);
+ * render(orders.join(), point.join());
+ * </pre>
+ */
+public final class DatabaseExecutor {
+
+	/** logger */
+	private static Logger logger = LogManager.getLogger(DatabaseExecutor.class);
+
+	/** 現在のスレッドで実行中の処理 */
+	private static final ThreadLocal<AsyncTask<?>> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * スレッド・プール格納クラス。
+	 * 非同期実行を使用しない場合はスレッド・プールを生成しないよう、最初に使用されたタイミングで初期化する。
+	 */
+	private static class Executor {
+
+		/** スレッド・プール・インスタンス */
+		private static final ThreadPoolExecutor INSTANCE = initialize();
+
+		/**
+		 * スレッド・プール初期化処理。
+		 *
+		 * @return スレッド・プール
+		 */
+		private static ThreadPoolExecutor initialize() {
+			int size = DatabaseConfig.ASYNC_POOL_SIZE.get();
+			if (size <= 0) {
+				size = DatabaseConfig.POOL_MAX_SIZE.get();
+			}
+			AtomicInteger sequence = new AtomicInteger();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(Math.max(1, DatabaseConfig.ASYNC_QUEUE_SIZE.get())), runnable -> {
+						Thread thread = new Thread(runnable, "database-executor-" + sequence.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+			executor.allowCoreThreadTimeOut(true);
+			return executor;
+		}
+	}
+
+	/**
+	 * 非同期に実行する処理。
+	 * 取り消した場合は、実行中の処理が最後に生成したステートメントを中止する。
+	 *
+	 * @param <R> 処理結果のデータ型
+	 */
+	private static final class AsyncTask<R> extends CompletableFuture<R> implements Runnable {
+
+		/** 処理 */
+		private final Supplier<R> task;
+
+		/** 実行中のステートメント */
+		private volatile Statement statement = null;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param task 処理
+		 */
+		private AsyncTask(Supplier<R> task) {
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			// 実行前に取り消された場合は実行しない
+			if (this.isDone()) {
+				return;
+			}
+			CURRENT.set(this);
+			try {
+				this.complete(this.task.get());
+			} catch (Throwable e) {
+				this.completeExceptionally(e);
+			} finally {
+				CURRENT.remove();
+				this.statement = null;
+			}
+		}
+
+		/**
+		 * 実行中のステートメントを登録する。
+		 * 取り消し済みの場合は即時に中止する。
+		 *
+		 * @param statement ステートメント
+		 */
+		private void running(Statement statement) {
+			this.statement = statement;
+			if (this.isCancelled()) {
+				this.cancelStatement();
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled) {
+				Executor.INSTANCE.remove(this);
+				this.cancelStatement();
+			}
+			return cancelled;
+		}
+
+		/**
+		 * 実行中のステートメントを中止する。
+		 */
+		private void cancelStatement() {
+			Statement current = this.statement;
+			if (Objects.isNull(current)) {
+				return;
+			}
+			try {
+				current.cancel();
+			} catch (SQLException e) {
+				// ステートメントが既にクローズされている場合等は中止不要
+				logger.debug("ステートメントの中止に失敗しました。", e);
+			}
+		}
+	}
+
+	/**
+	 * コンストラクタ。
+	 */
+	private DatabaseExecutor() {
+		// NOP
+	}
+
+	/**
+	 * 処理を非同期に実行する。
+	 * 処理は呼び出し元のトランザクションに参加しない。
+	 *
+	 * @param      <R> 処理結果のデータ型
+	 * @param task 処理
+	 * @return 処理結果
+	 */
+	public static <R> CompletableFuture<R> submit(Supplier<R> task) {
+		AsyncTask<R> future = new AsyncTask<>(task);
+		try {
+			Executor.INSTANCE.execute(future);
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * 現在のスレッドが非同期に処理を実行中かどうかを取得する。
+	 *
+	 * @return 判定結果
+	 */
+	static boolean isExecutorThread() {
+		return Objects.nonNull(CURRENT.get());
+	}
+
+	/**
+	 * 非同期に実行中の処理であれば、生成したステートメントを取り消し対象として登録する。
+	 *
+	 * @param statement ステートメント
+	 */
+	static void running(Statement statement) {
+		AsyncTask<?> task = CURRENT.get();
+		if (Objects.nonNull(task)) {
+			task.running(statement);
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * データベース処理の統計情報。
+ * 処理の発生回数をアプリケーション全体で集計する。
+ * ワークロード毎のコネクションの使用状況も参照できる。
+ */
+public final class DatabaseMetrics {
+
+	/** 発生回数 */
+	private static final Map<Metric, LongAdder> COUNTERS = new EnumMap<>(Metric.class);
+
+	static {
+		for (Metric metric : Metric.values()) {
+			COUNTERS.put(metric, new LongAdder());
+		}
+	}
+
+	/**
+	 * 統計項目。
+	 */
+	public static enum Metric {
+
+		/** リトライ回数（トランザクションの再実行を含む） */
+		RETRY,
+
+		/** アプリケーション全体のリトライ上限に達したためリトライしなかった回数 */
+		RETRY_REJECTED,
+
+		/** 呼び出し元の期限までに待機を終えられないためリトライしなかった回数 */
+		RETRY_DEADLINE_EXCEEDED,
+
+		/** トランザクションの再実行回数 */
+		REPLAY,
+
+		/** 再実行によりコミットできたトランザクション数 */
+		REPLAY_RECOVERED,
+
+		/** 再実行の上限に達してエラーとなったトランザクション数 */
+		REPLAY_EXHAUSTED,
+
+		/** サーキット・ブレーカーが遮断した回数 */
+		CIRCUIT_OPENED,
+
+		/** サーキット・ブレーカーの遮断中に中止した処理数 */
+		CIRCUIT_REJECTED,
+
+		/** コネクション・プールからコネクションを取得できずタイムアウトした回数 */
+		POOL_TIMEOUT,
+
+		/** コネクション・プールへ返却されていないコネクションを検知した回数 */
+		POOL_LEAK,
+
+		/** コネクションの接続を確認した回数（直近に使用されたため確認を省略した場合を除く） */
+		VALIDATION,
+
+		/** 接続を確認した結果、使用できないため破棄したコネクション数 */
+		VALIDATION_FAILED,
+
+		/** ワークロードの同時実行数の上限に達したため待機した回数 */
+		BULKHEAD_WAITED,
+
+		/** ワークロードの同時実行数の上限に達し、待機してもコネクションを取得できなかった回数 */
+		BULKHEAD_REJECTED,
+
+		/** 読み取り用レプリカで実行した処理数（コネクションの取得回数） */
+		REPLICA,
+
+		/** 読み取り用レプリカを使用できず、プライマリで実行した処理数 */
+		REPLICA_FALLBACK;
+	}
+
+	/**
+	 * コンストラクタ。
+	 */
+	private DatabaseMetrics() {
+		// NOP
+	}
+
+	/**
+	 * 統計項目の発生回数を取得する。
+	 *
+	 * @param metric 統計項目
+	 * @return 発生回数
+	 */
+	public static long get(Metric metric) {
+		return COUNTERS.get(metric).sum();
+	}
+
+	/**
+	 * 全ての統計項目の発生回数を取得する。
+	 *
+	 * @return 統計項目と発生回数のマップ
+	 */
+	public static Map<Metric, Long> snapshot() {
+		Map<Metric, Long> snapshot = new EnumMap<>(Metric.class);
+		COUNTERS.forEach((metric, counter) -> snapshot.put(metric, counter.sum()));
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	/**
+	 * ワークロード毎の待機中の処理数を取得する。
+	 * 対象は{@link DatabaseConfig#BULKHEAD}で定義したワークロードとする。
+	 *
+	 * @return ワークロードと待機中の処理数のマップ
+	 */
+	public static Map<String, Integer> queueDepth() {
+		Map<String, Integer> depth = new TreeMap<>();
+		Bulkhead.all().forEach((workload, bulkhead) -> depth.put(workload, bulkhead.getWaiting()));
+		return Collections.unmodifiableMap(depth);
+	}
+
+	/**
+	 * ワークロード毎の使用中のコネクション数を取得する。
+	 * 対象は{@link DatabaseConfig#BULKHEAD}で定義したワークロードとする。
+	 *
+	 * @return ワークロードと使用中のコネクション数のマップ
+	 */
+	public static Map<String, Integer> activeConnections() {
+		Map<String, Integer> active = new TreeMap<>();
+		Bulkhead.all().forEach((workload, bulkhead) -> active.put(workload, bulkhead.getActive()));
+		return Collections.unmodifiableMap(active);
+	}
+
+	/**
+	 * 全ての統計項目の発生回数を初期化する。
+	 */
+	public static void reset() {
+		COUNTERS.values().forEach(LongAdder::reset);
+	}
+
+	/**
+	 * 統計項目の発生回数を加算する。
+	 *
+	 * @param metric 統計項目
+	 */
+	static void increment(Metric metric) {
+		COUNTERS.get(metric).increment();
+	}
+
+}
@@ -0,0 +1,83 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 処理期限。
+ * 呼び出し元の残り時間をスレッド毎に保持し、リトライ（{@link RetryPolicy}）は期限までに待機を終えられない場合に中止する。
+ * 期限を入れ子で指定した場合は、より早い期限に従う。
+ *
+ * <pre>
+ * Optional&lt;Entity&gt; result = Deadline.within(500, TimeUnit.MILLISECONDS, () -&gt; EntitySql.SELECT.execute(param));
+ * </pre>
+ */
+public final class Deadline {
+
+	/** 期限（{@link System#nanoTime()}基準、期限を指定していない場合はnull） */
+	private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * コンストラクタ。
+	 */
+	private Deadline() {
+		// NOP
+	}
+
+	/**
+	 * 期限を指定して処理を実行する。
+	 *
+	 * @param          <R> 処理結果のデータ型
+	 * @param timeout  残り時間
+	 * @param unit     残り時間の単位
+	 * @param supplier 処理
+	 * @return 処理結果
+	 */
+	public static <R> R within(long timeout, TimeUnit unit, Supplier<R> supplier) {
+		Long outer = CURRENT.get();
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		if (Objects.nonNull(outer) && outer - deadline < 0) {
+			deadline = outer;
+		}
+		CURRENT.set(deadline);
+		try {
+			return supplier.get();
+		} finally {
+			if (Objects.isNull(outer)) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(outer);
+			}
+		}
+	}
+
+	/**
+	 * 期限を指定して処理を実行する。
+	 *
+	 * @param timeout  残り時間
+	 * @param unit     残り時間の単位
+	 * @param runnable 処理
+	 */
+	public static void within(long timeout, TimeUnit unit, Runnable runnable) {
+		within(timeout, unit, () -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	/**
+	 * 期限までの残り時間を取得する。
+	 *
+	 * @param unit 残り時間の単位
+	 * @return 残り時間（期限を指定していない場合は{@link Long#MAX_VALUE}、期限を過ぎている場合は0）
+	 */
+	public static long remaining(TimeUnit unit) {
+		Long deadline = CURRENT.get();
+		if (Objects.isNull(deadline)) {
+			return Long.MAX_VALUE;
+		}
+		return unit.convert(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+	}
+
+}
@@ -1,8 +1,12 @@
 package jp.co.hogehoge.framework.db;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * エンティティ。
@@ -33,6 +37,63 @@ public abstract class Entity {
 		return param;
 	}
 
+	/**
+	 * エンティティの複製を作成する。
+	 * フィールドの値は複製元と共有するが、配列（BLOB）は複製する。
+	 * 
+	 * @return 複製したエンティティ
+	 * @throws IllegalStateException 複製に失敗した場合
+	 */
+	Entity copy() {
+		try {
+			Entity entity = this.getClass().newInstance();
+			for (Class<?> clazz = this.getClass(); clazz != Entity.class; clazz = clazz.getSuperclass()) {
+				for (Field field : clazz.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+						continue;
+					}
+					boolean accessible = field.isAccessible();
+					field.setAccessible(true);
+					try {
+						Object value = field.get(this);
+						field.set(entity, value instanceof byte[] ? ((byte[]) value).clone() : value);
+					} finally {
+						field.setAccessible(accessible);
+					}
+				}
+			}
+			return entity;
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException("エンティティの複製に失敗しました。[" + this.getClass().getName() + "]", e);
+		}
+	}
+
+	/**
+	 * SQL実行結果に含まれるエンティティを複製する。
+	 * エンティティ、{@link Optional}、{@link List}に格納したエンティティを複製し、それ以外の値はそのまま返却する。
+	 * 
+	 * @param       <T> SQL実行結果のデータ型
+	 * @param value SQL実行結果
+	 * @return 複製したSQL実行結果
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T copyOf(T value) {
+		if (value instanceof Entity) {
+			return (T) ((Entity) value).copy();
+		}
+		if (value instanceof Optional) {
+			return (T) ((Optional<?>) value).map(Entity::copyOf);
+		}
+		if (value instanceof List) {
+			List<Object> list = new ArrayList<>(((List<?>) value).size());
+			for (Object element : (List<?>) value) {
+				list.add(copyOf(element));
+			}
+			return (T) list;
+		}
+		return value;
+	}
+
 	/**
 	 * キャメルケースの文字列をスネークケース（大文字）へ変換する。
 	 * 
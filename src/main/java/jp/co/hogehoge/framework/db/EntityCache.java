@@ -0,0 +1,347 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * エンティティ・キャッシュ。
+ * 主キーを指定した単一レコードのSELECT処理の実行結果を、エンティティ・クラス毎の領域へトランザクション間で共有して保持する。
+ * 保持件数は領域毎に上限を設け、上限を超えた場合は最も参照されていないエントリーを削除する。
+ * 領域はSELECT処理で宣言したテーブルに紐付け、テーブルに対する更新処理がコミットされた場合、
+ * 主キーが指定されていれば該当するエントリーのみ、指定されていなければ領域全体を削除する。
+ * 呼び出し元による変更がキャッシュや他の呼び出し元へ波及しないよう、エンティティは複製して保持し、複製して返却する。
+ */
+public final class EntityCache {
+
+	/** エンティティ・クラス毎の領域 */
+	private static final ConcurrentMap<Class<?>, Region> REGIONS = new ConcurrentHashMap<>();
+
+	/** テーブル毎の領域 */
+	private static final ConcurrentMap<String, Set<Region>> TABLES = new ConcurrentHashMap<>();
+
+	/** エンティティ・クラス毎の上限件数 */
+	private static final ConcurrentMap<Class<?>, Integer> CAPACITIES = new ConcurrentHashMap<>();
+
+	/**
+	 * コンストラクタ。
+	 */
+	private EntityCache() {
+		// NOP
+	}
+
+	/**
+	 * キャッシュ領域。
+	 * アクセス順のLRUマップとし、上限件数を超えた場合は最も参照されていないエントリーを削除する。
+	 */
+	private static class Region {
+
+		/** エンティティ・クラス名 */
+		private final String name;
+
+		/** エントリー */
+		private final LinkedHashMap<SqlKey, Object> entries = new LinkedHashMap<SqlKey, Object>(16, 0.75f, true) {
+
+			/** シリアル・バージョンID */
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<SqlKey, Object> eldest) {
+				if (size() > Region.this.capacity) {
+					Region.this.evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+
+		/** ロック */
+		private final ReentrantLock lock = new ReentrantLock();
+
+		/** 紐付けたテーブル名リスト */
+		private final Set<String> tables = ConcurrentHashMap.newKeySet();
+
+		/** 上限件数 */
+		private volatile int capacity;
+
+		/** 削除回数（SELECT処理中に削除が行われた場合、その実行結果はキャッシュしない） */
+		private long epoch = 0;
+
+		/** ヒット数 */
+		private final LongAdder hits = new LongAdder();
+
+		/** ミス数 */
+		private final LongAdder misses = new LongAdder();
+
+		/** 上限件数超過による削除数 */
+		private final LongAdder evictions = new LongAdder();
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param name     エンティティ・クラス名
+		 * @param capacity 上限件数
+		 */
+		private Region(String name, int capacity) {
+			this.name = name;
+			this.capacity = capacity;
+		}
+	}
+
+	/**
+	 * キャッシュ統計情報。
+	 */
+	public static final class Statistics {
+
+		/** ヒット数 */
+		private final long hitCount;
+
+		/** ミス数 */
+		private final long missCount;
+
+		/** 上限件数超過による削除数 */
+		private final long evictionCount;
+
+		/** 保持件数 */
+		private final int size;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param hitCount      ヒット数
+		 * @param missCount     ミス数
+		 * @param evictionCount 上限件数超過による削除数
+		 * @param size          保持件数
+		 */
+		private Statistics(long hitCount, long missCount, long evictionCount, int size) {
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.evictionCount = evictionCount;
+			this.size = size;
+		}
+
+		/**
+		 * ヒット数を取得する。
+		 *
+		 * @return ヒット数
+		 */
+		public long getHitCount() {
+			return this.hitCount;
+		}
+
+		/**
+		 * ミス数を取得する。
+		 *
+		 * @return ミス数
+		 */
+		public long getMissCount() {
+			return this.missCount;
+		}
+
+		/**
+		 * 上限件数超過による削除数を取得する。
+		 *
+		 * @return 削除数
+		 */
+		public long getEvictionCount() {
+			return this.evictionCount;
+		}
+
+		/**
+		 * 保持件数を取得する。
+		 *
+		 * @return 保持件数
+		 */
+		public int getSize() {
+			return this.size;
+		}
+
+		/**
+		 * ヒット率を取得する。
+		 *
+		 * @return ヒット率（参照されていない場合は0）
+		 */
+		public double getHitRatio() {
+			long total = this.hitCount + this.missCount;
+			return total == 0 ? 0.0 : (double) this.hitCount / total;
+		}
+
+		@Override
+		public String toString() {
+			return "HIT=" + this.hitCount + ", MISS=" + this.missCount + ", EVICTION=" + this.evictionCount
+					+ ", SIZE=" + this.size;
+		}
+	}
+
+	/**
+	 * エンティティ・クラス毎の上限件数を設定する。
+	 * 設定しない場合は{@link DatabaseConfig#ENTITY_CACHE_CAPACITY}に従う。
+	 *
+	 * @param clazz    エンティティ・クラス
+	 * @param capacity 上限件数
+	 */
+	public static void configure(Class<? extends Entity> clazz, int capacity) {
+		CAPACITIES.put(clazz, capacity);
+		Region region = REGIONS.get(clazz);
+		if (Objects.nonNull(region)) {
+			region.lock.lock();
+			try {
+				region.capacity = capacity;
+				while (region.entries.size() > capacity) {
+					region.entries.remove(region.entries.keySet().iterator().next());
+					region.evictions.increment();
+				}
+			} finally {
+				region.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * エンティティ・クラス毎の統計情報を取得する。
+	 *
+	 * @param clazz エンティティ・クラス
+	 * @return 統計情報
+	 */
+	public static Statistics getStatistics(Class<? extends Entity> clazz) {
+		Region region = REGIONS.get(clazz);
+		if (Objects.isNull(region)) {
+			return new Statistics(0, 0, 0, 0);
+		}
+		int size;
+		region.lock.lock();
+		try {
+			size = region.entries.size();
+		} finally {
+			region.lock.unlock();
+		}
+		return new Statistics(region.hits.sum(), region.misses.sum(), region.evictions.sum(), size);
+	}
+
+	/**
+	 * キャッシュを全て削除する。
+	 */
+	public static void clear() {
+		for (Region region : REGIONS.values()) {
+			clear(region);
+		}
+	}
+
+	/**
+	 * キャッシュからSQL実行結果を取得する。
+	 * エントリーが存在しない場合はSQLを実行し、その結果をキャッシュする。
+	 *
+	 * @param          <R> SQL実行結果のデータ型
+	 * @param clazz    エンティティ・クラス
+	 * @param tables   参照テーブル名リスト（正規化済み）
+	 * @param key      主キー（パラメータ名と値のマップ）
+	 * @param supplier SQL実行処理
+	 * @return SQL実行結果
+	 */
+	@SuppressWarnings("unchecked")
+	static <R> R get(Class<?> clazz, Collection<String> tables, Map<String, Object> key, Supplier<R> supplier) {
+		Region region = region(clazz, tables);
+		SqlKey entityKey = new SqlKey(clazz.getName(), key);
+		long epoch;
+		region.lock.lock();
+		try {
+			Object value = region.entries.get(entityKey);
+			if (Objects.nonNull(value)) {
+				region.hits.increment();
+				return (R) Entity.copyOf(value);
+			}
+			region.misses.increment();
+			epoch = region.epoch;
+		} finally {
+			region.lock.unlock();
+		}
+
+		// SQL実行中に削除が行われた場合は更新前のデータの可能性があるためキャッシュしない
+		R result = supplier.get();
+		if (Objects.nonNull(result)) {
+			region.lock.lock();
+			try {
+				if (region.epoch == epoch) {
+					region.entries.put(entityKey, Entity.copyOf(result));
+				}
+			} finally {
+				region.lock.unlock();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 更新処理の対象となったエントリーを削除する。
+	 * テーブル名リストが空の場合は全ての領域、主キーがnullの場合はテーブルに紐付く領域全体を削除する。
+	 *
+	 * @param tables テーブル名リスト（正規化済み）
+	 * @param key    主キー（パラメータ名と値のマップ）
+	 */
+	static void evict(Collection<String> tables, Map<String, Object> key) {
+		Set<Region> regions = new HashSet<>();
+		if (tables.isEmpty()) {
+			regions.addAll(REGIONS.values());
+		} else {
+			for (String table : tables) {
+				regions.addAll(TABLES.getOrDefault(table, new HashSet<>()));
+			}
+		}
+		for (Region region : regions) {
+			if (Objects.isNull(key)) {
+				clear(region);
+				continue;
+			}
+			region.lock.lock();
+			try {
+				region.epoch++;
+				region.entries.remove(new SqlKey(region.name, key));
+			} finally {
+				region.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * 領域を全て削除する。
+	 *
+	 * @param region 領域
+	 */
+	private static void clear(Region region) {
+		region.lock.lock();
+		try {
+			region.epoch++;
+			region.entries.clear();
+		} finally {
+			region.lock.unlock();
+		}
+	}
+
+	/**
+	 * エンティティ・クラスの領域を取得し、テーブルに紐付ける。
+	 *
+	 * @param clazz  エンティティ・クラス
+	 * @param tables テーブル名リスト（正規化済み）
+	 * @return 領域
+	 */
+	private static Region region(Class<?> clazz, Collection<String> tables) {
+		Region region = REGIONS.computeIfAbsent(clazz,
+				c -> new Region(c.getName(), CAPACITIES.getOrDefault(c, DatabaseConfig.ENTITY_CACHE_CAPACITY.get())));
+		if (!region.tables.containsAll(tables)) {
+			for (String table : tables) {
+				TABLES.computeIfAbsent(table, t -> ConcurrentHashMap.newKeySet()).add(region);
+				region.tables.add(table);
+			}
+		}
+		return region;
+	}
+
+}
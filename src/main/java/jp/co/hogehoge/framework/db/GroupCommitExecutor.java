@@ -0,0 +1,276 @@
+package jp.co.hogehoge.framework.db;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jp.co.hogehoge.framework.db.Transaction.TransactionConsumer;
+import jp.co.hogehoge.framework.db.Transaction.TransactionSupplier;
+import jp.co.hogehoge.framework.db.exception.TransactionException;
+
+/**
+ * グループ・コミット実行クラス。
+ * 複数のスレッドから登録された小さな更新処理を、単一の書き込みスレッドが1つのトランザクションでまとめて実行し、1回のコミットで確定する。
+ * 処理毎にセーブポイントを設定したネストしたトランザクション（{@link Transaction#nested(TransactionConsumer)}）で実行し、
+ * エラーが発生した処理のみをロールバックするため、他の処理の結果には影響しない。
+ * シャードを指定したSQLも実行できるが、1つのトランザクションは最初にコネクションを取得した処理のシャードに固定される。
+ * 各処理の結果（{@link CompletableFuture}）は、まとめて実行したトランザクションのコミット完了後に確定する。
+ * コミットに失敗した場合、または処理から{@link Error}がスローされた場合は、まとめて実行した全ての処理にエラーを通知し、
+ * 書き込みスレッドは後続の処理の実行を継続する。
+ *
+ * <pre>
+ * try (GroupCommitExecutor executor = new GroupCommitExecutor()) {
+ *     CompletableFuture&lt;Integer&gt; future = executor.submit(() -&gt; EventSql.INSERT.execute(event));
+ * }
+ * </pre>
+ */
+public final class GroupCommitExecutor implements AutoCloseable {
+
+	/** logger */
+	private static Logger logger = LogManager.getLogger(GroupCommitExecutor.class);
+
+	/** 停止要求 */
+	private static final Unit<Object> SHUTDOWN = new Unit<>(() -> null);
+
+	/** 実行待ちの処理 */
+	private final BlockingQueue<Unit<?>> queue = new LinkedBlockingQueue<>();
+
+	/** 1回のコミットにまとめる最大処理数 */
+	private final int maxSize;
+
+	/** 処理を収集する最大待機時間（ms） */
+	private final long wait;
+
+	/** 書き込みスレッド */
+	private final Thread writer;
+
+	/** 停止済みかどうか */
+	private volatile boolean closed = false;
+
+	/**
+	 * 実行待ちの処理。
+	 *
+	 * @param <R> 処理結果のデータ型
+	 */
+	private static class Unit<R> {
+
+		/** 処理 */
+		private final TransactionSupplier<R> supplier;
+
+		/** 処理結果 */
+		private final CompletableFuture<R> future = new CompletableFuture<>();
+
+		/** 実行結果 */
+		private R result;
+
+		/** 実行時のエラー情報（正常終了した場合はnull） */
+		private TransactionException error;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param supplier 処理
+		 */
+		private Unit(TransactionSupplier<R> supplier) {
+			this.supplier = supplier;
+		}
+
+		/**
+		 * 処理を実行し、結果を保持する。
+		 *
+		 * @throws SQLException
+		 */
+		private void execute() throws SQLException {
+			this.result = this.supplier.execute();
+		}
+
+		/**
+		 * コミット完了後に処理結果を確定する。
+		 */
+		private void complete() {
+			if (Objects.isNull(this.error)) {
+				this.future.complete(this.result);
+			} else {
+				this.future.completeExceptionally(this.error);
+			}
+		}
+	}
+
+	/**
+	 * コンストラクタ。
+	 * 最大処理数、最大待機時間は{@link DatabaseConfig#GROUP_COMMIT_MAX_SIZE}、{@link DatabaseConfig#GROUP_COMMIT_WAIT}に従う。
+	 */
+	public GroupCommitExecutor() {
+		this(DatabaseConfig.GROUP_COMMIT_MAX_SIZE.get(), DatabaseConfig.GROUP_COMMIT_WAIT.get());
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param maxSize 1回のコミットにまとめる最大処理数
+	 * @param wait    処理を収集する最大待機時間（ms）
+	 */
+	public GroupCommitExecutor(int maxSize, long wait) {
+		this.maxSize = Math.max(1, maxSize);
+		this.wait = Math.max(0, wait);
+		this.writer = new Thread(this::run, "group-commit-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * 処理を登録する。
+	 *
+	 * @param          <R> 処理結果のデータ型
+	 * @param supplier 処理
+	 * @return 処理結果（コミット完了後に確定）
+	 * @throws TransactionException 停止済みの場合
+	 */
+	public <R> CompletableFuture<R> submit(TransactionSupplier<R> supplier) {
+		if (this.closed) {
+			throw this.closedError();
+		}
+		Unit<R> unit = new Unit<>(supplier);
+		this.queue.add(unit);
+		// 登録と同時に停止した場合、書き込みスレッドが取り出していなければ登録を取り消す
+		if (this.closed && this.queue.remove(unit)) {
+			throw this.closedError();
+		}
+		return unit.future;
+	}
+
+	/**
+	 * 処理を登録する。
+	 *
+	 * @param consumer 処理
+	 * @return 処理結果（コミット完了後に確定）
+	 * @throws TransactionException 停止済みの場合
+	 */
+	public CompletableFuture<Void> submit(TransactionConsumer consumer) {
+		return submit(() -> {
+			consumer.execute();
+			return null;
+		});
+	}
+
+	/**
+	 * 新たな処理の登録を停止し、登録済みの処理を全て実行した後に書き込みスレッドを終了する。
+	 */
+	@Override
+	public void close() {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		this.queue.add(SHUTDOWN);
+		try {
+			this.writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * 書き込みスレッドの処理。
+	 * 処理を収集してまとめて実行し、停止後は実行待ちの処理が無くなるまで実行する。
+	 */
+	private void run() {
+		try {
+			boolean running = true;
+			while (running) {
+				List<Unit<?>> units = new ArrayList<>();
+				running = this.collect(units);
+				if (!units.isEmpty()) {
+					this.commit(units);
+				}
+			}
+			// 停止と同時に登録された処理を実行
+			List<Unit<?>> units = new ArrayList<>();
+			while (this.queue.drainTo(units, this.maxSize) > 0) {
+				this.commit(units);
+				units = new ArrayList<>();
+			}
+		} finally {
+			// 書き込みスレッドの終了後は処理を受け付けず、実行されずに残った処理にはエラーを通知
+			this.closed = true;
+			List<Unit<?>> rest = new ArrayList<>();
+			this.queue.drainTo(rest);
+			TransactionException error = this.closedError();
+			rest.stream().filter(unit -> unit != SHUTDOWN).forEach(unit -> unit.future.completeExceptionally(error));
+		}
+	}
+
+	/**
+	 * 処理を収集する。
+	 * 最初の処理が登録されるまで待機し、以降は最大処理数または最大待機時間に達するまで収集する。
+	 *
+	 * @param units 収集した処理
+	 * @return 停止要求を受け付けていない場合はtrue
+	 */
+	private boolean collect(List<Unit<?>> units) {
+		try {
+			Unit<?> unit = this.queue.take();
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.wait);
+			while (unit != SHUTDOWN) {
+				units.add(unit);
+				long remaining = deadline - System.nanoTime();
+				if (units.size() >= this.maxSize || remaining <= 0) {
+					return true;
+				}
+				unit = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+				if (Objects.isNull(unit)) {
+					return true;
+				}
+			}
+			return false;
+		} catch (InterruptedException e) {
+			// 書き込みスレッドへの割り込みは停止要求として扱う
+			return false;
+		}
+	}
+
+	/**
+	 * 収集した処理を1つのトランザクションで実行し、コミット後に処理結果を確定する。
+	 *
+	 * @param units 収集した処理
+	 */
+	private void commit(List<Unit<?>> units) {
+		try {
+			Transaction.execute(() -> {
+				for (Unit<?> unit : units) {
+					try {
+						// エラーが発生した処理のみセーブポイントまでロールバック
+						Transaction.nested(unit::execute);
+					} catch (TransactionException e) {
+						unit.error = e;
+					}
+				}
+			});
+		} catch (Throwable e) {
+			// Errorも含めて全ての処理にエラーを通知し、書き込みスレッドは継続
+			logger.warn("グループ・コミットでエラーが発生し、ロールバックしました。[件数=" + units.size() + "]", e);
+			units.forEach(unit -> unit.future.completeExceptionally(e));
+			return;
+		}
+		units.forEach(Unit::complete);
+	}
+
+	/**
+	 * 停止済みのエラー情報を生成する。
+	 *
+	 * @return エラー情報
+	 */
+	private TransactionException closedError() {
+		return new TransactionException(new IllegalStateException("[スレッド=" + this.writer.getName() + "]"),
+				Message.DBE00010);
+	}
+
+}
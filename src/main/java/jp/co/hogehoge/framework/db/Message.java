@@ -50,7 +50,57 @@ public enum Message {
 	/**
 	 * レコードのロックが解放されずエラーが発生しました。
 	 */
-	DBE00009("レコードのロックが解放されずSQL（ID={0}）が処理されませんでした。[PARAM={1}]");
+	DBE00009("レコードのロックが解放されずSQL（ID={0}）が処理されませんでした。[PARAM={1}]"),
+
+	/**
+	 * グループ・コミットが停止しているため処理を受け付けられません。
+	 */
+	DBE00010("グループ・コミットが停止しているため処理を受け付けられません。"),
+
+	/**
+	 * データベースの障害を検知しているため処理を中止しました。[状態={0}]
+	 */
+	DBE00011("データベースの障害を検知しているため処理を中止しました。[状態={0}, データ・ソース={1}]"),
+
+	/**
+	 * コネクション・プールからコネクションを取得できませんでした。[理由={0}]
+	 */
+	DBE00012("コネクション・プールからコネクションを取得できませんでした。[理由={0}]"),
+
+	/**
+	 * ワークロードの同時実行数の上限に達したため、コネクションを取得できませんでした。[ワークロード={0},上限={1}]
+	 */
+	DBE00013("ワークロードの同時実行数の上限に達したため、コネクションを取得できませんでした。[ワークロード={0},上限={1}]"),
+
+	/**
+	 * トランザクション内で異なるシャードのSQLは実行できません。[シャード={0},トランザクションのシャード={1}]
+	 */
+	DBE00014("トランザクション内で異なるシャードのSQLは実行できません。[シャード={0},トランザクションのシャード={1}]"),
+
+	/**
+	 * シャード・キーが指定されていないため、SQL（ID={0}）を実行するシャードを特定できません。[シャード・キー={1}]
+	 */
+	DBE00015("シャード・キーが指定されていないため、SQL（ID={0}）を実行するシャードを特定できません。[シャード・キー={1}]"),
+
+	/**
+	 * シャードが定義されていません。[シャード={0}]
+	 */
+	DBE00016("シャードが定義されていません。[シャード={0}]"),
+
+	/**
+	 * 並列実行したSQLが制限時間内に完了しませんでした。[制限時間={0}ms,未完了={1}件]
+	 */
+	DBE00017("並列実行したSQLが制限時間内に完了しませんでした。[制限時間={0}ms,未完了={1}件]"),
+
+	/**
+	 * ワークロードの定義（db.bulkhead）が不正です。[定義={0}]
+	 */
+	DBE00018("ワークロードの定義（db.bulkhead）が不正です。[定義={0}]"),
+
+	/**
+	 * 読み取り専用のトランザクションでは更新処理のSQL（ID={0}）を実行できません。
+	 */
+	DBE00019("読み取り専用のトランザクションでは更新処理のSQL（ID={0}）を実行できません。");
 
 	private String message;
 
@@ -0,0 +1,192 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * SQL実行結果キャッシュ。
+ * SQL実行キー毎にSELECT処理の実行結果を保持する。
+ * 保持件数はストライプ（分割したLRUマップ）毎に上限を設け、ストライプ単位でロックを行う。
+ * 次のいずれかに該当するエントリーは無効として扱う。
+ * (1)有効期間（ms）を経過したエントリー
+ * (2)SELECT処理で宣言したテーブルが、実行後に更新（コミット）されたエントリー
+ */
+final class QueryCache {
+
+	/** インスタンス */
+	private static final QueryCache INSTANCE = new QueryCache(DatabaseConfig.QUERY_CACHE_SIZE.get(),
+			DatabaseConfig.QUERY_CACHE_STRIPES.get());
+
+	/** ストライプ */
+	private final Stripe[] stripes;
+
+	/**
+	 * キャッシュ・エントリー。
+	 */
+	private static class CacheEntry {
+
+		/** SQL実行結果 */
+		private final Object value;
+
+		/** 有効期限（ナノ秒） */
+		private final long expireAt;
+
+		/** 参照テーブル名リスト */
+		private final Collection<String> tables;
+
+		/** 実行時のテーブル・バージョン */
+		private final long[] versions;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param value    SQL実行結果
+		 * @param expireAt 有効期限（ナノ秒）
+		 * @param tables   参照テーブル名リスト
+		 * @param versions 実行時のテーブル・バージョン
+		 */
+		private CacheEntry(Object value, long expireAt, Collection<String> tables, long[] versions) {
+			this.value = value;
+			this.expireAt = expireAt;
+			this.tables = tables;
+			this.versions = versions;
+		}
+
+		/**
+		 * エントリーが有効かどうかを取得する。
+		 *
+		 * @return 判定結果
+		 */
+		private boolean isValid() {
+			return System.nanoTime() - this.expireAt < 0 && TableVersions.unchanged(this.tables, this.versions);
+		}
+	}
+
+	/**
+	 * ストライプ。
+	 * アクセス順のLRUマップとし、上限件数を超えた場合は最も参照されていないエントリーを削除する。
+	 */
+	private static class Stripe extends LinkedHashMap<SqlKey, CacheEntry> {
+
+		/** シリアル・バージョンID */
+		private static final long serialVersionUID = 1L;
+
+		/** ロック */
+		private final transient ReentrantLock lock = new ReentrantLock();
+
+		/** 上限件数 */
+		private final int capacity;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param capacity 上限件数
+		 */
+		private Stripe(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<SqlKey, CacheEntry> eldest) {
+			return size() > this.capacity;
+		}
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param size    上限件数
+	 * @param stripes ストライプ数
+	 */
+	QueryCache(int size, int stripes) {
+		int count = Math.max(1, stripes);
+		this.stripes = new Stripe[count];
+		for (int i = 0; i < count; i++) {
+			this.stripes[i] = new Stripe(Math.max(1, size / count));
+		}
+	}
+
+	/**
+	 * インスタンスを取得する。
+	 *
+	 * @return インスタンス
+	 */
+	static QueryCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * キャッシュからSQL実行結果を取得する。
+	 * 有効なエントリーが存在しない場合はSQLを実行し、その結果をキャッシュする。
+	 * キャッシュには実行結果の複製を格納し、取得時も複製を返却する。
+	 *
+	 * @param          <R> SQL実行結果のデータ型
+	 * @param key      SQL実行キー
+	 * @param tables   参照テーブル名リスト（正規化済み）
+	 * @param ttl      有効期間（ms）
+	 * @param supplier SQL実行処理
+	 * @return SQL実行結果
+	 */
+	@SuppressWarnings("unchecked")
+	<R> R get(SqlKey key, Collection<String> tables, long ttl, Supplier<R> supplier) {
+		Stripe stripe = this.stripe(key);
+		stripe.lock.lock();
+		try {
+			CacheEntry entry = stripe.get(key);
+			if (Objects.nonNull(entry)) {
+				if (entry.isValid()) {
+					return (R) Entity.copyOf(entry.value);
+				}
+				stripe.remove(key);
+			}
+		} finally {
+			stripe.lock.unlock();
+		}
+
+		// SQL実行前のテーブル・バージョンを保持し、実行中に更新された場合はキャッシュしない
+		long[] versions = TableVersions.snapshot(tables);
+		R result = supplier.get();
+		if (Objects.nonNull(result) && TableVersions.unchanged(tables, versions)) {
+			long expireAt = System.nanoTime() + ttl * 1000000L;
+			stripe.lock.lock();
+			try {
+				stripe.put(key, new CacheEntry(Entity.copyOf(result), expireAt, tables, versions));
+			} finally {
+				stripe.lock.unlock();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * キャッシュを全て削除する。
+	 */
+	void clear() {
+		for (Stripe stripe : this.stripes) {
+			stripe.lock.lock();
+			try {
+				stripe.clear();
+			} finally {
+				stripe.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * SQL実行キーに対応するストライプを取得する。
+	 *
+	 * @param key SQL実行キー
+	 * @return ストライプ
+	 */
+	private Stripe stripe(SqlKey key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return this.stripes[(hash & 0x7fffffff) % this.stripes.length];
+	}
+
+}
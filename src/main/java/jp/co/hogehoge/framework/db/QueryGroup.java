@@ -0,0 +1,207 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import jp.co.hogehoge.framework.db.exception.SqlExecuteException;
+
+/**
+ * 並列実行するSELECT処理のグループ。
+ * 互いに依存しない複数のSELECT処理を、{@link DatabaseExecutor}でそれぞれ別のコネクションを使用して並列に実行する。
+ * 各SELECT処理はトランザクション外で実行するため、呼び出し元のトランザクションで未コミットの更新結果は参照されない。
+ * いずれかのSELECT処理でエラーが発生した場合、または制限時間内に全てのSELECT処理が完了しない場合は、
+ * 実行中のSELECT処理を中止してグループ全体をエラーとする。
+ * {@link DatabaseExecutor}のスレッド数には上限があるため、非同期に実行中の処理（{@link Transaction#executeAsync}等）から
+ * 実行した場合は、スレッドの空きを待ち合わせて停止しないようエラーとする。
+ *
+ * <pre>
+ * QueryGroup group = Transaction.parallel();
+ * QueryGroup.Query&lt;List&lt;Order&gt;&gt; orders = group.add(OrderSql.SELECT_BY_CUSTOMER, customer);
+ * QueryGroup.Query&lt;Optional&lt;Point&gt;&gt; point = group.add(PointSql.SELECT_001, customer);
+ * group.execute(500, TimeUnit.MILLISECONDS);
+ * render(orders.get(), point.get());
+ * </pre>
+ */
+public final class QueryGroup {
+
+	/** グループのSELECT処理（追加順） */
+	private final List<Query<?>> queries = new ArrayList<>();
+
+	/** 実行済みかどうか */
+	private boolean executed = false;
+
+	/**
+	 * グループ内のSELECT処理。
+	 * グループの実行後に実行結果を取得する。
+	 *
+	 * @param <R> SQL実行結果のデータ型
+	 */
+	public static final class Query<R> {
+
+		/** SQL定義 */
+		private final Sql<?, R> sql;
+
+		/** SQL実行パラメータ */
+		private final Entity param;
+
+		/** 実行結果 */
+		private CompletableFuture<R> future = null;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param sql   SQL定義
+		 * @param param SQL実行パラメータ
+		 */
+		private Query(Sql<?, R> sql, Entity param) {
+			this.sql = sql;
+			this.param = param;
+		}
+
+		/**
+		 * 実行結果を取得する。
+		 *
+		 * @return SQL実行結果
+		 * @throws IllegalStateException グループが正常に完了していない場合
+		 */
+		public R get() {
+			if (Objects.isNull(this.future) || !this.future.isDone() || this.future.isCompletedExceptionally()) {
+				throw new IllegalStateException("グループが正常に完了していません。SQLID={" + this.sql.getSqlId() + "}");
+			}
+			return this.future.join();
+		}
+
+		/**
+		 * SELECT処理の実行を開始する。
+		 */
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private void submit() {
+			Sql raw = this.sql;
+			this.future = DatabaseExecutor.submit(() -> (R) raw.execute(this.param));
+		}
+	}
+
+	/**
+	 * コンストラクタ。
+	 * {@link Transaction#parallel()}で生成する。
+	 */
+	QueryGroup() {
+		// NOP
+	}
+
+	/**
+	 * SELECT処理をグループに追加する。
+	 *
+	 * @param       <P> SQL実行パラメータのデータ型
+	 * @param       <R> SQL実行結果のデータ型
+	 * @param sql   SQL定義
+	 * @param param SQL実行パラメータ
+	 * @return グループ内のSELECT処理
+	 * @throws IllegalArgumentException SELECT処理以外の場合
+	 * @throws IllegalStateException    グループが実行済みの場合
+	 */
+	public <P extends Entity, R> Query<R> add(Sql<P, R> sql, P param) {
+		if (!sql.isQuery()) {
+			throw new IllegalArgumentException("SELECT処理以外は並列実行できません。SQLID={" + sql.getSqlId() + "}");
+		}
+		if (this.executed) {
+			throw new IllegalStateException("グループは実行済みです。");
+		}
+		Query<R> query = new Query<>(sql, param);
+		this.queries.add(query);
+		return query;
+	}
+
+	/**
+	 * パラメータを指定しないSELECT処理をグループに追加する。
+	 *
+	 * @param     <R> SQL実行結果のデータ型
+	 * @param sql SQL定義
+	 * @return グループ内のSELECT処理
+	 * @throws IllegalArgumentException SELECT処理以外の場合
+	 * @throws IllegalStateException    グループが実行済みの場合
+	 */
+	public <R> Query<R> add(Sql<? extends Entity, R> sql) {
+		return this.add(sql, null);
+	}
+
+	/**
+	 * グループのSELECT処理を並列に実行し、全ての処理の完了を待機する。
+	 * 制限時間は{@link DatabaseConfig#PARALLEL_TIMEOUT}とする。
+	 *
+	 * @throws SqlExecuteException 制限時間内に完了しない場合、SQL実行時エラー等
+	 */
+	public void execute() {
+		this.execute(DatabaseConfig.PARALLEL_TIMEOUT.get(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * グループのSELECT処理を並列に実行し、全ての処理の完了を待機する。
+	 * 処理期限（{@link Deadline}）が指定されている場合は、制限時間と処理期限の早い方に従う。
+	 * いずれかの処理でエラーが発生した場合は、他の処理の完了を待たずに中止し、そのエラーをスローする。
+	 *
+	 * @param timeout 制限時間
+	 * @param unit    制限時間の単位
+	 * @throws SqlExecuteException   制限時間内に完了しない場合、SQL実行時エラー等
+	 * @throws IllegalStateException グループが実行済みの場合、非同期に実行中の処理から実行した場合
+	 */
+	public void execute(long timeout, TimeUnit unit) {
+		if (this.executed) {
+			throw new IllegalStateException("グループは実行済みです。");
+		}
+		if (DatabaseExecutor.isExecutorThread()) {
+			throw new IllegalStateException("非同期に実行中の処理からは並列実行できません。");
+		}
+		this.executed = true;
+		long nanos = Math.min(unit.toNanos(timeout), Deadline.remaining(TimeUnit.NANOSECONDS));
+
+		// 全ての処理を開始し、いずれかの処理でエラーが発生した時点で待機を終了
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[this.queries.size()];
+		CompletableFuture<Void> failed = new CompletableFuture<>();
+		for (int i = 0; i < futures.length; i++) {
+			Query<?> query = this.queries.get(i);
+			query.submit();
+			futures[i] = query.future.whenComplete((result, e) -> {
+				if (Objects.nonNull(e)) {
+					failed.completeExceptionally(e);
+				}
+			});
+		}
+		try {
+			CompletableFuture.anyOf(CompletableFuture.allOf(futures), failed).get(nanos, TimeUnit.NANOSECONDS);
+		} catch (ExecutionException e) {
+			this.cancel();
+			Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new SqlExecuteException(cause);
+		} catch (TimeoutException e) {
+			long incomplete = this.queries.stream().filter(query -> !query.future.isDone()).count();
+			long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+			this.cancel();
+			throw new SqlExecuteException(new TimeoutException("[制限時間=" + millis + "ms]"), Message.DBE00017, millis,
+					incomplete);
+		} catch (InterruptedException e) {
+			// 割り込まれた場合は実行中の処理を中止し、割り込み状態を復元してエラー
+			this.cancel();
+			Thread.currentThread().interrupt();
+			throw new SqlExecuteException(e);
+		}
+	}
+
+	/**
+	 * 完了していない処理を中止する。
+	 * 実行待ちの処理は実行せず、実行中のSQLは{@link java.sql.Statement#cancel()}で中止する。
+	 */
+	private void cancel() {
+		this.queries.forEach(query -> query.future.cancel(true));
+	}
+
+}
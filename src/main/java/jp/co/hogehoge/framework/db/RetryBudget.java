@@ -0,0 +1,107 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jp.co.hogehoge.framework.db.DatabaseMetrics.Metric;
+
+/**
+ * リトライ上限。
+ * アプリケーション全体のリトライをトークン・バケットで制限し、障害時にリトライが負荷を増幅させることを防ぐ。
+ * トークンは{@link DatabaseConfig#RETRY_BUDGET_CAPACITY}を上限として、1秒毎に{@link DatabaseConfig#RETRY_BUDGET_RATE}ずつ補充する。
+ */
+final class RetryBudget {
+
+	/** logger */
+	private static Logger logger = LogManager.getLogger(RetryBudget.class);
+
+	/** ロック */
+	private static final ReentrantLock LOCK = new ReentrantLock();
+
+	/** トークン数 */
+	private static double tokens = DatabaseConfig.RETRY_BUDGET_CAPACITY.get();
+
+	/** 最終補充時刻（ナノ秒） */
+	private static long refilledAt = System.nanoTime();
+
+	/**
+	 * コンストラクタ。
+	 */
+	private RetryBudget() {
+		// NOP
+	}
+
+	/**
+	 * リトライ方針に従い、次のリトライまでの待機時間を決定する。
+	 * 次のいずれかに該当する場合はリトライしない。
+	 * (1)リトライ方針がリトライしないと判定した場合
+	 * (2)呼び出し元の期限（{@link Deadline}）までに待機を終えられない場合
+	 * (3)リトライ上限のトークンを取得できない場合
+	 *
+	 * @param policy   リトライ方針
+	 * @param count    リトライ回数（1から開始）
+	 * @param previous 前回の待機時間（ms、初回は0）
+	 * @return 待機時間（ms）。リトライしない場合は負数
+	 */
+	static long backoff(RetryPolicy policy, int count, long previous) {
+		long wait = policy.nextWait(count, previous);
+		if (wait < 0) {
+			return -1;
+		}
+		if (Deadline.remaining(TimeUnit.MILLISECONDS) < wait) {
+			DatabaseMetrics.increment(Metric.RETRY_DEADLINE_EXCEEDED);
+			return -1;
+		}
+		if (!tryAcquire()) {
+			DatabaseMetrics.increment(Metric.RETRY_REJECTED);
+			logger.warn("リトライ上限に達したためリトライを中止しました。");
+			return -1;
+		}
+		DatabaseMetrics.increment(Metric.RETRY);
+		return wait;
+	}
+
+	/**
+	 * トークンを取得する。
+	 * {@link DatabaseConfig#RETRY_BUDGET_CAPACITY}が0以下の場合は制限しない。
+	 *
+	 * @return 取得できた場合はtrue
+	 */
+	static boolean tryAcquire() {
+		int capacity = DatabaseConfig.RETRY_BUDGET_CAPACITY.get();
+		if (capacity <= 0) {
+			return true;
+		}
+		LOCK.lock();
+		try {
+			long now = System.nanoTime();
+			tokens = Math.min(capacity,
+					tokens + (now - refilledAt) / 1_000_000_000.0 * DatabaseConfig.RETRY_BUDGET_RATE.get());
+			refilledAt = now;
+			if (tokens < 1) {
+				return false;
+			}
+			tokens--;
+			return true;
+		} finally {
+			LOCK.unlock();
+		}
+	}
+
+	/**
+	 * トークン数を上限まで補充する。
+	 */
+	static void reset() {
+		LOCK.lock();
+		try {
+			tokens = DatabaseConfig.RETRY_BUDGET_CAPACITY.get();
+			refilledAt = System.nanoTime();
+		} finally {
+			LOCK.unlock();
+		}
+	}
+
+}
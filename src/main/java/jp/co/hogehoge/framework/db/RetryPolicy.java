@@ -0,0 +1,78 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * リトライ方針。
+ * リトライ対象のエラー（{@link DatabaseConfig#RETRY_ERROR_CODE}）が発生した場合に、リトライまでの待機時間を決定する。
+ * 方針に関わらず、呼び出し元の期限（{@link Deadline}）までに待機を終えられない場合、
+ * およびアプリケーション全体のリトライ上限（{@link DatabaseConfig#RETRY_BUDGET_CAPACITY}）に達した場合はリトライしない。
+ */
+@FunctionalInterface
+public interface RetryPolicy {
+
+	/**
+	 * 次のリトライまでの待機時間を取得する。
+	 *
+	 * @param count    リトライ回数（1から開始）
+	 * @param previous 前回の待機時間（ms、初回は0）
+	 * @return 待機時間（ms）。リトライしない場合は負数
+	 */
+	long nextWait(int count, long previous);
+
+	/**
+	 * リトライしない方針を取得する。
+	 *
+	 * @return リトライ方針
+	 */
+	static RetryPolicy none() {
+		return (count, previous) -> -1;
+	}
+
+	/**
+	 * 一定時間待機してリトライする方針を取得する。
+	 *
+	 * @param maxRetries 最大リトライ回数
+	 * @param wait       待機時間（ms）
+	 * @return リトライ方針
+	 */
+	static RetryPolicy fixed(int maxRetries, long wait) {
+		return (count, previous) -> count <= maxRetries ? wait : -1;
+	}
+
+	/**
+	 * 待機時間を指数的に延長してリトライする方針を取得する。
+	 * 待機時間は前回の待機時間の3倍までの範囲でランダムに決定し（Decorrelated Jitter）、
+	 * 同時にリトライするスレッドの待機時間を分散させる。
+	 *
+	 * @param maxRetries 最大リトライ回数
+	 * @param base       最小待機時間（ms）
+	 * @param cap        最大待機時間（ms）
+	 * @return リトライ方針
+	 */
+	static RetryPolicy exponential(int maxRetries, long base, long cap) {
+		return (count, previous) -> {
+			if (count > maxRetries) {
+				return -1;
+			}
+			long upper = Math.min(cap, Math.max(base, previous * 3));
+			return upper <= base ? Math.min(base, cap) : base + ThreadLocalRandom.current().nextLong(upper - base + 1);
+		};
+	}
+
+	/**
+	 * 既定のリトライ方針を取得する。
+	 * {@link DatabaseConfig#RETRY_POLICY}が「exponential」の場合は{@link #exponential(int, long, long)}、
+	 * それ以外の場合は{@link #fixed(int, long)}とする。
+	 *
+	 * @return リトライ方針
+	 */
+	static RetryPolicy getDefault() {
+		if ("exponential".equalsIgnoreCase(DatabaseConfig.RETRY_POLICY.get().trim())) {
+			return exponential(DatabaseConfig.RETRY_COUNT.get(), DatabaseConfig.RETRY_WAIT.get(),
+					DatabaseConfig.RETRY_MAX_WAIT.get());
+		}
+		return fixed(DatabaseConfig.RETRY_COUNT.get(), DatabaseConfig.RETRY_WAIT.get());
+	}
+
+}
@@ -0,0 +1,38 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.List;
+
+/**
+ * シャード解決インタフェース。
+ * SQL実行パラメータのシャード・キーの値から、SQLを実行するシャードを決定する。
+ * 同一のキーの値に対しては、常に同一のシャードを返却すること。
+ *
+ * <pre>
+ * public static final Sql&lt;CustomerEntity, Optional&lt;CustomerEntity&gt;&gt; SELECT = Sql
+ *         .defineSelectSingleRecord(FILE_NAME, "sql.customer.select", CustomerEntity.class)
+ *         .shardKey("CUSTOMER_ID", (key, shards) -&gt; shards.get(Integer.parseInt(key.toString()) % shards.size()));
+ * </pre>
+ */
+@FunctionalInterface
+public interface ShardResolver {
+
+	/**
+	 * シャードを決定する。
+	 *
+	 * @param key    シャード・キーの値（nullではない）
+	 * @param shards シャード名リスト（{@link DatabaseConfig#SHARDS}の定義順）
+	 * @return シャード名
+	 */
+	String resolve(Object key, List<String> shards);
+
+	/**
+	 * キーのハッシュ値（{@link Object#hashCode()}）でシャードを決定する。
+	 * シャード・キーの値には、JVMに依存しないハッシュ値を持つデータ型（String、Integer、Long等）を使用すること。
+	 *
+	 * @return シャード解決処理
+	 */
+	static ShardResolver hash() {
+		return (key, shards) -> shards.get(Math.floorMod(key.hashCode(), shards.size()));
+	}
+
+}
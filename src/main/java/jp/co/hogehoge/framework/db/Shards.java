@@ -0,0 +1,255 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+
+import jp.co.hogehoge.framework.db.exception.ShardingException;
+import jp.co.hogehoge.framework.db.exception.SqlExecuteException;
+
+/**
+ * シャード。
+ * {@link DatabaseConfig#SHARDS}で定義したシャード毎のデータ・ソースを管理し、
+ * シャード・キーを指定しないSELECT処理を全てのシャードで並列に実行して結果を結合する。
+ * データ・ソースはシャードを使用するSQLが最初に実行されたタイミングで初期化し、
+ * 取得に失敗した場合は次に実行されたタイミングで再度初期化する。
+ */
+final class Shards {
+
+	/** シャード名とデータ・ソースのマップ（定義順、初期化前はnull） */
+	private static volatile Map<String, DataSource> instance = null;
+
+	/** シャード名リスト（定義順） */
+	private static List<String> names = Collections.emptyList();
+
+	/** 初期化処理のロック */
+	private static final ReentrantLock LOCK = new ReentrantLock();
+
+	/**
+	 * 全てのシャードで並列に実行するスレッド・プール格納クラス。
+	 * スレッド数は{@link DatabaseConfig#SHARD_POOL_SIZE}を上限とし、空きスレッドがない場合は呼び出し元のスレッドで実行する。
+	 */
+	private static class Scatter {
+
+		/** スレッド・プール・インスタンス */
+		private static final ThreadPoolExecutor INSTANCE = initialize();
+
+		/**
+		 * スレッド・プール初期化処理。
+		 *
+		 * @return スレッド・プール
+		 */
+		private static ThreadPoolExecutor initialize() {
+			int size = DatabaseConfig.SHARD_POOL_SIZE.get();
+			if (size <= 0) {
+				size = DatabaseConfig.POOL_MAX_SIZE.get();
+			}
+			AtomicInteger sequence = new AtomicInteger();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+					new SynchronousQueue<>(), runnable -> {
+						Thread thread = new Thread(runnable, "shard-scatter-" + sequence.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}, new ThreadPoolExecutor.CallerRunsPolicy());
+			executor.allowCoreThreadTimeOut(true);
+			return executor;
+		}
+	}
+
+	/**
+	 * コンストラクタ。
+	 */
+	private Shards() {
+		// NOP
+	}
+
+	/**
+	 * シャード毎のデータ・ソースを取得する。
+	 * 初期化されていない場合は初期化し、失敗した場合は次の呼び出しで再度初期化する。
+	 *
+	 * @return シャード名とデータ・ソースのマップ（定義順）
+	 * @throws ShardingException データ・ソースの取得に失敗した場合
+	 */
+	private static Map<String, DataSource> dataSources() {
+		Map<String, DataSource> dataSources = instance;
+		if (Objects.nonNull(dataSources)) {
+			return dataSources;
+		}
+		LOCK.lock();
+		try {
+			if (Objects.isNull(instance)) {
+				Map<String, DataSource> map = initialize(DatabaseConfig.SHARDS.get());
+				names = Collections.unmodifiableList(new ArrayList<>(map.keySet()));
+				instance = map;
+			}
+			return instance;
+		} finally {
+			LOCK.unlock();
+		}
+	}
+
+	/**
+	 * データ・ソース初期化処理。
+	 * 組み込みのコネクション・プールを使用する場合は接続先URLとしてコネクション・プールを生成し、
+	 * それ以外の場合はデータ・ソース名としてJNDIで取得する。
+	 *
+	 * @param value シャードの定義（シャード名=データ・ソース名または接続先URLをセミコロン区切り）
+	 * @return シャード名とデータ・ソースのマップ
+	 * @throws ShardingException データ・ソースの取得に失敗した場合
+	 */
+	private static Map<String, DataSource> initialize(String value) {
+		boolean pooled = Boolean.parseBoolean(DatabaseConfig.POOL_ENABLED.get().trim());
+		Map<String, DataSource> map = new LinkedHashMap<>();
+		for (String item : value.split(";")) {
+			int index = item.indexOf('=');
+			if (index <= 0) {
+				continue;
+			}
+			String name = item.substring(0, index).trim();
+			String target = item.substring(index + 1).trim();
+			if (pooled) {
+				map.put(name, ConnectionPool.create(target));
+				continue;
+			}
+			try {
+				map.put(name, (DataSource) InitialContext.doLookup(target));
+			} catch (NamingException e) {
+				throw new ShardingException(e, Message.DBE00004, target);
+			}
+		}
+		return Collections.unmodifiableMap(map);
+	}
+
+	/**
+	 * シャード名リストを取得する。
+	 *
+	 * @return シャード名リスト（定義順）
+	 */
+	static List<String> names() {
+		dataSources();
+		return names;
+	}
+
+	/**
+	 * シャードのデータ・ソースを取得する。
+	 *
+	 * @param shard シャード名
+	 * @return データ・ソース
+	 * @throws ShardingException シャードが定義されていない場合
+	 */
+	static DataSource get(String shard) {
+		DataSource dataSource = dataSources().get(shard);
+		if (Objects.isNull(dataSource)) {
+			throw new ShardingException(new IllegalArgumentException("[シャード=" + shard + "]"), Message.DBE00016,
+					shard);
+		}
+		return dataSource;
+	}
+
+	/**
+	 * シャード・キーの値からシャードを決定する。
+	 *
+	 * @param resolver シャード解決処理
+	 * @param key      シャード・キーの値
+	 * @return シャード名
+	 * @throws ShardingException シャードが定義されていない場合
+	 */
+	static String resolve(ShardResolver resolver, Object key) {
+		List<String> names = names();
+		if (names.isEmpty()) {
+			throw new ShardingException(new IllegalStateException("[シャード・キー=" + key + "]"), Message.DBE00016,
+					"");
+		}
+		String shard = resolver.resolve(key, names);
+		if (!dataSources().containsKey(shard)) {
+			throw new ShardingException(new IllegalArgumentException("[シャード・キー=" + key + "]"), Message.DBE00016,
+					shard);
+		}
+		return shard;
+	}
+
+	/**
+	 * 全てのシャードで並列に処理を実行し、処理結果を結合する。
+	 * 処理結果は、リストの場合はシャードの定義順に連結し、{@link Optional}の場合は最初に値が存在する結果、
+	 * 数値（処理件数）の場合は合計とする。いずれかのシャードでエラーが発生した場合は、そのエラーをスローする。
+	 *
+	 * @param          <R> 処理結果のデータ型
+	 * @param function シャード名を受け取る処理
+	 * @return 結合した処理結果
+	 * @throws ShardingException シャードが定義されていない場合
+	 */
+	static <R> R gather(Function<String, R> function) {
+		List<String> names = names();
+		if (names.isEmpty()) {
+			throw new ShardingException(new IllegalStateException("[" + DatabaseConfig.SHARDS.get() + "]"), Message.DBE00016, "");
+		}
+		List<Future<R>> futures = new ArrayList<>();
+		for (String shard : names) {
+			futures.add(Scatter.INSTANCE.submit(() -> function.apply(shard)));
+		}
+		List<R> results = new ArrayList<>();
+		try {
+			for (Future<R> future : futures) {
+				results.add(future.get());
+			}
+		} catch (ExecutionException e) {
+			futures.forEach(future -> future.cancel(true));
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new SqlExecuteException(e.getCause());
+		} catch (InterruptedException e) {
+			// 割り込まれた場合は実行中の処理を中止し、割り込み状態を復元してエラー
+			futures.forEach(future -> future.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new SqlExecuteException(e);
+		}
+		return merge(results);
+	}
+
+	/**
+	 * シャード毎の処理結果を結合する。
+	 *
+	 * @param         <R> 処理結果のデータ型
+	 * @param results シャード毎の処理結果（定義順）
+	 * @return 結合した処理結果
+	 */
+	@SuppressWarnings("unchecked")
+	private static <R> R merge(List<R> results) {
+		Object merged = null;
+		for (R result : results) {
+			if (result instanceof List) {
+				if (Objects.isNull(merged)) {
+					merged = new ArrayList<>();
+				}
+				((List<Object>) merged).addAll((List<?>) result);
+			} else if (result instanceof Optional) {
+				if (Objects.isNull(merged) || !((Optional<?>) merged).isPresent()) {
+					merged = result;
+				}
+			} else if (result instanceof Integer) {
+				merged = (Objects.isNull(merged) ? 0 : (Integer) merged) + (Integer) result;
+			} else if (Objects.isNull(merged)) {
+				merged = result;
+			}
+		}
+		return (R) merged;
+	}
+
+}
@@ -0,0 +1,73 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * 同一SQL実行の集約。
+ * 同一のSQL実行キーで同時に実行されたSQLは、先行するスレッドのみが実行し、
+ * 後続のスレッドは先行するスレッドの実行結果（エラーを含む）を共有する。
+ * 実行結果に含まれるエンティティは後続のスレッド毎に複製し、呼び出し元による変更が他のスレッドへ波及しないようにする。
+ */
+final class SingleFlight {
+
+	/** logger */
+	private static Logger logger = LogManager.getLogger(SingleFlight.class);
+
+	/** 実行中のSQL */
+	private static final ConcurrentMap<SqlKey, CompletableFuture<Object>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+	/**
+	 * コンストラクタ。
+	 */
+	private SingleFlight() {
+		// NOP
+	}
+
+	/**
+	 * SQLを実行する。
+	 * 同一のSQL実行キーでSQLが実行中の場合は、その実行結果を待機し、複製して返却する。
+	 *
+	 * @param          <R> SQL実行結果のデータ型
+	 * @param key      SQL実行キー
+	 * @param supplier SQL実行処理
+	 * @return SQL実行結果
+	 */
+	@SuppressWarnings("unchecked")
+	static <R> R execute(SqlKey key, Supplier<R> supplier) {
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		CompletableFuture<Object> leader = IN_FLIGHT.putIfAbsent(key, future);
+
+		// 実行中のSQLが存在する場合はその実行結果を共有
+		if (Objects.nonNull(leader)) {
+			logger.debug("実行中のSQLの結果を共有（" + key + "）");
+			try {
+				return (R) Entity.copyOf(leader.join());
+			} catch (CompletionException e) {
+				throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause() : e;
+			}
+		}
+
+		// 先行するスレッドとしてSQLを実行し、完了後に後続のスレッドへ結果を通知
+		R result;
+		try {
+			result = supplier.get();
+		} catch (RuntimeException | Error e) {
+			IN_FLIGHT.remove(key, future);
+			future.completeExceptionally(e);
+			throw e;
+		}
+		// 後続のスレッドには呼び出し元が変更しない複製から更に複製して返却
+		IN_FLIGHT.remove(key, future);
+		future.complete(Entity.copyOf(result));
+		return result;
+	}
+
+}
@@ -1,16 +1,26 @@
 package jp.co.hogehoge.framework.db;
 
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import jp.co.hogehoge.framework.db.exception.PessimisticLockingException;
+import jp.co.hogehoge.framework.db.exception.ShardingException;
 import jp.co.hogehoge.framework.db.exception.SqlExecuteException;
+import jp.co.hogehoge.framework.db.exception.TransactionException;
 import jp.co.hogehoge.framework.property.Property;
 import jp.co.hogehoge.framework.property.PropertyType;
 
@@ -22,9 +32,45 @@ import jp.co.hogehoge.framework.property.PropertyType;
  */
 public abstract class Sql<P extends Entity, R> {
 
+	/** 作業単位がロールバックされたことを示すエラーコード（デッドロック、タイムアウト） */
+	private static final int UNIT_OF_WORK_ROLLED_BACK = -911;
+
 	/** logger */
 	protected Logger logger = LogManager.getLogger(Sql.class);
 
+	/** 同一SQL実行の集約を行うかどうか */
+	protected boolean coalescing = false;
+
+	/** 対象テーブル名リスト */
+	protected Set<String> tables = Collections.emptySet();
+
+	/** SQL実行結果キャッシュの有効期間（ms）。0以下の場合はキャッシュしない */
+	protected long cacheTtl = 0;
+
+	/** 主キーのパラメータ名リスト */
+	protected List<String> primaryKey = Collections.emptyList();
+
+	/** 単一レコードのSELECT処理の実行結果を格納するエンティティ・クラス */
+	protected Class<? extends Entity> entityClass = null;
+
+	/** トランザクション内で同一SQL実行の結果を再利用するかどうか */
+	protected boolean identityMapped = false;
+
+	/** リトライ方針（指定しない場合はnull） */
+	protected RetryPolicy retryPolicy = null;
+
+	/** ワークロード（指定しない場合はnull） */
+	protected String workload = null;
+
+	/** 読み取り用レプリカで実行できるかどうか */
+	protected boolean replicaSafe = false;
+
+	/** シャード・キーのパラメータ名（シャードを使用しない場合はnull） */
+	protected String shardKey = null;
+
+	/** シャード解決処理 */
+	protected ShardResolver shardResolver = ShardResolver.hash();
+
 	/**
 	 * CREATE処理を定義する。
 	 * 引数に指定されたプロパティファイル（クラスパス上）からSQLIDをキーとして実行するSQLを取得する。
@@ -112,7 +158,9 @@ public abstract class Sql<P extends Entity, R> {
 	 */
 	public static <P extends Entity, R extends Entity> Sql<P, Optional<R>> defineSelectSingleRecord(String filename,
 			String sqlId, Class<R> clazz) {
-		return define(filename, sqlId, Command.select(), ResultSetParser.toEntity(clazz));
+		Sql<P, Optional<R>> sql = define(filename, sqlId, Command.select(), ResultSetParser.toEntity(clazz));
+		sql.entityClass = clazz;
+		return sql;
 	}
 
 	/**
@@ -143,40 +191,304 @@ public abstract class Sql<P extends Entity, R> {
 	 */
 	protected static <P extends Entity, R> Sql<P, R> define(String fileName, String sqlId, Command<R> command,
 			ResultSetParser<R> parser) {
-		return new Sql<P, R>() {
+		// 定義したSQLを登録（起動時のウォームアップ対象）
+		return SqlRegistry.register(new Sql<P, R>() {
 
 			// SQLプロパティ定義
 			private final Property<String> sql = Property.define(fileName, sqlId, "", PropertyType.isString());
 
 			@Override
 			public R execute(P param) {
-				// SQL実行パラメータのマップ化とリトライ回数の取得
+				// SQL実行パラメータのマップ化
+				Map<String, Object> args = Objects.nonNull(param) ? param.toMap() : null;
+				return command.isQuery() ? this.query(args) : this.update(args);
+			}
+
+			/**
+			 * SELECT処理を実行する。
+			 * 
+			 * @param args SQL実行パラメータ（マップ）
+			 * @return SQL実行結果
+			 */
+			private R query(Map<String, Object> args) {
+				// トランザクション内の同一SQL実行はアイデンティティ・マップの実行結果を再利用
+				TransactionContext context = Transaction.current();
+				if (this.identityMapped && Objects.nonNull(context)) {
+					return context.identity(new SqlKey(sqlId, args), this.tables, () -> this.lookup(args));
+				}
+				return this.lookup(args);
+			}
+
+			/**
+			 * トランザクション間で共有するキャッシュを使用してSELECT処理を実行する。
+			 * 
+			 * @param args SQL実行パラメータ（マップ）
+			 * @return SQL実行結果
+			 */
+			private R lookup(Map<String, Object> args) {
+				// 実行中のトランザクションで対象テーブルを更新している場合はキャッシュを使用しない
+				if (Transaction.isModified(this.tables)) {
+					return this.fetch(args);
+				}
+
+				// 主キーを指定した単一レコードのSELECT処理はエンティティ・キャッシュを使用
+				Map<String, Object> key = this.primaryKeyOf(args);
+				if (Objects.nonNull(this.entityClass) && Objects.nonNull(key)) {
+					return EntityCache.get(this.entityClass, this.tables, key, () -> this.cached(args));
+				}
+				return this.cached(args);
+			}
+
+			/**
+			 * SQL実行結果キャッシュを使用してSELECT処理を実行する。
+			 * 
+			 * @param args SQL実行パラメータ（マップ）
+			 * @return SQL実行結果
+			 */
+			private R cached(Map<String, Object> args) {
+				if (this.cacheTtl > 0) {
+					return QueryCache.getInstance().get(new SqlKey(sqlId, args), this.tables, this.cacheTtl,
+							() -> this.fetch(args));
+				}
+				return this.fetch(args);
+			}
+
+			/**
+			 * SELECT処理をデータベースに対して実行する。
+			 * 
+			 * @param args SQL実行パラメータ（マップ）
+			 * @return SQL実行結果
+			 */
+			private R fetch(Map<String, Object> args) {
+				// トランザクション外のSELECT処理は同時に実行された同一のSQL実行を集約
+				if (this.coalescing && !Transaction.isActive()) {
+					return SingleFlight.execute(new SqlKey(sqlId, args), () -> this.execute(this.sql.get(), args));
+				}
+				return this.execute(this.sql.get(), args);
+			}
+
+			/**
+			 * 更新処理（SELECT処理以外）を実行する。
+			 * 
+			 * @param args SQL実行パラメータ（マップ）
+			 * @return SQL実行結果
+			 */
+			@SuppressWarnings("unchecked")
+			private R update(Map<String, Object> args) {
+				this.writable();
+				R result = null;
+				String text = this.sql.get();
+				WriteBehindQueue queue = this.writeBehindQueue();
+				if (Objects.nonNull(queue) && WriteBehindQueue.isDeferrable(text)) {
+					// 更新処理を遅延実行するトランザクションの場合は遅延実行キューへ登録
+					queue.add(this, text, args, this.tables);
+					result = (R) Integer.valueOf(Statement.SUCCESS_NO_INFO);
+				} else {
+					// DDL、CALL等は遅延実行中の更新処理を全て実行してから即時に実行
+					if (Objects.nonNull(queue)) {
+						queue.flush();
+					}
+					result = this.execute(text, args);
+				}
+				this.modified(args);
+				return result;
+			}
+
+			/**
+			 * 更新処理の対象テーブルと主キーを通知し、キャッシュを無効とする。
+			 * 
+			 * @param args SQL実行パラメータ（マップ）
+			 */
+			private void modified(Map<String, Object> args) {
+				Transaction.modified(this.tables);
+				Map<String, Object> key = this.primaryKeyOf(args);
+				Transaction.afterCommit(() -> EntityCache.evict(this.tables, key));
+			}
+
+			/**
+			 * SQL実行パラメータから主キーを取得する。
+			 * 
+			 * @param args SQL実行パラメータ（マップ）
+			 * @return 主キー（主キーが宣言されていない、または値が指定されていない場合はnull）
+			 */
+			private Map<String, Object> primaryKeyOf(Map<String, Object> args) {
+				if (this.primaryKey.isEmpty() || Objects.isNull(args)) {
+					return null;
+				}
+				Map<String, Object> key = new HashMap<>();
+				for (String name : this.primaryKey) {
+					Object value = args.get(name);
+					if (Objects.isNull(value)) {
+						return null;
+					}
+					key.put(name, value);
+				}
+				return key;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public CompletableFuture<R> executeDeferred(P param) {
+				String text = this.sql.get();
+				WriteBehindQueue queue = this.writeBehindQueue();
+				if (Objects.isNull(queue) || !WriteBehindQueue.isDeferrable(text)) {
+					return CompletableFuture.completedFuture(this.execute(param));
+				}
+				this.writable();
 				Map<String, Object> args = Objects.nonNull(param) ? param.toMap() : null;
-				Integer retryCount = DatabaseConfig.RETRY_COUNT.get();
+				CompletableFuture<Integer> future = queue.add(this, text, args, this.tables);
+				this.modified(args);
+				return (CompletableFuture<R>) (CompletableFuture<?>) future;
+			}
+
+			/**
+			 * 更新処理を実行できることを確認する。
+			 * 読み取り専用のトランザクションは読み取り用レプリカで実行される可能性があるため、更新処理は実行できない。
+			 * 
+			 * @throws TransactionException 読み取り専用のトランザクション内の場合
+			 */
+			private void writable() {
+				TransactionContext context = Transaction.current();
+				if (Objects.nonNull(context) && context.isReadOnly()) {
+					throw new TransactionException(new IllegalStateException("[SQLID=" + sqlId + "]"),
+							Message.DBE00019, sqlId);
+				}
+			}
+
+			/**
+			 * 実行中のトランザクションの遅延実行キューを取得する。
+			 * 
+			 * @return 遅延実行キュー（更新処理以外、または遅延実行しないトランザクションの場合はnull）
+			 */
+			private WriteBehindQueue writeBehindQueue() {
+				TransactionContext context = Transaction.current();
+				return (command.isQuery() || Objects.isNull(context)) ? null : context.getWriteBehindQueue();
+			}
+
+			@Override
+			int[] executeBatch(String sql, List<Map<String, Object>> batch) {
+				this.writable();
+				try {
+					if (logger.isInfoEnabled()) {
+						logger.info("SQLID={" + sqlId + "}, SQL={" + sql + "}, BATCH=" + batch.size());
+					}
+					String shard = this.shardOf(batch);
+					return DatabaseConnection.execute(this.workload, false, shard,
+							conn -> command.executeBatch(conn, sql, batch));
+				} catch (SQLException e) {
+					// 先行する更新処理も含めてロールバックされている可能性があるため、リトライは行わない
+					if (DatabaseConfig.RETRY_ERROR_CODE.get().contains(e.getErrorCode())) {
+						throw new PessimisticLockingException(e, Message.DBE00009, sqlId, batch);
+					}
+					throw new SqlExecuteException(e);
+				}
+			}
+
+			/**
+			 * SQL実行パラメータのシャード・キーの値から、SQLを実行するシャードを決定する。
+			 * 
+			 * @param args SQL実行パラメータ（マップ）
+			 * @return シャード名（シャード・キーが宣言されていない、または値が指定されていない場合はnull）
+			 */
+			private String shardOf(Map<String, Object> args) {
+				if (Objects.isNull(this.shardKey) || Objects.isNull(args)) {
+					return null;
+				}
+				Object key = args.get(this.shardKey);
+				return Objects.isNull(key) ? null : Shards.resolve(this.shardResolver, key);
+			}
+
+			/**
+			 * バッチ実行する全ての更新処理のシャード・キーの値から、SQLを実行するシャードを決定する。
+			 * 
+			 * @param batch SQL実行パラメータ（マップ）リスト
+			 * @return シャード名（シャード・キーが宣言されていない、または値が指定されていない場合はnull）
+			 * @throws ShardingException 異なるシャードの更新処理が含まれる場合
+			 */
+			private String shardOf(List<Map<String, Object>> batch) {
+				String shard = null;
+				for (Map<String, Object> args : batch) {
+					String target = this.shardOf(args);
+					if (Objects.nonNull(shard) && Objects.nonNull(target) && !shard.equals(target)) {
+						throw new ShardingException(new IllegalArgumentException("[PARAM=" + args + "]"),
+								Message.DBE00014, target, shard);
+					}
+					shard = Objects.nonNull(target) ? target : shard;
+				}
+				return shard;
+			}
+
+			@Override
+			R execute(String sql, Map<String, Object> args) {
+				String shard = this.shardOf(args);
+				if (Objects.isNull(this.shardKey) || Objects.nonNull(shard) || Transaction.isActive()) {
+					// トランザクション内でシャード・キーの値が指定されていない場合は、トランザクションのシャードで実行
+					return this.execute(sql, args, shard);
+				}
+				// トランザクション外でシャード・キーの値が指定されていないSELECT処理は、全てのシャードで実行
+				if (command.isQuery()) {
+					return Shards.gather(target -> this.execute(sql, args, target));
+				}
+				throw new ShardingException(new IllegalArgumentException("[PARAM=" + args + "]"), Message.DBE00015,
+						sqlId, this.shardKey);
+			}
+
+			/**
+			 * シャードを指定してSQLを実行する。
+			 * 
+			 * @param sql   SQL
+			 * @param args  SQL実行パラメータ（マップ）
+			 * @param shard シャード名（シャードを使用しない場合はnull）
+			 * @return SQL実行結果
+			 */
+			private R execute(String sql, Map<String, Object> args, String shard) {
+				// 遅延実行中の更新処理が参照テーブルを対象とする場合は先に実行
+				TransactionContext context = Transaction.current();
+				if (command.isQuery() && Objects.nonNull(context)
+						&& Objects.nonNull(context.getWriteBehindQueue())) {
+					context.getWriteBehindQueue().flush(this.tables);
+				}
+
+				// リトライ方針の取得（トランザクション全体を再実行する場合、SQL単位のリトライは行わない）
+				RetryPolicy policy = Objects.nonNull(context) && context.isReplay() ? RetryPolicy.none()
+						: Objects.nonNull(this.retryPolicy) ? this.retryPolicy : RetryPolicy.getDefault();
+				int retryCount = 0;
+				long wait = 0;
 
 				// SQL実行処理
 				while (true) {
 					try {
-						String sql = this.sql.get();
 						if (logger.isInfoEnabled()) {
 							logger.info("SQLID={" + sqlId + "}, SQL={" + sql + "}, PARAM=" + args);
 						}
-						return command.execute(DatabaseConnection.getConnection(), sql, args, parser);
+						return DatabaseConnection.execute(this.workload, command.isQuery() && this.replicaSafe,
+								shard, conn -> command.execute(conn, sql, args, parser));
 					} catch (SQLException e) {
+						// トランザクション内で作業単位がロールバックされた場合は、以降のSQLが別の作業単位で実行されないよう
+						// リトライせずにトランザクションをロールバック対象とする
+						if (Objects.nonNull(context) && e.getErrorCode() == UNIT_OF_WORK_ROLLED_BACK) {
+							context.aborted(e);
+							throw new PessimisticLockingException(e, Message.DBE00009, sqlId, args);
+						}
 						// リトライ対象のエラーコードに該当した場合はリトライ処理を実施
 						if (DatabaseConfig.RETRY_ERROR_CODE.get().contains(e.getErrorCode())) {
-							if (retryCount-- > 0) {
-								try {
-									logger.info("リトライ処理実行（カウント=" + retryCount + "）");
-									Thread.sleep(DatabaseConfig.RETRY_WAIT.get()); // 一定時間待機
-								} catch (InterruptedException ie) {
-									// リトライ処理を継続する必要があるためエラーは無視
-								}
-								continue;
-							} else {
-								// リトライ処理が指定回数を超えた場合はエラー
-								throw new PessimisticLockingException(e, Message.DBE00009, sqlId, param);
+							wait = RetryBudget.backoff(policy, ++retryCount, wait);
+							if (wait < 0) {
+								// リトライしない場合はエラー
+								throw new PessimisticLockingException(e, Message.DBE00009, sqlId, args);
+							}
+							try {
+								logger.info("リトライ処理実行（カウント=" + retryCount + ", 待機時間=" + wait + "ms）");
+								Thread.sleep(wait);
+							} catch (InterruptedException ie) {
+								// 割り込まれた場合はリトライを中止し、割り込み状態を復元してエラー
+								Thread.currentThread().interrupt();
+								PessimisticLockingException pe = new PessimisticLockingException(e, Message.DBE00009,
+										sqlId, args);
+								pe.addSuppressed(ie);
+								throw pe;
 							}
+							continue;
 						}
 						// リトライ対象外のエラーは無条件でスロー
 						throw new SqlExecuteException(e);
@@ -184,6 +496,26 @@ public abstract class Sql<P extends Entity, R> {
 				}
 			}
 
+			@Override
+			boolean isQuery() {
+				return command.isQuery();
+			}
+
+			@Override
+			Cursor cursor(P param) {
+				if (!command.isQuery() || Objects.isNull(parser.clazz)) {
+					throw new IllegalStateException("エンティティを取得するSELECT処理ではありません。SQLID={" + sqlId + "}");
+				}
+				Map<String, Object> args = Objects.nonNull(param) ? param.toMap() : null;
+				String shard = this.shardOf(args);
+				if (Objects.nonNull(this.shardKey) && Objects.isNull(shard)) {
+					throw new ShardingException(new IllegalArgumentException("[PARAM=" + args + "]"),
+							Message.DBE00015, sqlId, this.shardKey);
+				}
+				return new Cursor(sqlId, this.sql.get(), args, command, parser, this.workload, this.replicaSafe,
+						shard);
+			}
+
 			@Override
 			public R execute() {
 				return this.execute(null);
@@ -198,9 +530,152 @@ public abstract class Sql<P extends Entity, R> {
 			public String getSqlId() {
 				return sqlId;
 			}
-		};
+		});
 	};
 
+	/**
+	 * 同一SQL実行の集約を有効にする。
+	 * トランザクション外で同一のパラメータによるSELECT処理が同時に実行された場合、
+	 * 先行するスレッドのみがSQLを実行し、後続のスレッドはその実行結果の複製を取得する。
+	 * 
+	 * @return this
+	 */
+	public Sql<P, R> coalesce() {
+		this.coalescing = true;
+		return this;
+	}
+
+	/**
+	 * SQLの対象テーブルを宣言する。
+	 * SELECT処理の場合は参照するテーブル、それ以外の場合は更新するテーブルを指定する。
+	 * 更新処理で対象テーブルを宣言しない場合、コミット時に全てのテーブルのSQL実行結果キャッシュを無効とする。
+	 * 
+	 * @param tables テーブル名
+	 * @return this
+	 */
+	public Sql<P, R> tables(String... tables) {
+		Set<String> set = new LinkedHashSet<>();
+		for (String table : tables) {
+			set.add(TableVersions.normalize(table));
+		}
+		this.tables = Collections.unmodifiableSet(set);
+		return this;
+	}
+
+	/**
+	 * 主キーのパラメータ名を宣言する。
+	 * 単一レコードのSELECT処理で宣言した場合、エンティティ・キャッシュ（{@link EntityCache}）を使用し、
+	 * 更新処理で宣言した場合、コミット時に同一の主キーのエントリーのみを削除する。
+	 * 更新処理で宣言しない場合、コミット時に{@link #tables(String...)}で宣言したテーブルのエントリーを全て削除する。
+	 * 
+	 * @param names パラメータ名（スネークケース（大文字））
+	 * @return this
+	 */
+	public Sql<P, R> primaryKey(String... names) {
+		List<String> list = new ArrayList<>();
+		for (String name : names) {
+			list.add(name.trim().toUpperCase(Locale.ROOT));
+		}
+		this.primaryKey = Collections.unmodifiableList(list);
+		return this;
+	}
+
+	/**
+	 * リトライ方針を指定する。
+	 * 指定しない場合は{@link RetryPolicy#getDefault()}に従う。
+	 * 
+	 * @param policy リトライ方針
+	 * @return this
+	 */
+	public Sql<P, R> retryPolicy(RetryPolicy policy) {
+		this.retryPolicy = policy;
+		return this;
+	}
+
+	/**
+	 * ワークロード（オンライン、バッチ、帳票等）を指定する。
+	 * トランザクション外で実行する場合、コネクションはワークロード毎に{@link DatabaseConfig#BULKHEAD}で定義した同時に使用できる数の範囲で取得する。
+	 * トランザクション内で実行する場合は、トランザクションのワークロード（{@link TransactionAttribute#workload(String)}）に従う。
+	 * 
+	 * @param workload ワークロード
+	 * @return this
+	 */
+	public Sql<P, R> workload(String workload) {
+		this.workload = workload;
+		return this;
+	}
+
+	/**
+	 * 読み取り用レプリカで実行できるSELECT処理とする（SELECT処理のみ）。
+	 * トランザクション外で実行する場合は読み取り用レプリカ（{@link DatabaseConfig#REPLICA_DATA_SOURCE_NAME}）で実行し、
+	 * レプリカを使用できない場合はプライマリで実行する。トランザクション内で実行する場合はトランザクションのコネクションに従う。
+	 * レプリカにはプライマリのコミット結果が遅れて反映されるため、直前の更新結果を参照する必要があるSELECT処理には指定しないこと。
+	 * 
+	 * @return this
+	 */
+	public Sql<P, R> replicaSafe() {
+		this.replicaSafe = true;
+		return this;
+	}
+
+	/**
+	 * シャード・キーを宣言する。
+	 * SQL実行パラメータのシャード・キーの値のハッシュ値（{@link ShardResolver#hash()}）で決定したシャード
+	 * （{@link DatabaseConfig#SHARDS}）でSQLを実行する。詳細は{@link #shardKey(String, ShardResolver)}を参照。
+	 * 
+	 * @param name シャード・キーのパラメータ名（スネークケース（大文字））
+	 * @return this
+	 */
+	public Sql<P, R> shardKey(String name) {
+		return this.shardKey(name, ShardResolver.hash());
+	}
+
+	/**
+	 * シャード・キーとシャード解決処理を宣言する。
+	 * SQL実行パラメータのシャード・キーの値からシャード解決処理で決定したシャード（{@link DatabaseConfig#SHARDS}）でSQLを実行する。
+	 * トランザクション内の場合、トランザクションは最初にSQLを実行したシャードに固定され、異なるシャードのSQLはエラーとなる。
+	 * トランザクション外でシャード・キーの値を指定しないSELECT処理は、全てのシャードで並列に実行して結果を結合する
+	 * （リストはシャードの定義順に連結、単一レコードは最初に取得できたレコード）。シャード・キーの値を指定しない更新処理はエラーとなる。
+	 * 結合はシャード毎の実行結果を連結するのみのため、ORDER BYによる並び順はシャード内でのみ保証され、
+	 * FETCH FIRST等による件数の制限はシャード毎に適用される（結合後の件数はシャード数倍となる場合がある）。
+	 * 全体での並び順や件数の制限が必要な場合は、呼び出し元で結合後の結果を並べ替え、件数を制限すること。
+	 * 
+	 * @param name     シャード・キーのパラメータ名（スネークケース（大文字））
+	 * @param resolver シャード解決処理
+	 * @return this
+	 */
+	public Sql<P, R> shardKey(String name, ShardResolver resolver) {
+		this.shardKey = name.trim().toUpperCase(Locale.ROOT);
+		this.shardResolver = resolver;
+		return this;
+	}
+
+	/**
+	 * トランザクション内のアイデンティティ・マップを有効にする（SELECT処理のみ）。
+	 * 同一トランザクション内でSQLIDとパラメータが一致するSELECT処理を再実行した場合、
+	 * データベースへ問い合わせず、最初に取得した実行結果（同一のインスタンス）を返却する。
+	 * 同一トランザクション内で{@link #tables(String...)}で宣言したテーブルに対する更新処理を行った場合は再取得する。
+	 * 
+	 * @return this
+	 */
+	public Sql<P, R> identityMap() {
+		this.identityMapped = true;
+		return this;
+	}
+
+	/**
+	 * SQL実行結果キャッシュを有効にする（SELECT処理のみ）。
+	 * SQLIDとパラメータが一致する実行結果を有効期間内で再利用する。
+	 * {@link #tables(String...)}で宣言したテーブルに対する更新処理がコミットされた場合、キャッシュは無効となる。
+	 * 
+	 * @param ttl 有効期間（ms）
+	 * @return this
+	 */
+	public Sql<P, R> cache(long ttl) {
+		this.cacheTtl = ttl;
+		return this;
+	}
+
 	/**
 	 * SQLを実行する。
 	 * 
@@ -213,6 +688,43 @@ public abstract class Sql<P extends Entity, R> {
 	 */
 	public abstract R execute(P param);
 
+	/**
+	 * SQLを実行し、処理件数を遅延して取得する。
+	 * 更新処理を遅延実行するトランザクション（{@link TransactionAttribute#writeBehind()}）内の更新処理
+	 * （INSERT、UPDATE、DELETE、MERGE）の場合、遅延実行キューへ登録し、バッチ実行後に処理件数が確定する。
+	 * それ以外の場合は即時に実行し、実行結果が確定した状態で返却する。
+	 * 本クラスを直接継承した場合は、常に即時に実行する。
+	 * 
+	 * @param param SQL実行パラメータ
+	 * @return SQL実行結果
+	 * @throws SqlExecuteException         SQL実行時エラー
+	 * @throws PessimisticLockingException ロック取得エラー
+	 */
+	public CompletableFuture<R> executeDeferred(P param) {
+		return CompletableFuture.completedFuture(this.execute(param));
+	}
+
+	/**
+	 * SQLを非同期に実行する。
+	 * トランザクション外の場合は{@link DatabaseExecutor}で実行し、取り消した場合は実行中のSQLを中止する。
+	 * トランザクション内の場合は、トランザクションのコネクションを他のスレッドと共有できないため、呼び出し元のスレッドで実行する。
+	 * 
+	 * @param param SQL実行パラメータ
+	 * @return SQL実行結果（SQL実行時エラーの場合は{@link SqlExecuteException}等で完了）
+	 */
+	public CompletableFuture<R> executeAsync(P param) {
+		if (!Transaction.isActive()) {
+			return DatabaseExecutor.submit(() -> this.execute(param));
+		}
+		CompletableFuture<R> future = new CompletableFuture<>();
+		try {
+			future.complete(this.execute(param));
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
 	/**
 	 * SQLを実行する。
 	 * 
@@ -223,6 +735,61 @@ public abstract class Sql<P extends Entity, R> {
 	 */
 	public abstract R execute();
 
+	/**
+	 * SQLテキストとパラメータ・マップを指定してSQLを実行する。
+	 * IN句の展開等、定義済みのSQLを加工して実行する場合に使用する。
+	 * {@link #define}で定義したSQLのみ対応する。
+	 * 
+	 * @param sql  SQL
+	 * @param args SQL実行パラメータ（マップ）
+	 * @return SQL実行結果
+	 * @throws SqlExecuteException           SQL実行時エラー
+	 * @throws PessimisticLockingException   ロック取得エラー
+	 * @throws UnsupportedOperationException {@link #define}で定義したSQL以外の場合
+	 */
+	R execute(String sql, Map<String, Object> args) {
+		throw new UnsupportedOperationException("定義済みのSQL以外は実行できません。SQLID={" + this.getSqlId() + "}");
+	}
+
+	/**
+	 * 更新処理をバッチ実行する。
+	 * 
+	 * {@link #define}で定義したSQLのみ対応する。
+	 * 
+	 * @param sql   SQL
+	 * @param batch SQL実行パラメータ（マップ）のリスト
+	 * @return 処理件数の配列
+	 * @throws SqlExecuteException           SQL実行時エラー
+	 * @throws PessimisticLockingException   ロック取得エラー
+	 * @throws UnsupportedOperationException {@link #define}で定義したSQL以外の場合
+	 */
+	int[] executeBatch(String sql, List<Map<String, Object>> batch) {
+		throw new UnsupportedOperationException("定義済みのSQL以外はバッチ実行できません。SQLID={" + this.getSqlId() + "}");
+	}
+
+	/**
+	 * SELECT処理の実行結果を逐次取得するカーソルを生成する。
+	 * カーソルは専用のコネクションで実行し、トランザクションには参加しない。
+	 * 
+	 * @param param SQL実行パラメータ
+	 * @return カーソル（未実行）
+	 * @throws IllegalStateException エンティティ単位で取得するSELECT処理以外の場合
+	 * @throws ShardingException     シャード・キーを宣言したSQLで、シャード・キーの値が指定されていない場合
+	 */
+	Cursor cursor(P param) {
+		throw new IllegalStateException("エンティティを取得するSELECT処理ではありません。SQLID={" + this.getSqlId() + "}");
+	}
+
+	/**
+	 * SELECT処理かどうかを取得する。
+	 * {@link #define}で定義したSQL以外はSELECT処理として扱わない。
+	 * 
+	 * @return 判定結果
+	 */
+	boolean isQuery() {
+		return false;
+	}
+
 	/**
 	 * SQLを取得する。
 	 * 
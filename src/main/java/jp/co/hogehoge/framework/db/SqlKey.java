@@ -0,0 +1,91 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+/**
+ * SQL実行キー。
+ * SQLIDとSQL実行パラメータの組み合わせを表し、同一のSQL実行を識別するために使用する。
+ * パラメータの値が配列（BLOB等）の場合は要素の値で比較する。
+ */
+final class SqlKey {
+
+	/** SQLID */
+	private final String sqlId;
+
+	/** SQL実行パラメータ */
+	private final Map<String, Object> args;
+
+	/** ハッシュ値 */
+	private final int hash;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param sqlId SQLID
+	 * @param args  SQL実行パラメータ
+	 */
+	SqlKey(String sqlId, Map<String, Object> args) {
+		this.sqlId = sqlId;
+		this.args = Objects.isNull(args) ? Collections.emptyMap() : new HashMap<>(args);
+		int hash = sqlId.hashCode();
+		for (Entry<String, Object> entry : this.args.entrySet()) {
+			hash += entry.getKey().hashCode() ^ Arrays.deepHashCode(new Object[] { entry.getValue() });
+		}
+		this.hash = hash;
+	}
+
+	/**
+	 * SQLIDを取得する。
+	 *
+	 * @return SQLID
+	 */
+	String getSqlId() {
+		return this.sqlId;
+	}
+
+	/**
+	 * SQL実行パラメータの値を取得する。
+	 *
+	 * @param name パラメータ名
+	 * @return パラメータの値
+	 */
+	Object get(String name) {
+		return this.args.get(name);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SqlKey)) {
+			return false;
+		}
+		SqlKey trg = (SqlKey) obj;
+		if (this.hash != trg.hash || !this.sqlId.equals(trg.sqlId) || !this.args.keySet().equals(trg.args.keySet())) {
+			return false;
+		}
+		for (Entry<String, Object> entry : this.args.entrySet()) {
+			if (!Objects.deepEquals(entry.getValue(), trg.args.get(entry.getKey()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "SQLID={" + this.sqlId + "}, PARAM=" + this.args;
+	}
+
+}
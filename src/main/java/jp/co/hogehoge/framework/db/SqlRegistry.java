@@ -0,0 +1,265 @@
+package jp.co.hogehoge.framework.db;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ibm.db2.jcc.DB2ParameterMetaData;
+
+/**
+ * SQL定義の登録簿。
+ * 定義した全てのSQL（{@link Sql}）を登録し、アプリケーションの起動時にウォームアップを行う。
+ * ウォームアップでは、SQLの取得（プロパティファイルの読み込み）、プリペアおよびパラメータ・マーカーの解析（DESCRIBE）を
+ * 複数のコネクションで並列に実行し、SQLの定義誤り等を起動時に検知する。
+ * SQLは実行しないため、更新処理もデータベースには影響しない。
+ *
+ * <pre>
+ * WarmUpReport report = SqlRegistry.warmUp(CustomerSql.class, OrderSql.class);
+ * if (!report.isSuccess()) {
+ *     throw new IllegalStateException(report.toString());
+ * }
+ * </pre>
+ */
+public final class SqlRegistry {
+
+	/** logger */
+	private static Logger logger = LogManager.getLogger(SqlRegistry.class);
+
+	/** 定義した全てのSQL */
+	private static final Queue<Sql<?, ?>> DEFINITIONS = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * コンストラクタ。
+	 */
+	private SqlRegistry() {
+		// NOP
+	}
+
+	/**
+	 * ウォームアップの結果。
+	 */
+	public static final class WarmUpReport {
+
+		/** 対象のSQL数 */
+		private final int total;
+
+		/** ウォームアップに失敗したSQLIDとエラー情報 */
+		private final Map<String, Throwable> failures;
+
+		/** 所要時間（ms） */
+		private final long elapsed;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param total    対象のSQL数
+		 * @param failures ウォームアップに失敗したSQLIDとエラー情報
+		 * @param elapsed  所要時間（ms）
+		 */
+		private WarmUpReport(int total, Map<String, Throwable> failures, long elapsed) {
+			this.total = total;
+			this.failures = Collections.unmodifiableMap(failures);
+			this.elapsed = elapsed;
+		}
+
+		/**
+		 * 対象のSQL数を取得する。
+		 *
+		 * @return 対象のSQL数
+		 */
+		public int getTotal() {
+			return this.total;
+		}
+
+		/**
+		 * ウォームアップに失敗したSQLIDとエラー情報を取得する。
+		 *
+		 * @return SQLIDとエラー情報のマップ
+		 */
+		public Map<String, Throwable> getFailures() {
+			return this.failures;
+		}
+
+		/**
+		 * 所要時間を取得する。
+		 *
+		 * @return 所要時間（ms）
+		 */
+		public long getElapsed() {
+			return this.elapsed;
+		}
+
+		/**
+		 * 全てのSQLのウォームアップに成功したかどうかを取得する。
+		 *
+		 * @return 判定結果
+		 */
+		public boolean isSuccess() {
+			return this.failures.isEmpty();
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder("SQLウォームアップ結果[対象=").append(this.total)
+					.append(", 失敗=").append(this.failures.size())
+					.append(", 所要時間=").append(this.elapsed).append("ms]");
+			this.failures.forEach((sqlId, e) -> sb.append(System.lineSeparator())
+					.append("  SQLID={").append(sqlId).append("}: ").append(e.getMessage()));
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * SQLを登録する。
+	 *
+	 * @param     <S> SQL定義のデータ型
+	 * @param sql SQL定義
+	 * @return SQL定義
+	 */
+	static <S extends Sql<?, ?>> S register(S sql) {
+		DEFINITIONS.add(sql);
+		return sql;
+	}
+
+	/**
+	 * 登録済みの全てのSQLを取得する。
+	 *
+	 * @return SQL定義リスト（登録順）
+	 */
+	public static List<Sql<?, ?>> getAll() {
+		return Collections.unmodifiableList(new ArrayList<>(DEFINITIONS));
+	}
+
+	/**
+	 * 登録済みの全てのSQLのウォームアップを行う。
+	 * SQLを定数として定義したクラスを指定した場合は、クラスを初期化（SQLを登録）してからウォームアップを行う。
+	 * 並列数は{@link DatabaseConfig#WARM_UP_PARALLELISM}に従う。
+	 *
+	 * @param holders SQLを定数として定義したクラス
+	 * @return ウォームアップの結果
+	 */
+	public static WarmUpReport warmUp(Class<?>... holders) {
+		for (Class<?> holder : holders) {
+			try {
+				Class.forName(holder.getName(), true, holder.getClassLoader());
+			} catch (ClassNotFoundException e) {
+				// 指定されたクラスは読み込み済みのため発生しない
+			}
+		}
+		return warmUp(DatabaseConfig.WARM_UP_PARALLELISM.get());
+	}
+
+	/**
+	 * 並列数を指定して、登録済みの全てのSQLのウォームアップを行う。
+	 * 並列に実行する処理毎にコネクションを1つ取得し、割り当てられたSQLを順にプリペアする。
+	 * 失敗したSQLはエラー情報を結果に格納し、残りのSQLのウォームアップは継続する。
+	 *
+	 * @param parallelism 並列数（コネクション数）
+	 * @return ウォームアップの結果
+	 */
+	public static WarmUpReport warmUp(int parallelism) {
+		long start = System.nanoTime();
+		List<Sql<?, ?>> definitions = getAll();
+		Queue<Sql<?, ?>> pending = new ConcurrentLinkedQueue<>(definitions);
+		Map<String, Throwable> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+
+		int workers = Math.max(1, Math.min(parallelism, definitions.size()));
+		ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+			Thread thread = new Thread(runnable, "sql-warm-up");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < workers; i++) {
+				futures.add(executor.submit(() -> {
+					prepareAll(pending, failures);
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (ExecutionException e) {
+			// コネクションを取得できない場合は、未処理のSQLを全て失敗とする
+			Sql<?, ?> sql;
+			while (Objects.nonNull(sql = pending.poll())) {
+				failures.put(sql.getSqlId(), e.getCause());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+
+		WarmUpReport report = new WarmUpReport(definitions.size(), new LinkedHashMap<>(failures),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		if (report.isSuccess()) {
+			logger.info(report.toString());
+		} else {
+			logger.warn(report.toString());
+		}
+		return report;
+	}
+
+	/**
+	 * 未処理のSQLが無くなるまで、1つのコネクションで順にプリペアする。
+	 *
+	 * @param pending  未処理のSQL
+	 * @param failures ウォームアップに失敗したSQLIDとエラー情報
+	 * @throws SQLException
+	 */
+	private static void prepareAll(Queue<Sql<?, ?>> pending, Map<String, Throwable> failures) throws SQLException {
+		try (DatabaseConnection conn = DatabaseConnection.open()) {
+			Sql<?, ?> sql;
+			while (Objects.nonNull(sql = pending.poll())) {
+				try {
+					prepare(conn, sql);
+				} catch (SQLException | RuntimeException e) {
+					failures.put(sql.getSqlId(), e);
+				}
+			}
+			conn.rollback();
+		}
+	}
+
+	/**
+	 * SQLを取得してプリペアし、パラメータ・マーカーを解析する。
+	 *
+	 * @param conn データベース・コネクション
+	 * @param sql  SQL定義
+	 * @throws SQLException
+	 */
+	private static void prepare(DatabaseConnection conn, Sql<?, ?> sql) throws SQLException {
+		String text = sql.getSql();
+		if (Objects.isNull(text) || text.trim().isEmpty()) {
+			throw new IllegalStateException("SQLが定義されていません。");
+		}
+		try (PreparedStatement ps = conn.prepareStatement(text)) {
+			// プリペアを遅延するドライバーでも、DESCRIBEによりSQLの解析を強制する
+			ParameterMetaData metaData = ps.getParameterMetaData();
+			if (metaData instanceof DB2ParameterMetaData) {
+				((DB2ParameterMetaData) metaData).getParameterMarkerNames();
+			} else {
+				metaData.getParameterCount();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * テーブル・バージョン。
+ * テーブル毎の更新回数を管理し、キャッシュした実行結果が有効かどうかの判定に使用する。
+ * 対象テーブルが宣言されていない更新処理が行われた場合は、全てのテーブルが更新されたものとして扱う。
+ */
+final class TableVersions {
+
+	/** 全テーブル共通のバージョン */
+	private static final AtomicLong GLOBAL = new AtomicLong();
+
+	/** テーブル毎のバージョン */
+	private static final ConcurrentMap<String, AtomicLong> VERSIONS = new ConcurrentHashMap<>();
+
+	/**
+	 * コンストラクタ。
+	 */
+	private TableVersions() {
+		// NOP
+	}
+
+	/**
+	 * テーブル名を正規化する。
+	 *
+	 * @param table テーブル名
+	 * @return 正規化したテーブル名（大文字）
+	 */
+	static String normalize(String table) {
+		return table.trim().toUpperCase(Locale.ROOT);
+	}
+
+	/**
+	 * 現在のバージョンを取得する。
+	 * 先頭の要素は全テーブル共通のバージョン、以降の要素は指定したテーブルの順のバージョンとなる。
+	 *
+	 * @param tables テーブル名リスト（正規化済み）
+	 * @return バージョン
+	 */
+	static long[] snapshot(Collection<String> tables) {
+		long[] versions = new long[tables.size() + 1];
+		versions[0] = GLOBAL.get();
+		int index = 1;
+		for (String table : tables) {
+			versions[index++] = version(table).get();
+		}
+		return versions;
+	}
+
+	/**
+	 * 指定したバージョンから更新されていないかどうかを取得する。
+	 *
+	 * @param tables   テーブル名リスト（正規化済み）
+	 * @param versions {@link #snapshot(Collection)}で取得したバージョン
+	 * @return 判定結果
+	 */
+	static boolean unchanged(Collection<String> tables, long[] versions) {
+		if (GLOBAL.get() != versions[0]) {
+			return false;
+		}
+		int index = 1;
+		for (String table : tables) {
+			if (version(table).get() != versions[index++]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * テーブルを更新済みとする。
+	 * テーブル名リストが空の場合は全てのテーブルを更新済みとする。
+	 *
+	 * @param tables テーブル名リスト（正規化済み）
+	 */
+	static void invalidate(Collection<String> tables) {
+		if (tables.isEmpty()) {
+			GLOBAL.incrementAndGet();
+			return;
+		}
+		for (String table : tables) {
+			version(table).incrementAndGet();
+		}
+	}
+
+	/**
+	 * テーブルのバージョンを取得する。
+	 *
+	 * @param table テーブル名（正規化済み）
+	 * @return バージョン
+	 */
+	private static AtomicLong version(String table) {
+		return VERSIONS.computeIfAbsent(table, t -> new AtomicLong());
+	}
+
+}
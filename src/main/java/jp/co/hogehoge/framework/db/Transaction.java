@@ -1,11 +1,18 @@
 package jp.co.hogehoge.framework.db;
 
 import java.sql.SQLException;
-import java.util.Stack;
+import java.sql.Savepoint;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import jp.co.hogehoge.framework.db.DatabaseMetrics.Metric;
+import jp.co.hogehoge.framework.db.TransactionAttribute.Isolation;
+import jp.co.hogehoge.framework.db.TransactionAttribute.Propagation;
 import jp.co.hogehoge.framework.db.exception.DatabaseConnectionException;
 import jp.co.hogehoge.framework.db.exception.TransactionException;
 
@@ -17,9 +24,6 @@ public class Transaction {
 	/** logger */
 	protected static Logger logger = LogManager.getLogger(Transaction.class);
 
-	/** トランザクション・スタック */
-	private static final ThreadLocal<Stack<Object>> TRANSACTION = ThreadLocal.withInitial(() -> new Stack<>());
-
 	/**
 	 * コンストラクタ
 	 */
@@ -36,61 +40,271 @@ public class Transaction {
 	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
 	 */
 	public static <R> R execute(TransactionSupplier<R> supplier) {
-		Stack<Object> stack = TRANSACTION.get();
-		DatabaseConnection conn = null;
-		R result = null;
-		try {
-			// コネクションを取得
-			logger.debug("データベース・コネクション取得 開始");
-			conn = DatabaseConnection.getConnection();
-			logger.debug("データベース・コネクション取得 終了");
+		return execute(new TransactionAttribute(), supplier);
+	}
 
-			// 生成したトランザクションをトランザクション・スタックへ追加
-			stack.push(supplier);
+	/**
+	 * 属性を指定してトランザクションを実行する。
+	 * 実行中のトランザクションが存在する場合は、伝播属性に従いトランザクションに参加する。
+	 * 
+	 * @param attribute トランザクション属性
+	 * @param supplier  トランザクション処理
+	 * @return SQL実行結果
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public static <R> R execute(TransactionAttribute attribute, TransactionSupplier<R> supplier) {
+		TransactionContext context = TransactionScope.current();
+		if (Objects.isNull(context)) {
+			return attribute.isReplay() ? replay(attribute, supplier) : begin(attribute, supplier);
+		}
+		if (attribute.getPropagation() == Propagation.REQUIRES_NESTED) {
+			return nested(context, supplier);
+		}
+		return join(context, supplier);
+	}
 
+	/**
+	 * 最上位のトランザクションを実行する。
+	 * コネクションはトランザクション内で最初にSQLを実行する時点で取得し、コミットまたはロールバックの直後に解放する。
+	 * 
+	 * @param attribute トランザクション属性
+	 * @param supplier  トランザクション処理
+	 * @return SQL実行結果
+	 */
+	private static <R> R begin(TransactionAttribute attribute, TransactionSupplier<R> supplier) {
+		// トランザクション・コンテキストを生成し、処理の範囲に関連付けて実行
+		TransactionContext context = new TransactionContext(attribute);
+		return TransactionScope.call(context, () -> run(context, supplier));
+	}
+
+	/**
+	 * トランザクション・コンテキストを関連付けた範囲で、最上位のトランザクションを実行する。
+	 * 
+	 * @param context  トランザクション・コンテキスト
+	 * @param supplier トランザクション処理
+	 * @return SQL実行結果
+	 */
+	private static <R> R run(TransactionContext context, TransactionSupplier<R> supplier) {
+		R result = null;
+		try {
 			// トランザクションを実行
 			logger.debug("データベース・トランザクション 開始");
 			result = supplier.execute();
 			logger.debug("データベース・トランザクション 終了");
 
-			// トランザクション・スタックからポップ
-			stack.pop();
-			// トランザクションが先頭（トランザクション・スタックが空）の場合にコミット
-			if (stack.isEmpty()) {
+			// ネストしたトランザクションでエラーが発生していた場合はロールバック
+			if (Objects.nonNull(context.getRollbackCause())) {
+				throw new TransactionException(context.getRollbackCause(), Message.DBE00007);
+			}
+
+			// SQLを実行していない場合、読み取り専用の場合はコミット不要
+			context.beforeCommit();
+			if (context.isCommitRequired()) {
 				logger.debug("データベース・コミット 開始");
-				conn.commit();
+				context.getAcquiredConnection().commit();
 				logger.debug("データベース・コミット 終了");
+			} else if (Objects.nonNull(context.getAcquiredConnection())) {
+				// コミットしない場合も、コネクションの設定を元に戻す前に作業単位を終了する（ロックも解放される）
+				logger.debug("データベース・ロールバック 開始");
+				context.getAcquiredConnection().rollback();
+				logger.debug("データベース・ロールバック 終了");
 			}
-		} catch (DatabaseConnectionException e) {
-			// コネクションの取得に失敗した場合、クローズやロールバック等、コネクションに対する処理が実行不可であるため、
-			// トランザクション・スタックのクリアのみ実行して例外をスローする
-			stack.clear();
-			throw new TransactionException(e, Message.DBE00001);
+			context.committed();
+		} catch (Exception e) {
+			// トランザクション内でエラーが発生した場合はロールバックを行う
+			context.rolledBack(e);
+			DatabaseConnection conn = context.getAcquiredConnection();
+			if (Objects.nonNull(conn)) {
+				try {
+					logger.debug("データベース・ロールバック 開始");
+					conn.rollback();
+					logger.debug("データベース・ロールバック 終了");
+				} catch (Exception se) {
+					se.addSuppressed(e);
+					throw new TransactionException(se, Message.DBE00008);
+				}
+			}
+			// コネクションの取得に失敗した場合
+			if (e instanceof DatabaseConnectionException) {
+				throw new TransactionException(e, Message.DBE00001);
+			}
+			// ネストしたトランザクションのエラーはそのままスロー
+			if (e instanceof TransactionException) {
+				throw (TransactionException) e;
+			}
+			throw new TransactionException(e, Message.DBE00007);
+		} catch (Error e) {
+			// Errorの場合も作業単位を残さずにロールバックし、そのままスロー
+			context.rolledBack(e);
+			DatabaseConnection conn = context.getAcquiredConnection();
+			if (Objects.nonNull(conn)) {
+				try {
+					conn.rollback();
+				} catch (Exception se) {
+					e.addSuppressed(se);
+				}
+			}
+			throw e;
+		} finally {
+			// コネクションを解放
+			context.release();
+		}
+		return result;
+	}
+
+	/**
+	 * 最上位のトランザクションを実行し、再実行対象のエラーが発生した場合はトランザクション全体を再実行する。
+	 * 再実行前の待機時間は{@link RetryPolicy#exponential(int, long, long)}に従い、
+	 * {@link DatabaseConfig#REPLAY_TIMEOUT}を期限（{@link Deadline}）とする。
+	 * 再実行しない場合は最後に発生したエラーをスローする。
+	 * 
+	 * @param attribute トランザクション属性
+	 * @param supplier  トランザクション処理
+	 * @return SQL実行結果
+	 */
+	private static <R> R replay(TransactionAttribute attribute, TransactionSupplier<R> supplier) {
+		RetryPolicy policy = RetryPolicy.exponential(DatabaseConfig.REPLAY_COUNT.get(),
+				DatabaseConfig.REPLAY_WAIT.get(), DatabaseConfig.REPLAY_MAX_WAIT.get());
+		return Deadline.within(DatabaseConfig.REPLAY_TIMEOUT.get(), TimeUnit.MILLISECONDS, () -> {
+			int count = 0;
+			long wait = 0;
+			while (true) {
+				try {
+					R result = begin(attribute, supplier);
+					if (count > 0) {
+						DatabaseMetrics.increment(Metric.REPLAY_RECOVERED);
+					}
+					return result;
+				} catch (TransactionException e) {
+					if (!isReplayable(e)) {
+						throw e;
+					}
+					wait = RetryBudget.backoff(policy, ++count, wait);
+					if (wait < 0) {
+						// 再実行しない場合はエラー
+						DatabaseMetrics.increment(Metric.REPLAY_EXHAUSTED);
+						throw e;
+					}
+					DatabaseMetrics.increment(Metric.REPLAY);
+					logger.info("トランザクション再実行（カウント=" + count + ", 待機時間=" + wait + "ms）");
+					try {
+						Thread.sleep(wait);
+					} catch (InterruptedException ie) {
+						// 割り込まれた場合は再実行を中止し、割り込み状態を復元してエラー
+						Thread.currentThread().interrupt();
+						e.addSuppressed(ie);
+						throw e;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * 再実行対象のエラーかどうかを取得する。
+	 * 原因となったエラーを辿り、{@link DatabaseConfig#RETRY_ERROR_CODE}に該当するエラーコードのSQLExceptionが含まれるかどうかを判定する。
+	 * 
+	 * @param e エラー情報
+	 * @return 判定結果
+	 */
+	private static boolean isReplayable(Throwable e) {
+		for (Throwable cause = e; Objects.nonNull(cause); cause = cause.getCause()) {
+			if (cause instanceof SQLException
+					&& DatabaseConfig.RETRY_ERROR_CODE.get().contains(((SQLException) cause).getErrorCode())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 実行中のトランザクションに参加する。
+	 * エラーが発生した場合は最上位のトランザクションをロールバック対象とする。
+	 * 
+	 * @param context  トランザクション・コンテキスト
+	 * @param supplier トランザクション処理
+	 * @return SQL実行結果
+	 */
+	private static <R> R join(TransactionContext context, TransactionSupplier<R> supplier) {
+		context.enter();
+		try {
+			return supplier.execute();
 		} catch (TransactionException e) {
-			// ネストしたトランザクションにてエラーが発生した場合はそのままスロー
+			context.setRollbackOnly(e);
 			throw e;
 		} catch (Exception e) {
-			// トランザクション内でエラーが発生した場合トランザクション・スタックをクリアしてロールバックを行う
-			stack.clear();
+			context.setRollbackOnly(e);
+			throw new TransactionException(e, Message.DBE00007);
+		} finally {
+			context.exit();
+		}
+	}
+
+	/**
+	 * 実行中のトランザクション内で、セーブポイントを設定してネストしたトランザクションを実行する。
+	 * エラーが発生した場合はセーブポイントまでロールバックし、実行中のトランザクションは継続可能とする。
+	 * コネクションを取得していない場合はセーブポイントを設定せず、ネストしたトランザクション内で最初に実行したSQLに応じて
+	 * コネクション（シャード）を取得する。エラーが発生した場合は、取得したコネクションの作業単位全体をロールバックする。
+	 * 
+	 * @param context  トランザクション・コンテキスト
+	 * @param supplier トランザクション処理
+	 * @return SQL実行結果
+	 */
+	private static <R> R nested(TransactionContext context, TransactionSupplier<R> supplier) {
+		Throwable outerCause = context.getRollbackCause();
+		DatabaseConnection conn;
+		Savepoint savepoint = null;
+		try {
+			// 遅延実行中の更新処理はセーブポイントの前に実行
+			context.beforeCommit();
+			// 取得前のコネクションはロールバック対象の作業が無いため、セーブポイントを設定しない
+			conn = context.getAcquiredConnection();
+			if (Objects.nonNull(conn)) {
+				savepoint = conn.setSavepoint();
+			}
+		} catch (Exception e) {
+			context.setRollbackOnly(e);
+			throw new TransactionException(e, Message.DBE00001);
+		}
+
+		int depth = context.enter();
+		try {
+			logger.debug("データベース・セーブポイント 開始[ネスト=" + depth + "]");
+			R result = supplier.execute();
+			if (context.getRollbackCause() != outerCause) {
+				throw new TransactionException(context.getRollbackCause(), Message.DBE00007);
+			}
+			context.beforeCommit();
+			if (Objects.nonNull(savepoint)) {
+				conn.releaseSavepoint(savepoint);
+			}
+			logger.debug("データベース・セーブポイント 終了[ネスト=" + depth + "]");
+			return result;
+		} catch (Exception e) {
 			try {
-				logger.debug("データベース・ロールバック 開始");
-				conn.rollback();
-				logger.debug("データベース・ロールバック 終了");
-				throw new TransactionException(e, Message.DBE00007);
+				logger.debug("データベース・セーブポイント・ロールバック 開始[ネスト=" + depth + "]");
+				if (Objects.nonNull(savepoint)) {
+					conn.rollback(savepoint);
+				} else if (Objects.nonNull(context.getAcquiredConnection())) {
+					// ネストしたトランザクション内で取得したコネクションは、作業単位全体がネストしたトランザクションの作業
+					context.getAcquiredConnection().rollback();
+				}
+				logger.debug("データベース・セーブポイント・ロールバック 終了[ネスト=" + depth + "]");
 			} catch (Exception se) {
+				// セーブポイントまでロールバックできない場合は最上位のトランザクションをロールバック対象とする
 				se.addSuppressed(e);
+				context.setRollbackOnly(se);
 				throw new TransactionException(se, Message.DBE00008);
 			}
-		} finally {
-			try {
-				logger.debug("データベース・クローズ 開始");
-				conn.close();
-				logger.debug("データベース・クローズ 終了");
-			} catch (Exception e) {
-				// NOP
+			context.rolledBackToSavepoint(outerCause, e);
+			if (e instanceof TransactionException) {
+				throw (TransactionException) e;
 			}
+			throw new TransactionException(e, Message.DBE00007);
+		} finally {
+			context.exit();
 		}
-		return result;
 	}
 
 	/**
@@ -101,61 +315,261 @@ public class Transaction {
 	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
 	 */
 	public static void execute(TransactionConsumer consumer) {
-		Stack<Object> stack = TRANSACTION.get();
-		DatabaseConnection conn = null;
-		try {
-			// コネクションを取得
-			logger.debug("データベース・コネクション取得 開始");
-			conn = DatabaseConnection.getConnection();
-			logger.debug("データベース・コネクション取得 終了");
+		execute(new TransactionAttribute(), consumer);
+	}
 
-			// 生成したトランザクションをトランザクション・スタックへ追加
-			stack.push(consumer);
+	/**
+	 * 属性を指定してトランザクションを実行する。
+	 * 
+	 * @param attribute トランザクション属性
+	 * @param consumer  トランザクション処理
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public static void execute(TransactionAttribute attribute, TransactionConsumer consumer) {
+		execute(attribute, () -> {
+			consumer.execute();
+			return null;
+		});
+	}
 
-			// トランザクションを実行
-			logger.debug("データベース・トランザクション 開始");
+	/**
+	 * トランザクションを非同期に実行する。
+	 * トランザクションは{@link DatabaseExecutor}のスレッドで最上位のトランザクションとして実行し、
+	 * 呼び出し元のトランザクションには参加しない。取り消した場合は実行中のSQLを中止し、トランザクションはロールバックされる。
+	 * 
+	 * @param supplier トランザクション処理
+	 * @return SQL実行結果（エラーの場合は{@link TransactionException}等で完了）
+	 */
+	public static <R> CompletableFuture<R> executeAsync(TransactionSupplier<R> supplier) {
+		return executeAsync(new TransactionAttribute(), supplier);
+	}
+
+	/**
+	 * 属性を指定してトランザクションを非同期に実行する。
+	 * 詳細は{@link #executeAsync(TransactionSupplier)}を参照。
+	 * 
+	 * @param attribute トランザクション属性
+	 * @param supplier  トランザクション処理
+	 * @return SQL実行結果（エラーの場合は{@link TransactionException}等で完了）
+	 */
+	public static <R> CompletableFuture<R> executeAsync(TransactionAttribute attribute,
+			TransactionSupplier<R> supplier) {
+		return DatabaseExecutor.submit(() -> execute(attribute, supplier));
+	}
+
+	/**
+	 * トランザクションを非同期に実行する。
+	 * 詳細は{@link #executeAsync(TransactionSupplier)}を参照。
+	 * 
+	 * @param consumer トランザクション処理
+	 * @return 完了通知（エラーの場合は{@link TransactionException}等で完了）
+	 */
+	public static CompletableFuture<Void> executeAsync(TransactionConsumer consumer) {
+		return executeAsync(new TransactionAttribute(), () -> {
 			consumer.execute();
-			logger.debug("データベース・トランザクション 終了");
+			return null;
+		});
+	}
 
-			// トランザクション・スタックからポップ
-			stack.pop();
-			// トランザクションが先頭（トランザクション・スタックが空）の場合にコミット
-			if (stack.isEmpty()) {
-				logger.debug("データベース・コミット 開始");
-				conn.commit();
-				logger.debug("データベース・コミット 終了");
-			}
-		} catch (DatabaseConnectionException e) {
-			// コネクションの取得に失敗した場合、クローズやロールバック等、コネクションに対する処理が実行不可であるため、
-			// トランザクション・スタックのクリアのみ実行して例外をスローする
-			stack.clear();
-			throw new TransactionException(e, Message.DBE00001);
-		} catch (TransactionException e) {
-			// ネストしたトランザクションにてエラーが発生した場合はそのままスロー
-			throw e;
-		} catch (Exception e) {
-			// トランザクション内でエラーが発生した場合トランザクション・スタックをクリアしてロールバックを行う
-			stack.clear();
-			try {
-				logger.debug("データベース・ロールバック 開始");
-				conn.rollback();
-				logger.debug("データベース・ロールバック 終了");
-				throw new TransactionException(e, Message.DBE00007);
-			} catch (Exception se) {
-				se.addSuppressed(e);
-				throw new TransactionException(se, Message.DBE00008);
-			}
-		} finally {
-			try {
-				logger.debug("データベース・クローズ 開始");
-				conn.close();
-				logger.debug("データベース・クローズ 終了");
-			} catch (Exception e) {
-				// NOP
-			}
+	/**
+	 * 並列実行するSELECT処理のグループを生成する。
+	 * 互いに依存しない複数のSELECT処理を、それぞれ別のコネクションで並列に実行する。
+	 * SELECT処理はトランザクション外で実行するため、実行中のトランザクションで未コミットの更新結果は参照されない。
+	 * 詳細は{@link QueryGroup}を参照。
+	 * 
+	 * @return SELECT処理のグループ
+	 */
+	public static QueryGroup parallel() {
+		return new QueryGroup();
+	}
+
+	/**
+	 * 更新処理を遅延実行するトランザクションを実行する。
+	 * 詳細は{@link TransactionAttribute#writeBehind()}を参照。
+	 * 
+	 * @param supplier トランザクション処理
+	 * @return SQL実行結果
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public static <R> R writeBehind(TransactionSupplier<R> supplier) {
+		return execute(new TransactionAttribute().writeBehind(), supplier);
+	}
+
+	/**
+	 * 更新処理を遅延実行するトランザクションを実行する。
+	 * 詳細は{@link TransactionAttribute#writeBehind()}を参照。
+	 * 
+	 * @param consumer トランザクション処理
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public static void writeBehind(TransactionConsumer consumer) {
+		execute(new TransactionAttribute().writeBehind(), consumer);
+	}
+
+	/**
+	 * 読み取り専用のトランザクションを実行する。
+	 * 詳細は{@link TransactionAttribute#readOnly()}を参照。
+	 * 
+	 * @param supplier トランザクション処理
+	 * @return SQL実行結果
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public static <R> R readOnly(TransactionSupplier<R> supplier) {
+		return execute(new TransactionAttribute().readOnly(), supplier);
+	}
+
+	/**
+	 * 読み取り専用のトランザクションを実行する。
+	 * 詳細は{@link TransactionAttribute#readOnly()}を参照。
+	 * 
+	 * @param consumer トランザクション処理
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public static void readOnly(TransactionConsumer consumer) {
+		execute(new TransactionAttribute().readOnly(), consumer);
+	}
+
+	/**
+	 * 分離レベルを指定してトランザクションを実行する。
+	 * 詳細は{@link TransactionAttribute#isolation(Isolation)}を参照。
+	 * 
+	 * @param isolation 分離レベル
+	 * @param supplier  トランザクション処理
+	 * @return SQL実行結果
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public static <R> R withIsolation(Isolation isolation, TransactionSupplier<R> supplier) {
+		return execute(new TransactionAttribute().isolation(isolation), supplier);
+	}
+
+	/**
+	 * 分離レベルを指定してトランザクションを実行する。
+	 * 詳細は{@link TransactionAttribute#isolation(Isolation)}を参照。
+	 * 
+	 * @param isolation 分離レベル
+	 * @param consumer  トランザクション処理
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public static void withIsolation(Isolation isolation, TransactionConsumer consumer) {
+		execute(new TransactionAttribute().isolation(isolation), consumer);
+	}
+
+	/**
+	 * セーブポイントを設定したネストしたトランザクションを実行する。
+	 * 詳細は{@link TransactionAttribute#nested()}を参照。
+	 * 
+	 * @param supplier トランザクション処理
+	 * @return SQL実行結果
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public static <R> R nested(TransactionSupplier<R> supplier) {
+		return execute(new TransactionAttribute().nested(), supplier);
+	}
+
+	/**
+	 * セーブポイントを設定したネストしたトランザクションを実行する。
+	 * 詳細は{@link TransactionAttribute#nested()}を参照。
+	 * 
+	 * @param consumer トランザクション処理
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public static void nested(TransactionConsumer consumer) {
+		execute(new TransactionAttribute().nested(), consumer);
+	}
+
+	/**
+	 * 再実行可能なトランザクションを実行する。
+	 * 詳細は{@link TransactionAttribute#replay()}を参照。
+	 * 
+	 * @param supplier トランザクション処理
+	 * @return SQL実行結果
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public static <R> R replay(TransactionSupplier<R> supplier) {
+		return execute(new TransactionAttribute().replay(), supplier);
+	}
+
+	/**
+	 * 再実行可能なトランザクションを実行する。
+	 * 詳細は{@link TransactionAttribute#replay()}を参照。
+	 * 
+	 * @param consumer トランザクション処理
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public static void replay(TransactionConsumer consumer) {
+		execute(new TransactionAttribute().replay(), consumer);
+	}
+
+	/**
+	 * 現在のスコープでトランザクションが実行中かどうかを取得する。
+	 * 
+	 * @return 判定結果
+	 */
+	static boolean isActive() {
+		return Objects.nonNull(TransactionScope.current());
+	}
+
+	/**
+	 * 現在のスコープで実行中のトランザクション・コンテキストを取得する。
+	 * 
+	 * @return トランザクション・コンテキスト（トランザクション外の場合はnull）
+	 */
+	static TransactionContext current() {
+		return TransactionScope.current();
+	}
+
+	/**
+	 * 更新処理を行ったテーブルを通知する。
+	 * トランザクション内の場合はコミット時に、トランザクション外の場合は即時にテーブルを更新済みとする。
+	 * 
+	 * @param tables テーブル名リスト（正規化済み）
+	 */
+	static void modified(Collection<String> tables) {
+		TransactionContext context = TransactionScope.current();
+		if (Objects.nonNull(context)) {
+			context.modified(tables);
+		} else {
+			TableVersions.invalidate(tables);
 		}
 	}
 
+	/**
+	 * コミット後処理を登録する。
+	 * トランザクション内の場合はコミット後に、トランザクション外の場合は即時に実行する。
+	 * 
+	 * @param runnable コミット後処理
+	 */
+	static void afterCommit(Runnable runnable) {
+		TransactionContext context = TransactionScope.current();
+		if (Objects.nonNull(context)) {
+			context.afterCommit(runnable);
+		} else {
+			runnable.run();
+		}
+	}
+
+	/**
+	 * 実行中のトランザクション内で指定したテーブルに対して更新処理を行ったかどうかを取得する。
+	 * 
+	 * @param tables テーブル名リスト（正規化済み）
+	 * @return 判定結果（トランザクション外の場合はfalse）
+	 */
+	static boolean isModified(Collection<String> tables) {
+		TransactionContext context = TransactionScope.current();
+		return Objects.nonNull(context) && context.isModified(tables);
+	}
+
 	/**
 	 * トランザクション実行インタフェース。
 	 *
@@ -0,0 +1,288 @@
+package jp.co.hogehoge.framework.db;
+
+import java.sql.Connection;
+
+import jp.co.hogehoge.framework.db.Transaction.TransactionConsumer;
+import jp.co.hogehoge.framework.db.Transaction.TransactionSupplier;
+import jp.co.hogehoge.framework.db.exception.DatabaseConnectionException;
+import jp.co.hogehoge.framework.db.exception.TransactionException;
+
+/**
+ * トランザクション属性。
+ * トランザクションの実行方法を指定する。
+ * ネストしたトランザクションでは、伝播属性を除き最上位のトランザクションの属性に従う。
+ */
+public final class TransactionAttribute {
+
+	/** 伝播属性 */
+	private Propagation propagation = Propagation.REQUIRED;
+
+	/** 更新処理を遅延実行するかどうか */
+	private boolean writeBehind = false;
+
+	/** 再実行対象のエラーが発生した場合にトランザクション全体を再実行するかどうか */
+	private boolean replay = false;
+
+	/** 読み取り専用かどうか */
+	private boolean readOnly = false;
+
+	/** 分離レベル（指定しない場合はnull） */
+	private Isolation isolation = null;
+
+	/** ワークロード（指定しない場合はnull） */
+	private String workload = null;
+
+	/** シャード名（指定しない場合はnull） */
+	private String shard = null;
+
+	/**
+	 * 伝播属性。
+	 * 実行中のトランザクションが存在する場合の動作を指定する。
+	 */
+	public static enum Propagation {
+
+		/**
+		 * 実行中のトランザクションに参加する。
+		 * エラーが発生した場合は最上位のトランザクション全体をロールバックする。
+		 */
+		REQUIRED,
+
+		/**
+		 * 実行中のトランザクション内でセーブポイントを設定する。
+		 * エラーが発生した場合はセーブポイントまでロールバックし、実行中のトランザクションは継続可能とする。
+		 */
+		REQUIRES_NESTED;
+	}
+
+	/**
+	 * 分離レベル。
+	 * DB2の分離レベルの名称で指定し、対応するJDBCの分離レベルをコネクションに設定する。
+	 */
+	public static enum Isolation {
+
+		/** 非コミット読み取り（Uncommitted Read） */
+		UR(Connection.TRANSACTION_READ_UNCOMMITTED),
+
+		/** カーソル固定（Cursor Stability） */
+		CS(Connection.TRANSACTION_READ_COMMITTED),
+
+		/** 読み取り固定（Read Stability） */
+		RS(Connection.TRANSACTION_REPEATABLE_READ),
+
+		/** 反復可能読み取り（Repeatable Read） */
+		RR(Connection.TRANSACTION_SERIALIZABLE);
+
+		/** JDBCの分離レベル */
+		private final int level;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param level JDBCの分離レベル
+		 */
+		private Isolation(int level) {
+			this.level = level;
+		}
+
+		/**
+		 * JDBCの分離レベルを取得する。
+		 *
+		 * @return JDBCの分離レベル（{@link Connection#TRANSACTION_READ_UNCOMMITTED}等）
+		 */
+		int getLevel() {
+			return this.level;
+		}
+	}
+
+	/**
+	 * 伝播属性を指定する。
+	 * 実行中のトランザクションが存在しない場合は、伝播属性に関わらず新たなトランザクションを開始する。
+	 *
+	 * @param propagation 伝播属性
+	 * @return this
+	 */
+	public TransactionAttribute propagation(Propagation propagation) {
+		this.propagation = propagation;
+		return this;
+	}
+
+	/**
+	 * 実行中のトランザクション内でセーブポイントを設定する。
+	 * 詳細は{@link Propagation#REQUIRES_NESTED}を参照。
+	 * エラーは{@link TransactionException}としてスローされるため、呼び出し元で捕捉した場合は実行中のトランザクションを継続できる。
+	 *
+	 * @return this
+	 */
+	public TransactionAttribute nested() {
+		return this.propagation(Propagation.REQUIRES_NESTED);
+	}
+
+	/**
+	 * 伝播属性を取得する。
+	 *
+	 * @return 伝播属性
+	 */
+	Propagation getPropagation() {
+		return this.propagation;
+	}
+
+	/**
+	 * 更新処理を遅延実行する。
+	 * トランザクション内の更新処理（INSERT、UPDATE、DELETE、MERGE）は即時に実行せずに蓄積し、
+	 * コミット時、または蓄積した更新処理の対象テーブルを参照するSELECT処理の実行前に、
+	 * 同一のSQLIDが連続する単位でまとめてバッチ実行する。
+	 * それ以外のSQL（DDL、CALL等）は、蓄積した更新処理を全て実行した後に即時に実行する。
+	 * 遅延実行した更新処理の{@link Sql#execute(Entity)}は{@link java.sql.Statement#SUCCESS_NO_INFO}を返却するため、
+	 * 処理件数が必要な場合は{@link Sql#executeDeferred(Entity)}を使用すること。
+	 *
+	 * @return this
+	 */
+	public TransactionAttribute writeBehind() {
+		this.writeBehind = true;
+		return this;
+	}
+
+	/**
+	 * 更新処理を遅延実行するかどうかを取得する。
+	 *
+	 * @return 判定結果
+	 */
+	boolean isWriteBehind() {
+		return this.writeBehind;
+	}
+
+	/**
+	 * 再実行対象のエラー（{@link DatabaseConfig#RETRY_ERROR_CODE}）が発生した場合、ロールバックしてトランザクション全体を再実行する。
+	 * 再実行の回数、待機時間、期限は{@link DatabaseConfig#REPLAY_COUNT}等に従い、再実行の状況は{@link DatabaseMetrics}で集計する。
+	 * トランザクション処理は複数回実行される可能性があるため、トランザクション外への副作用を持たないこと。
+	 * 最上位のトランザクションでのみ有効とし、トランザクション内のSQL単位のリトライは行わない。
+	 *
+	 * @return this
+	 */
+	public TransactionAttribute replay() {
+		this.replay = true;
+		return this;
+	}
+
+	/**
+	 * トランザクション全体を再実行するかどうかを取得する。
+	 *
+	 * @return 判定結果
+	 */
+	boolean isReplay() {
+		return this.replay;
+	}
+
+	/**
+	 * 読み取り専用のトランザクションとする。
+	 * コネクションを読み取り専用（{@link Connection#setReadOnly(boolean)}）に設定し、トランザクション終了時に元の設定に戻す。
+	 * トランザクション終了時はコミットを行わず、ロールバックして作業単位を終了する（元の設定に戻す前にロックも解放される）。
+	 * 更新処理（SELECT処理以外）のSQLは実行できず、実行した場合は{@link TransactionException}をスローする。
+	 * 読み取り用レプリカ（{@link DatabaseConfig#REPLICA_DATA_SOURCE_NAME}）を使用する場合はレプリカで実行し、
+	 * レプリカを使用できない場合はプライマリで実行する。
+	 *
+	 * @return this
+	 */
+	public TransactionAttribute readOnly() {
+		this.readOnly = true;
+		return this;
+	}
+
+	/**
+	 * 読み取り専用かどうかを取得する。
+	 *
+	 * @return 判定結果
+	 */
+	boolean isReadOnly() {
+		return this.readOnly;
+	}
+
+	/**
+	 * 分離レベルを指定する。
+	 * コネクションに分離レベル（{@link Connection#setTransactionIsolation(int)}）を設定し、トランザクション終了時に元の設定に戻す。
+	 * 指定しない場合はコネクション（データ・ソース）の設定に従う。
+	 *
+	 * @param isolation 分離レベル
+	 * @return this
+	 */
+	public TransactionAttribute isolation(Isolation isolation) {
+		this.isolation = isolation;
+		return this;
+	}
+
+	/**
+	 * 分離レベルを取得する。
+	 *
+	 * @return 分離レベル（指定しない場合はnull）
+	 */
+	Isolation getIsolation() {
+		return this.isolation;
+	}
+
+	/**
+	 * ワークロード（オンライン、バッチ、帳票等）を指定する。
+	 * トランザクションのコネクションは、ワークロード毎に{@link DatabaseConfig#BULKHEAD}で定義した同時に使用できる数の範囲で取得する。
+	 *
+	 * @param workload ワークロード
+	 * @return this
+	 */
+	public TransactionAttribute workload(String workload) {
+		this.workload = workload;
+		return this;
+	}
+
+	/**
+	 * ワークロードを取得する。
+	 *
+	 * @return ワークロード（指定しない場合はnull）
+	 */
+	String getWorkload() {
+		return this.workload;
+	}
+
+	/**
+	 * トランザクションを実行するシャードを指定する。
+	 * 指定しない場合は、トランザクション内で最初にシャード・キー（{@link Sql#shardKey(String)}）を指定して実行したSQLのシャードに固定する。
+	 * トランザクションは単一のシャードで実行し、異なるシャードのSQLを実行した場合はエラーとする。
+	 *
+	 * @param shard シャード名（{@link DatabaseConfig#SHARDS}で定義したシャード名）
+	 * @return this
+	 */
+	public TransactionAttribute shard(String shard) {
+		this.shard = shard;
+		return this;
+	}
+
+	/**
+	 * シャード名を取得する。
+	 *
+	 * @return シャード名（指定しない場合はnull）
+	 */
+	String getShard() {
+		return this.shard;
+	}
+
+	/**
+	 * この属性でトランザクションを実行する。
+	 *
+	 * @param supplier トランザクション処理
+	 * @return SQL実行結果
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public <R> R execute(TransactionSupplier<R> supplier) {
+		return Transaction.execute(this, supplier);
+	}
+
+	/**
+	 * この属性でトランザクションを実行する。
+	 *
+	 * @param consumer トランザクション処理
+	 * @throws DatabaseConnectionException コネクションの取得に失敗した場合
+	 * @throws TransactionException        コネクション取得後、トランザクション内で何らかのエラーが発生した場合
+	 */
+	public void execute(TransactionConsumer consumer) {
+		Transaction.execute(this, consumer);
+	}
+
+}
@@ -0,0 +1,477 @@
+package jp.co.hogehoge.framework.db;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jp.co.hogehoge.framework.db.TransactionAttribute.Isolation;
+import jp.co.hogehoge.framework.db.exception.DatabaseConnectionException;
+import jp.co.hogehoge.framework.db.exception.ShardingException;
+
+/**
+ * トランザクション・コンテキスト。
+ * 最上位のトランザクション毎に生成し、トランザクション内で共有する状態を管理する。
+ * トランザクションを実行するスレッドからのみ参照されるため、排他制御は行わない。
+ */
+final class TransactionContext {
+
+	/** logger */
+	private static Logger logger = LogManager.getLogger(TransactionContext.class);
+
+	/** 更新テーブル名リスト */
+	private final Set<String> modifiedTables = new LinkedHashSet<>();
+
+	/** 対象テーブルが宣言されていない更新処理を行ったかどうか */
+	private boolean modifiedAll = false;
+
+	/** コミット後処理リスト */
+	private final List<Runnable> afterCommit = new ArrayList<>();
+
+	/** 完了後処理リスト（コミット、ロールバックのいずれの場合も実行） */
+	private final List<Runnable> afterCompletion = new ArrayList<>();
+
+	/** 遅延実行キュー（更新処理を遅延実行しない場合はnull） */
+	private final WriteBehindQueue writeBehind;
+
+	/** トランザクション全体を再実行するかどうか */
+	private final boolean replay;
+
+	/** 読み取り専用かどうか */
+	private final boolean readOnly;
+
+	/** 分離レベル（指定しない場合はnull） */
+	private final Isolation isolation;
+
+	/** ワークロードのバルクヘッド（同時実行数を制限しない場合はnull） */
+	private final Bulkhead bulkhead;
+
+	/** トランザクションを固定したシャード名（シャードを使用しない場合はnull） */
+	private String shard;
+
+	/** 変更前の読み取り専用の設定（変更していない場合はnull） */
+	private Boolean originalReadOnly = null;
+
+	/** 変更前の分離レベル（変更していない場合はnull） */
+	private Integer originalIsolation = null;
+
+	/** コネクション（SQLを実行するまではnull） */
+	private DatabaseConnection connection = null;
+
+	/** ネストしたトランザクションの深さ */
+	private int depth = 0;
+
+	/** ロールバックの原因となったエラー情報（ロールバック対象となっていない場合はnull） */
+	private Throwable rollbackCause = null;
+
+	/** データベースにより作業単位がロールバックされたかどうか */
+	private boolean aborted = false;
+
+	/** アイデンティティ・マップ（トランザクション内のSELECT処理の実行結果） */
+	private final Map<SqlKey, IdentityEntry> identityMap = new HashMap<>();
+
+	/**
+	 * アイデンティティ・マップのエントリー。
+	 */
+	private static class IdentityEntry {
+
+		/** SQL実行結果 */
+		private final Object value;
+
+		/** 参照テーブル名リスト */
+		private final Collection<String> tables;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param value  SQL実行結果
+		 * @param tables 参照テーブル名リスト
+		 */
+		private IdentityEntry(Object value, Collection<String> tables) {
+			this.value = value;
+			this.tables = tables;
+		}
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param attribute トランザクション属性
+	 */
+	TransactionContext(TransactionAttribute attribute) {
+		this.writeBehind = attribute.isWriteBehind() ? new WriteBehindQueue() : null;
+		this.replay = attribute.isReplay();
+		this.readOnly = attribute.isReadOnly();
+		this.isolation = attribute.getIsolation();
+		this.bulkhead = Bulkhead.of(attribute.getWorkload());
+		this.shard = attribute.getShard();
+	}
+
+	/**
+	 * トランザクション全体を再実行するかどうかを取得する。
+	 *
+	 * @return 判定結果
+	 */
+	boolean isReplay() {
+		return this.replay;
+	}
+
+	/**
+	 * 読み取り専用かどうかを取得する。
+	 *
+	 * @return 判定結果
+	 */
+	boolean isReadOnly() {
+		return this.readOnly;
+	}
+
+	/**
+	 * 分離レベルを取得する。
+	 *
+	 * @return 分離レベル（指定しない場合はnull）
+	 */
+	Isolation getIsolation() {
+		return this.isolation;
+	}
+
+	/**
+	 * コミットが必要かどうかを取得する。
+	 * SQLを実行していない（コネクションを取得していない）場合、および読み取り専用の場合はコミット不要とする。
+	 * 読み取り専用のトランザクションでは更新処理を実行できないため、コミットする作業は存在しない。
+	 *
+	 * @return 判定結果
+	 */
+	boolean isCommitRequired() {
+		return Objects.nonNull(this.connection) && !this.readOnly;
+	}
+
+	/**
+	 * 遅延実行キューを取得する。
+	 *
+	 * @return 遅延実行キュー（更新処理を遅延実行しない場合はnull）
+	 */
+	WriteBehindQueue getWriteBehindQueue() {
+		return this.writeBehind;
+	}
+
+	/**
+	 * トランザクションのコネクションを取得する。
+	 * 最初に呼び出された時点で新規のコネクションを取得し、読み取り専用、分離レベルを設定する。
+	 * ワークロードが指定されている場合は、コネクションの取得前に使用許可を取得し、コネクションの解放時に返却する。
+	 * シャードに固定している場合はシャードのコネクションを、読み取り専用の場合は読み取り用レプリカのコネクション
+	 * （レプリカを使用できない場合はプライマリ）を取得する。
+	 *
+	 * @return データベース・コネクション
+	 * @throws DatabaseConnectionException コネクションの取得、または設定に失敗した場合
+	 */
+	DatabaseConnection getConnection() {
+		if (Objects.isNull(this.connection)) {
+			logger.debug("データベース・コネクション取得 開始");
+			this.connection = DatabaseConnection.open(this.bulkhead, this.readOnly, this.shard);
+			try {
+				this.configure();
+			} catch (SQLException e) {
+				this.release();
+				throw new DatabaseConnectionException(e, Message.DBE00003);
+			}
+			logger.debug("データベース・コネクション取得 終了");
+		}
+		return this.connection;
+	}
+
+	/**
+	 * シャードを指定して、トランザクションのコネクションを取得する。
+	 * コネクションを取得する前であれば、トランザクションを指定したシャードに固定する。
+	 *
+	 * @param shard シャード名（シャードを使用しない場合はnull）
+	 * @return データベース・コネクション
+	 * @throws DatabaseConnectionException コネクションの取得、または設定に失敗した場合
+	 * @throws ShardingException           トランザクションを固定したシャードと異なるシャードを指定した場合
+	 */
+	DatabaseConnection getConnection(String shard) {
+		if (Objects.nonNull(shard) && !shard.equals(this.shard)) {
+			if (Objects.nonNull(this.shard) || Objects.nonNull(this.connection)) {
+				throw new ShardingException(new IllegalStateException("[シャード=" + shard + "]"), Message.DBE00014,
+						shard, this.shard);
+			}
+			this.shard = shard;
+		}
+		return this.getConnection();
+	}
+
+	/**
+	 * コネクションに読み取り専用、分離レベルを設定し、変更前の設定を保持する。
+	 *
+	 * @throws SQLException
+	 */
+	private void configure() throws SQLException {
+		if (this.readOnly && !this.connection.isReadOnly()) {
+			this.originalReadOnly = Boolean.FALSE;
+			this.connection.setReadOnly(true);
+		}
+		if (Objects.nonNull(this.isolation)) {
+			int level = this.connection.getTransactionIsolation();
+			if (level != this.isolation.getLevel()) {
+				this.originalIsolation = level;
+				this.connection.setTransactionIsolation(this.isolation.getLevel());
+			}
+		}
+	}
+
+	/**
+	 * コネクションの読み取り専用、分離レベルを変更前の設定に戻す。
+	 * 失敗した場合もコネクションの解放は継続する。
+	 */
+	private void restore() {
+		try {
+			if (Objects.nonNull(this.originalIsolation)) {
+				this.connection.setTransactionIsolation(this.originalIsolation);
+			}
+			if (Objects.nonNull(this.originalReadOnly)) {
+				this.connection.setReadOnly(this.originalReadOnly);
+			}
+		} catch (Exception e) {
+			logger.warn("コネクションの設定を元に戻せませんでした。", e);
+		} finally {
+			this.originalIsolation = null;
+			this.originalReadOnly = null;
+		}
+	}
+
+	/**
+	 * 取得済みのコネクションを取得する。
+	 *
+	 * @return データベース・コネクション（取得していない場合はnull）
+	 */
+	DatabaseConnection getAcquiredConnection() {
+		return this.connection;
+	}
+
+	/**
+	 * 取得済みのコネクションの設定を元に戻して解放する。
+	 */
+	void release() {
+		if (Objects.nonNull(this.connection)) {
+			this.restore();
+			try {
+				logger.debug("データベース・クローズ 開始");
+				this.connection.close();
+				logger.debug("データベース・クローズ 終了");
+			} catch (Exception e) {
+				// NOP
+			} finally {
+				this.connection = null;
+			}
+		}
+	}
+
+	/**
+	 * ネストしたトランザクションを開始する。
+	 *
+	 * @return ネストしたトランザクションの深さ
+	 */
+	int enter() {
+		return ++this.depth;
+	}
+
+	/**
+	 * ネストしたトランザクションを終了する。
+	 */
+	void exit() {
+		this.depth--;
+	}
+
+	/**
+	 * トランザクションをロールバック対象とする。
+	 * 既にロールバック対象の場合は、最初のエラー情報を保持する。
+	 *
+	 * @param e ロールバックの原因となったエラー情報
+	 */
+	void setRollbackOnly(Throwable e) {
+		if (Objects.isNull(this.rollbackCause)) {
+			this.rollbackCause = e;
+		}
+	}
+
+	/**
+	 * データベースにより作業単位がロールバックされたことを通知する。
+	 * セーブポイントまでロールバックした場合も、トランザクションはロールバック対象のままとする。
+	 *
+	 * @param e ロールバックの原因となったエラー情報
+	 */
+	void aborted(Throwable e) {
+		this.setRollbackOnly(e);
+		this.aborted = true;
+	}
+
+	/**
+	 * ロールバックの原因となったエラー情報を取得する。
+	 *
+	 * @return エラー情報（ロールバック対象となっていない場合はnull）
+	 */
+	Throwable getRollbackCause() {
+		return this.rollbackCause;
+	}
+
+	/**
+	 * 更新処理を行ったテーブルを登録する。
+	 * テーブル名リストが空の場合は全てのテーブルを更新したものとする。
+	 *
+	 * @param tables テーブル名リスト（正規化済み）
+	 */
+	void modified(Collection<String> tables) {
+		if (tables.isEmpty()) {
+			this.modifiedAll = true;
+			this.identityMap.clear();
+		} else {
+			this.modifiedTables.addAll(tables);
+			this.identityMap.values().removeIf(entry -> entry.tables.isEmpty()
+					|| !Collections.disjoint(entry.tables, tables));
+		}
+	}
+
+	/**
+	 * トランザクション内で指定したテーブルに対して更新処理を行ったかどうかを取得する。
+	 * テーブル名リストが空の場合は、いずれかのテーブルに対して更新処理を行ったかどうかを返却する。
+	 *
+	 * @param tables テーブル名リスト（正規化済み）
+	 * @return 判定結果
+	 */
+	boolean isModified(Collection<String> tables) {
+		if (this.modifiedAll || (tables.isEmpty() && !this.modifiedTables.isEmpty())) {
+			return true;
+		}
+		return !Collections.disjoint(this.modifiedTables, tables);
+	}
+
+	/**
+	 * アイデンティティ・マップからSQL実行結果を取得する。
+	 * エントリーが存在しない場合はSQLを実行し、その結果を登録する。
+	 * 登録したエントリーは、参照テーブルに対する更新処理が行われた場合に削除する。
+	 *
+	 * @param          <R> SQL実行結果のデータ型
+	 * @param key      SQL実行キー
+	 * @param tables   参照テーブル名リスト（正規化済み）
+	 * @param supplier SQL実行処理
+	 * @return SQL実行結果
+	 */
+	@SuppressWarnings("unchecked")
+	<R> R identity(SqlKey key, Collection<String> tables, Supplier<R> supplier) {
+		IdentityEntry entry = this.identityMap.get(key);
+		if (Objects.nonNull(entry)) {
+			return (R) entry.value;
+		}
+		R result = supplier.get();
+		if (Objects.nonNull(result)) {
+			this.identityMap.put(key, new IdentityEntry(result, tables));
+		}
+		return result;
+	}
+
+	/**
+	 * コミット後処理を登録する。
+	 *
+	 * @param runnable コミット後処理
+	 */
+	void afterCommit(Runnable runnable) {
+		this.afterCommit.add(runnable);
+	}
+
+	/**
+	 * 完了後処理を登録する。
+	 * 完了後処理はトランザクションのコミット後、またはロールバック後に実行する。
+	 *
+	 * @param runnable 完了後処理
+	 */
+	void afterCompletion(Runnable runnable) {
+		this.afterCompletion.add(runnable);
+	}
+
+	/**
+	 * コミット前処理を実行する。
+	 * 遅延実行キューに蓄積した更新処理を全て実行する。
+	 */
+	void beforeCommit() {
+		if (Objects.nonNull(this.writeBehind)) {
+			this.writeBehind.flush();
+		}
+	}
+
+	/**
+	 * ロールバックを通知する。
+	 * 遅延実行キューに蓄積した更新処理を破棄する。
+	 *
+	 * @param e ロールバックの原因となったエラー情報
+	 */
+	void rolledBack(Throwable e) {
+		if (Objects.nonNull(this.writeBehind)) {
+			this.writeBehind.discard(e);
+		}
+		this.completed();
+	}
+
+	/**
+	 * セーブポイントまでのロールバックを通知する。
+	 * ロールバック対象の状態をセーブポイント設定時点に戻し（データベースにより作業単位がロールバックされた場合を除く）、遅延実行キューに蓄積した更新処理とアイデンティティ・マップを破棄する。
+	 *
+	 * @param rollbackCause セーブポイント設定時点のロールバックの原因となったエラー情報
+	 * @param e             ロールバックの原因となったエラー情報
+	 */
+	void rolledBackToSavepoint(Throwable rollbackCause, Throwable e) {
+		if (!this.aborted) {
+			this.rollbackCause = rollbackCause;
+		}
+		if (Objects.nonNull(this.writeBehind)) {
+			this.writeBehind.discard(e);
+		}
+		this.identityMap.clear();
+	}
+
+	/**
+	 * コミット完了を通知する。
+	 * 更新したテーブルのバージョンを更新し、コミット後処理を実行する。
+	 * コミット後処理でエラーが発生した場合もトランザクションの結果には影響させない。
+	 */
+	void committed() {
+		if (this.modifiedAll) {
+			TableVersions.invalidate(Collections.emptySet());
+		}
+		if (!this.modifiedTables.isEmpty()) {
+			TableVersions.invalidate(this.modifiedTables);
+		}
+		for (Runnable runnable : this.afterCommit) {
+			try {
+				runnable.run();
+			} catch (RuntimeException e) {
+				logger.warn("コミット後処理でエラーが発生しました。", e);
+			}
+		}
+		this.completed();
+	}
+
+	/**
+	 * 完了後処理を実行する。
+	 * 完了後処理でエラーが発生した場合もトランザクションの結果には影響させない。
+	 */
+	private void completed() {
+		for (Runnable runnable : this.afterCompletion) {
+			try {
+				runnable.run();
+			} catch (RuntimeException e) {
+				logger.warn("完了後処理でエラーが発生しました。", e);
+			}
+		}
+		this.afterCompletion.clear();
+	}
+
+}
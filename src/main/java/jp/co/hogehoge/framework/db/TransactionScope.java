@@ -0,0 +1,60 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.function.Supplier;
+
+/**
+ * トランザクション・スコープ。
+ * 実行中のトランザクション・コンテキストを処理の範囲（スコープ）に関連付けて管理する。
+ * 本クラスは{@link ThreadLocal}で管理する実装であり、Java 25以降で実行する場合は、
+ * マルチリリースJARの{@code META-INF/versions/25}に格納した{@code ScopedValue}で管理する実装に置き換わる。
+ */
+final class TransactionScope {
+
+	/** トランザクション・コンテキスト（スレッド毎に管理） */
+	private static final ThreadLocal<TransactionContext> CONTEXT = new ThreadLocal<>();
+
+	/**
+	 * コンストラクタ。
+	 */
+	private TransactionScope() {
+		// NOP
+	}
+
+	/**
+	 * トランザクション・コンテキストを関連付けて処理を実行する。
+	 * 関連付けは処理の終了時（エラーの場合を含む）に解除する。
+	 *
+	 * @param         <R> 処理結果のデータ型
+	 * @param context トランザクション・コンテキスト
+	 * @param body    処理
+	 * @return 処理結果
+	 */
+	static <R> R call(TransactionContext context, Supplier<R> body) {
+		CONTEXT.set(context);
+		try {
+			return body.get();
+		} finally {
+			CONTEXT.remove();
+		}
+	}
+
+	/**
+	 * 現在のスコープに関連付けられたトランザクション・コンテキストを取得する。
+	 *
+	 * @return トランザクション・コンテキスト（トランザクション外の場合はnull）
+	 */
+	static TransactionContext current() {
+		return CONTEXT.get();
+	}
+
+	/**
+	 * 現在のスレッドが仮想スレッドかどうかを取得する。
+	 * 仮想スレッドは処理毎に生成されるため、スレッド毎のキャッシュを使用しない判定に使用する。
+	 *
+	 * @return 判定結果（Java 25より前の実装では常にfalse）
+	 */
+	static boolean isVirtualThread() {
+		return false;
+	}
+
+}
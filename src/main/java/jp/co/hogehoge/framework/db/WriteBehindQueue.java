@@ -0,0 +1,150 @@
+package jp.co.hogehoge.framework.db;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * 遅延実行キュー。
+ * 遅延実行する更新処理を登録順に保持し、同一のSQL定義が連続する単位でまとめてバッチ実行する。
+ * 登録順を維持するため、異なるSQL定義を跨いだ並べ替えは行わない。
+ * 遅延実行の対象はINSERT、UPDATE、DELETE、MERGEのみとし、DDLやCALL等は遅延実行しない。
+ */
+final class WriteBehindQueue {
+
+	/** 遅延実行できるSQL（先頭の空白、コメントを除いた最初のキーワードで判定） */
+	private static final Pattern DEFERRABLE = Pattern.compile(
+			"^(?:\\s|--[^\\n]*(?:\\n|$)|/\\*.*?\\*/)*(?:INSERT|UPDATE|DELETE|MERGE)\\b",
+			Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+	/** 遅延実行する更新処理 */
+	private final List<Pending> queue = new ArrayList<>();
+
+	/**
+	 * 遅延実行する更新処理。
+	 */
+	private static class Pending {
+
+		/** SQL定義 */
+		private final Sql<?, ?> sql;
+
+		/** SQL */
+		private final String text;
+
+		/** SQL実行パラメータ（マップ） */
+		private final Map<String, Object> args;
+
+		/** 更新テーブル名リスト */
+		private final Collection<String> tables;
+
+		/** 処理件数 */
+		private final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param sql    SQL定義
+		 * @param text   SQL
+		 * @param args   SQL実行パラメータ（マップ）
+		 * @param tables 更新テーブル名リスト
+		 */
+		private Pending(Sql<?, ?> sql, String text, Map<String, Object> args, Collection<String> tables) {
+			this.sql = sql;
+			this.text = text;
+			this.args = args;
+			this.tables = tables;
+		}
+	}
+
+	/**
+	 * 遅延実行できるSQL（INSERT、UPDATE、DELETE、MERGE）かどうかを判定する。
+	 *
+	 * @param text SQL
+	 * @return 判定結果
+	 */
+	static boolean isDeferrable(String text) {
+		return DEFERRABLE.matcher(text).find();
+	}
+
+	/**
+	 * 更新処理を登録する。
+	 *
+	 * @param sql    SQL定義
+	 * @param text   SQL
+	 * @param args   SQL実行パラメータ（マップ）
+	 * @param tables 更新テーブル名リスト（正規化済み）
+	 * @return 処理件数（バッチ実行後に確定）
+	 */
+	CompletableFuture<Integer> add(Sql<?, ?> sql, String text, Map<String, Object> args, Collection<String> tables) {
+		Pending pending = new Pending(sql, text, args, tables);
+		this.queue.add(pending);
+		return pending.future;
+	}
+
+	/**
+	 * 指定したテーブルを更新する処理が登録されている場合、登録済みの更新処理を全て実行する。
+	 * テーブル名リストが空の場合、または対象テーブルが宣言されていない更新処理が登録されている場合も全て実行する。
+	 *
+	 * @param tables 参照テーブル名リスト（正規化済み）
+	 */
+	void flush(Collection<String> tables) {
+		for (Pending pending : this.queue) {
+			if (tables.isEmpty() || pending.tables.isEmpty() || !Collections.disjoint(pending.tables, tables)) {
+				this.flush();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 登録済みの更新処理を全て実行する。
+	 * エラーが発生した場合、未完了の更新処理にもエラーを通知してスローする。
+	 */
+	void flush() {
+		List<Pending> pendings = new ArrayList<>(this.queue);
+		this.queue.clear();
+
+		int from = 0;
+		try {
+			while (from < pendings.size()) {
+				// 同一のSQL定義、SQLが連続する範囲をまとめてバッチ実行
+				Pending head = pendings.get(from);
+				int to = from + 1;
+				while (to < pendings.size() && pendings.get(to).sql == head.sql
+						&& pendings.get(to).text.equals(head.text)) {
+					to++;
+				}
+				List<Map<String, Object>> batch = new ArrayList<>();
+				for (Pending pending : pendings.subList(from, to)) {
+					batch.add(pending.args);
+				}
+				int[] counts = head.sql.executeBatch(head.text, batch);
+				for (int index = from; index < to; index++) {
+					int offset = index - from;
+					int count = offset < counts.length ? counts[offset] : Statement.SUCCESS_NO_INFO;
+					pendings.get(index).future.complete(count);
+				}
+				from = to;
+			}
+		} catch (RuntimeException e) {
+			pendings.subList(from, pendings.size()).forEach(pending -> pending.future.completeExceptionally(e));
+			throw e;
+		}
+	}
+
+	/**
+	 * 登録済みの更新処理を破棄し、エラーを通知する。
+	 *
+	 * @param e エラー情報
+	 */
+	void discard(Throwable e) {
+		this.queue.forEach(pending -> pending.future.completeExceptionally(e));
+		this.queue.clear();
+	}
+
+}
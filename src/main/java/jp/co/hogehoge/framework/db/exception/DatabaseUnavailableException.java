@@ -0,0 +1,26 @@
+package jp.co.hogehoge.framework.db.exception;
+
+import jp.co.hogehoge.framework.db.Message;
+
+/**
+ * データベース利用不可例外。
+ * データベースの障害を検知してサーキット・ブレーカーが遮断している間、
+ * コネクションの取得やSQLの実行を行わずに即時にスローされる。
+ */
+public class DatabaseUnavailableException extends DatabaseConnectionException {
+
+	/** シリアル・バージョンID */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * コンストラクタ。
+	 * 
+	 * @param e       エラー情報（遮断の原因となったエラー情報）
+	 * @param message メッセージ
+	 * @param args    メッセージ置換パラメータ
+	 */
+	public DatabaseUnavailableException(Throwable e, Message message, Object... args) {
+		super(e, message, args);
+	}
+
+}
@@ -0,0 +1,25 @@
+package jp.co.hogehoge.framework.db.exception;
+
+import jp.co.hogehoge.framework.db.Message;
+
+/**
+ * シャーディング例外。
+ * SQLを実行するシャードを特定できない場合、およびトランザクション内で異なるシャードのSQLを実行した場合にスローされる。
+ */
+public class ShardingException extends DatabaseException {
+
+	/** シリアル・バージョンID */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * コンストラクタ。
+	 * 
+	 * @param e       エラー情報
+	 * @param message メッセージ
+	 * @param args    メッセージ置換パラメータ
+	 */
+	public ShardingException(Throwable e, Message message, Object... args) {
+		super(e, message, args);
+	}
+
+}
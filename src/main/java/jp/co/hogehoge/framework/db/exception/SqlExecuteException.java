@@ -1,5 +1,7 @@
 package jp.co.hogehoge.framework.db.exception;
 
+import jp.co.hogehoge.framework.db.Message;
+
 /**
  * SQL実行時例外。
  */
@@ -17,4 +19,15 @@ public class SqlExecuteException extends DatabaseException {
 		super(e);
 	}
 
+	/**
+	 * コンストラクタ。
+	 * 
+	 * @param e       例外
+	 * @param message メッセージ
+	 * @param args    メッセージ・パラメータ
+	 */
+	public SqlExecuteException(Throwable e, Message message, Object... args) {
+		super(e, message, args);
+	}
+
 }
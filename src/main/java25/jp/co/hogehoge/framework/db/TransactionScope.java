@@ -0,0 +1,67 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.function.Supplier;
+
+/**
+ * トランザクション・スコープ（Java 25以降）。
+ * 実行中のトランザクション・コンテキストを{@link ScopedValue}で管理する。
+ * {@link ThreadLocal}と異なり、スコープの終了時に関連付けが確実に解除される。
+ * トランザクション・コンテキストはトランザクションを開始したスレッドからのみ参照できるため、
+ * {@code StructuredTaskScope}で分岐した子タスク等、関連付けを引き継いだ別のスレッドから参照した場合はエラーとする。
+ */
+final class TransactionScope {
+
+	/** トランザクション・コンテキスト */
+	private static final ScopedValue<TransactionContext> CONTEXT = ScopedValue.newInstance();
+
+	/** トランザクション・コンテキストを関連付けたスレッド */
+	private static final ScopedValue<Thread> OWNER = ScopedValue.newInstance();
+
+	/**
+	 * コンストラクタ。
+	 */
+	private TransactionScope() {
+		// NOP
+	}
+
+	/**
+	 * トランザクション・コンテキストを関連付けて処理を実行する。
+	 * 関連付けは処理の終了時（エラーの場合を含む）に解除する。
+	 *
+	 * @param         <R> 処理結果のデータ型
+	 * @param context トランザクション・コンテキスト
+	 * @param body    処理
+	 * @return 処理結果
+	 */
+	static <R> R call(TransactionContext context, Supplier<R> body) {
+		return ScopedValue.where(CONTEXT, context).where(OWNER, Thread.currentThread()).call(body::get);
+	}
+
+	/**
+	 * 現在のスコープに関連付けられたトランザクション・コンテキストを取得する。
+	 *
+	 * @return トランザクション・コンテキスト（トランザクション外の場合はnull）
+	 * @throws IllegalStateException トランザクションを開始したスレッド以外から参照した場合
+	 */
+	static TransactionContext current() {
+		if (!CONTEXT.isBound()) {
+			return null;
+		}
+		if (OWNER.get() != Thread.currentThread()) {
+			throw new IllegalStateException("トランザクションを開始したスレッド以外からトランザクションを参照することはできません。[スレッド="
+					+ Thread.currentThread().getName() + "]");
+		}
+		return CONTEXT.get();
+	}
+
+	/**
+	 * 現在のスレッドが仮想スレッドかどうかを取得する。
+	 * 仮想スレッドは処理毎に生成されるため、スレッド毎のキャッシュを使用しない判定に使用する。
+	 *
+	 * @return 判定結果
+	 */
+	static boolean isVirtualThread() {
+		return Thread.currentThread().isVirtual();
+	}
+
+}
@@ -0,0 +1,229 @@
+package jp.co.hogehoge.framework.db;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SELECT処理の実行結果を発行するパブリッシャー（Java 9以降）。
+ * 購読者の要求件数（{@link Flow.Subscription#request(long)}）に従ってカーソルからレコードを取得し、
+ * 要求件数をフェッチ・サイズとしてドライバーに伝えるため、処理の遅い購読者に対しても実行結果全体をメモリに読み込まない。
+ * 購読毎に専用のコネクションでSQLを実行し（トランザクションには参加しない）、レコードの取得は{@link DatabaseExecutor}で行う。
+ * 終端まで発行した場合、エラーが発生した場合、および購読を取り消した場合は、カーソルをクローズしてコネクションを返却する。
+ *
+ * <pre>
+ * Flow.Publisher&lt;Order&gt; orders = SqlPublisher.of(OrderSql.SELECT_BY_CUSTOMER, customer);
+ * orders.subscribe(responseWriter);
+ * </pre>
+ *
+ * @param <E> 発行するエンティティのデータ型
+ */
+public final class SqlPublisher<E extends Entity> implements Flow.Publisher<E> {
+
+	/** SQL定義 */
+	private final Sql<?, ?> sql;
+
+	/** SQL実行パラメータ */
+	private final Entity param;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param sql   SQL定義
+	 * @param param SQL実行パラメータ
+	 */
+	private SqlPublisher(Sql<?, ?> sql, Entity param) {
+		this.sql = sql;
+		this.param = param;
+	}
+
+	/**
+	 * SELECT処理の実行結果を発行するパブリッシャーを生成する。
+	 * SQLは購読の都度実行する。
+	 *
+	 * @param       <P> SQL実行パラメータのデータ型
+	 * @param       <E> 発行するエンティティのデータ型
+	 * @param sql   エンティティのリストを取得するSQL定義
+	 * @param param SQL実行パラメータ
+	 * @return パブリッシャー
+	 */
+	public static <P extends Entity, E extends Entity> SqlPublisher<E> of(Sql<P, List<E>> sql, P param) {
+		return new SqlPublisher<>(Objects.requireNonNull(sql, "sql"), param);
+	}
+
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void subscribe(Flow.Subscriber<? super E> subscriber) {
+		Objects.requireNonNull(subscriber, "subscriber");
+		Cursor cursor;
+		try {
+			cursor = ((Sql) this.sql).cursor(this.param);
+		} catch (RuntimeException e) {
+			subscriber.onSubscribe(new CursorSubscription<>(subscriber, null));
+			subscriber.onError(e);
+			return;
+		}
+		subscriber.onSubscribe(new CursorSubscription<>(subscriber, cursor));
+	}
+
+	/**
+	 * カーソルの購読。
+	 * 取得処理は同時に1つのスレッドでのみ実行し（{@code wip}）、要求件数が残っている間は継続して発行する。
+ * 購読者への通知は全て取得処理のスレッドで行い、{@link #request(long)}の呼び出し元のスレッドでは通知しない。
+	 *
+	 * @param <E> 発行するエンティティのデータ型
+	 */
+	private static final class CursorSubscription<E> implements Flow.Subscription {
+
+		/** 購読者 */
+		private final Flow.Subscriber<? super E> subscriber;
+
+		/** カーソル（生成に失敗した場合はnull） */
+		private final Cursor cursor;
+
+		/** 未発行の要求件数 */
+		private final AtomicLong demand = new AtomicLong();
+
+		/** 取得処理の実行要求数 */
+		private final AtomicInteger wip = new AtomicInteger();
+
+		/** 購読を取り消したかどうか */
+		private volatile boolean cancelled;
+
+		/** 発行を終了したかどうか */
+		private volatile boolean done;
+
+		/** 要求件数の誤り（取得処理のスレッドでエラーとして通知する） */
+		private volatile Throwable invalidRequest;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param subscriber 購読者
+		 * @param cursor     カーソル
+		 */
+		private CursorSubscription(Flow.Subscriber<? super E> subscriber, Cursor cursor) {
+			this.subscriber = subscriber;
+			this.cursor = cursor;
+			this.done = Objects.isNull(cursor);
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				// 発行中のonNextと並行して通知しないよう、取得処理のスレッドでエラーを通知する
+				if (Objects.isNull(this.invalidRequest)) {
+					this.invalidRequest = new IllegalArgumentException("要求件数は1以上を指定してください。[n=" + n + "]");
+				}
+				this.schedule();
+				return;
+			}
+			// 要求件数を加算（上限はLong.MAX_VALUE）
+			this.demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+			this.schedule();
+		}
+
+		@Override
+		public void cancel() {
+			if (this.cancelled) {
+				return;
+			}
+			this.cancelled = true;
+			if (Objects.nonNull(this.cursor)) {
+				// 取得処理の実行中であれば中止し、クローズは取得処理のスレッドで行う
+				this.cursor.cancel();
+				this.schedule();
+			}
+		}
+
+		/**
+		 * 取得処理の実行を要求する。
+		 * 取得処理が実行中の場合は、実行中の取得処理が継続して処理する。
+		 */
+		private void schedule() {
+			if (this.wip.getAndIncrement() != 0) {
+				return;
+			}
+			DatabaseExecutor.submit(() -> {
+				this.drain();
+				return null;
+			}).exceptionally(e -> {
+				// 実行待ちの上限を超えた場合等
+				this.finish(e);
+				return null;
+			});
+		}
+
+		/**
+		 * 要求件数のレコードを取得して発行する。
+		 */
+		private void drain() {
+			int missed = 1;
+			do {
+				this.emit();
+				missed = this.wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		/**
+		 * 要求件数が無くなるまで、カーソルからレコードを取得して発行する。
+		 */
+		@SuppressWarnings("unchecked")
+		private void emit() {
+			if (this.done) {
+				return;
+			}
+			try {
+				long n;
+				while (!this.cancelled && Objects.isNull(this.invalidRequest) && (n = this.demand.get()) > 0) {
+					List<Entity> rows = this.cursor.fetch(n);
+					for (Entity row : rows) {
+						if (this.cancelled || Objects.nonNull(this.invalidRequest)) {
+							break;
+						}
+						this.subscriber.onNext((E) row);
+					}
+					if (n != Long.MAX_VALUE) {
+						this.demand.addAndGet(-rows.size());
+					}
+					if (this.cursor.isExhausted() && !this.cancelled) {
+						this.finish(null);
+						return;
+					}
+				}
+				if (this.cancelled) {
+					this.done = true;
+					this.cursor.close();
+				} else if (Objects.nonNull(this.invalidRequest)) {
+					this.finish(this.invalidRequest);
+				}
+			} catch (Throwable e) {
+				this.finish(e);
+			}
+		}
+
+		/**
+		 * カーソルをクローズし、完了またはエラーを通知する。
+		 * 購読を取り消した場合は通知しない。
+		 *
+		 * @param error エラー（正常終了の場合はnull）
+		 */
+		private void finish(Throwable error) {
+			this.done = true;
+			if (Objects.nonNull(this.cursor)) {
+				this.cursor.close();
+			}
+			if (this.cancelled) {
+				return;
+			}
+			if (Objects.isNull(error)) {
+				this.subscriber.onComplete();
+			} else {
+				this.subscriber.onError(error);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jp.co.hogehoge.framework.test.db.TestDB;
+import untest.conf.TestDBConfig;
+import untest.entity.AllTypeEntity;
+import untest.sql.UnitTestSql;
+
+public class TestBatchLoader {
+
+	// 初期登録データ
+	private final AllTypeEntity initData1 = (new AllTypeEntity()).setVarcharColumn("12345")
+			.setCharColumn("12345")
+			.setIntegerColumn(1)
+			.setDateColumn(LocalDate.now())
+			.setDoubleColumn(12.5)
+			.setClobColumn("あいうえお")
+			.setBlobColumn("あいうえお".getBytes())
+			.setBigDecimalColumn(BigDecimal.valueOf(22.30))
+			.setLongColumn((long) 12345)
+			.setTimestampColumn(LocalDateTime.now());
+
+	// 初期登録データ2
+	private final AllTypeEntity initData2 = initData1.clone().setVarcharColumn("54321");
+
+	// テスト対象の一括ローダー
+	private final BatchLoader<String, AllTypeEntity> loader = BatchLoader.define(UnitTestSql.SELECT_005,
+			"VARCHAR_COLUMN",
+			AllTypeEntity::getVarcharColumn);
+
+	// データ・ソースの設定
+	@BeforeClass
+	public static void beforeClass() {
+		TestDB.setup(DatabaseConfig.DATA_SOURCE_NAME.get(), // データ・ソース
+				TestDBConfig.HOST.get(), // ホスト名
+				TestDBConfig.PORT.get(), // ポート番号
+				TestDBConfig.DATABASE.get(), // データベース名
+				TestDBConfig.USER.get(), // ユーザー名
+				TestDBConfig.PASSWORD.get(), // パスワード
+				TestDBConfig.OPTION.get()); // 接続オプション
+	}
+
+	// テスト用テーブルの構築と初期データの登録
+	@Before
+	public void before() {
+		Transaction.execute(() -> {
+			try {
+				UnitTestSql.SELECT_001.execute(initData1); // テーブルが存在していない場合エラー
+				UnitTestSql.DELETE_001.execute();
+			} catch (Exception e) { // テーブルが存在していない場合
+				UnitTestSql.CREATE_001.execute();
+			}
+			UnitTestSql.INSERT_001.execute(initData1);
+			UnitTestSql.INSERT_001.execute(initData2);
+		});
+	}
+
+	/**
+	 * トランザクション内で収集したキーのレコードが一括で取得できること。
+	 */
+	@Test
+	public void dispatch_01() {
+		// act
+		Optional<AllTypeEntity>[] actual = Transaction.execute(() -> {
+			CompletableFuture<Optional<AllTypeEntity>> first = loader.load("12345");
+			CompletableFuture<Optional<AllTypeEntity>> second = loader.load("54321");
+			CompletableFuture<Optional<AllTypeEntity>> none = loader.load("00000");
+			assertTrue("実行前は結果が確定していないこと", !first.isDone());
+			loader.dispatch();
+			@SuppressWarnings("unchecked")
+			Optional<AllTypeEntity>[] result = new Optional[] { first.join(), second.join(), none.join() };
+			return result;
+		});
+		// assert
+		assertThat("1件目のレコードが取得できること", actual[0].get(), equalTo(initData1));
+		assertThat("2件目のレコードが取得できること", actual[1].get(), equalTo(initData2));
+		assertTrue("存在しないキーは空となること", !actual[2].isPresent());
+	}
+
+	/**
+	 * 一括実行せずにトランザクションが終了した場合、要求がエラーとなり次のトランザクションに引き継がれないこと。
+	 */
+	@Test
+	public void dispatch_02() {
+		// arrange
+		CompletableFuture<Optional<AllTypeEntity>> abandoned = Transaction.execute(() -> loader.load("12345"));
+		// act
+		CompletableFuture<Optional<AllTypeEntity>> actual = Transaction.execute(() -> {
+			CompletableFuture<Optional<AllTypeEntity>> future = loader.load("54321");
+			loader.dispatch();
+			return future;
+		});
+		// assert
+		assertTrue("未実行の要求がエラーとなること", abandoned.isCompletedExceptionally());
+		assertThat("次のトランザクションの要求が取得できること", actual.join().get(), equalTo(initData2));
+	}
+
+	/**
+	 * 複数のキーに該当するレコードが一括で取得できること。
+	 */
+	@Test
+	public void loadMany_01() {
+		// act
+		Map<String, Optional<AllTypeEntity>> actual = loader.loadMany(Arrays.asList("12345", "54321", "00000"));
+		// assert
+		assertThat("キー数分の結果が取得できること", actual.size(), equalTo(3));
+		assertThat("1件目のレコードが取得できること", actual.get("12345").get(), equalTo(initData1));
+		assertThat("2件目のレコードが取得できること", actual.get("54321").get(), equalTo(initData2));
+		assertTrue("存在しないキーは空となること", !actual.get("00000").isPresent());
+	}
+
+	/**
+	 * トランザクション外で要求したキーのレコードが収集待機時間の経過後に取得できること。
+	 */
+	@Test
+	public void load_01() {
+		// act
+		CompletableFuture<Optional<AllTypeEntity>> first = loader.load("12345");
+		CompletableFuture<Optional<AllTypeEntity>> second = loader.load("54321");
+		// assert
+		assertThat("1件目のレコードが取得できること", first.join().get(), equalTo(initData1));
+		assertThat("2件目のレコードが取得できること", second.join().get(), equalTo(initData2));
+	}
+
+	/**
+	 * キーにnullを指定した場合は空の結果が取得できること。
+	 */
+	@Test
+	public void load_02() {
+		// act
+		Optional<AllTypeEntity> actual = loader.load(null).join();
+		// assert
+		assertTrue("空の結果が取得できること", !actual.isPresent());
+	}
+
+}
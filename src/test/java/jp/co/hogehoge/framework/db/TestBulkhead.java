@@ -0,0 +1,107 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import jp.co.hogehoge.framework.db.DatabaseMetrics.Metric;
+import jp.co.hogehoge.framework.db.exception.DatabaseConnectionException;
+
+public class TestBulkhead {
+
+	/**
+	 * 上限に達している場合、最大待機時間経過後にエラーとなること。
+	 */
+	@Test
+	public void acquire_01() {
+		// arrange
+		Bulkhead bulkhead = new Bulkhead("report", 1, 50);
+		bulkhead.acquire();
+		long rejected = DatabaseMetrics.get(Metric.BULKHEAD_REJECTED);
+		// act
+		try {
+			bulkhead.acquire();
+			fail("実行された場合はNG");
+		} catch (DatabaseConnectionException e) {
+			// assert
+			assertThat("使用中のコネクション数が上限を超えないこと", bulkhead.getActive(), equalTo(1));
+			assertThat("取得できなかった回数が集計されること", DatabaseMetrics.get(Metric.BULKHEAD_REJECTED),
+					equalTo(rejected + 1));
+		}
+	}
+
+	/**
+	 * 待機中に使用許可が返却された場合、使用許可が取得できること。
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void acquire_02() throws Exception {
+		// arrange
+		Bulkhead bulkhead = new Bulkhead("batch", 1, 5000);
+		bulkhead.acquire();
+		boolean[] acquired = { false };
+		Thread waiter = new Thread(() -> {
+			bulkhead.acquire();
+			acquired[0] = true;
+			bulkhead.release();
+		});
+		// act
+		waiter.start();
+		Thread.sleep(100);
+		assertThat("待機中の処理数が取得できること", bulkhead.getWaiting(), equalTo(1));
+		bulkhead.release();
+		waiter.join();
+		// assert
+		assertTrue("待機中の処理が使用許可を取得できること", acquired[0]);
+		assertThat("全ての使用許可が返却されていること", bulkhead.getActive(), equalTo(0));
+	}
+
+	/**
+	 * 定義されていないワークロードは制限されないこと。
+	 */
+	@Test
+	public void of_01() {
+		// act
+		Bulkhead actual = Bulkhead.of("undefined");
+		// assert
+		assertThat("制限されないこと", actual, equalTo(null));
+	}
+
+	/**
+	 * ワークロードの定義が解析できること（空の項目は無視されること）。
+	 */
+	@Test
+	public void parse_01() {
+		// act
+		Map<String, Bulkhead> actual = Bulkhead.parse(" online:20;;batch : 5;", 1000);
+		// assert
+		assertThat("定義したワークロードが取得できること", actual.size(), equalTo(2));
+		assertThat("上限数が設定されること", Whitebox.getInternalState(actual.get("batch"), "limit"), equalTo(5));
+	}
+
+	/**
+	 * 上限数が1以上の整数でない場合、および形式が誤っている場合はエラーとなること。
+	 */
+	@Test
+	public void parse_02() {
+		for (String value : Arrays.asList("online:0", "online:-1", "online:2O", "online", ":5", "online:1:2")) {
+			try {
+				// act
+				Bulkhead.parse(value, 1000);
+				fail("解析できた場合はNG：" + value);
+			} catch (DatabaseConnectionException e) {
+				// assert
+				assertTrue("不正な定義がメッセージに含まれること：" + value, e.getMessage().contains(value));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import jp.co.hogehoge.framework.db.CircuitBreaker.State;
+import jp.co.hogehoge.framework.db.exception.DatabaseUnavailableException;
+
+public class TestCircuitBreaker {
+
+	// 接続例外
+	private final SQLException connectionError = new SQLException("connection failure", "08001", -30081);
+
+	// SQLの誤り
+	private final SQLException syntaxError = new SQLException("syntax error", "42601", -104);
+
+	/**
+	 * 障害率が閾値を超えた場合に遮断され、処理が即時に中止されること。
+	 */
+	@Test
+	public void acquire_01() {
+		// arrange
+		CircuitBreaker breaker = new CircuitBreaker("test", true, 4, 4, 50, 60000, Arrays.asList("08", "57"), () -> null);
+		breaker.onSuccess();
+		breaker.onSuccess();
+		breaker.onError(connectionError);
+		assertThat("障害率が閾値未満の場合は遮断されないこと", breaker.getState(), equalTo(State.CLOSED));
+		breaker.onError(connectionError);
+		// act
+		try {
+			breaker.acquire();
+			fail("実行された場合はNG");
+		} catch (DatabaseUnavailableException e) {
+			// assert
+			assertThat("遮断されていること", breaker.getState(), equalTo(State.OPEN));
+		}
+	}
+
+	/**
+	 * SQLSTATEのクラスが該当しないエラーでは遮断されないこと。
+	 */
+	@Test
+	public void acquire_02() {
+		// arrange
+		CircuitBreaker breaker = new CircuitBreaker("test", true, 4, 4, 50, 60000, Arrays.asList("08", "57"), () -> null);
+		for (int i = 0; i < 10; i++) {
+			breaker.onError(syntaxError);
+		}
+		// act
+		breaker.acquire();
+		// assert
+		assertThat("遮断されないこと", breaker.getState(), equalTo(State.CLOSED));
+	}
+
+	/**
+	 * ロック・タイムアウト、およびSQLの取り消しはSQLSTATEのクラスが該当しても障害としないこと。
+	 */
+	@Test
+	public void isFailure_01() {
+		// arrange
+		CircuitBreaker breaker = new CircuitBreaker("test", true, 4, 4, 50, 60000, Arrays.asList("08", "57"), () -> null);
+		// act
+		boolean lockTimeout = breaker.isFailure(new SQLException("lock timeout", "57033", -913));
+		boolean cancel = breaker.isFailure(new SQLException("cancel", "57014", -952));
+		boolean resource = breaker.isFailure(new SQLException("resource", "57011", -904));
+		// assert
+		assertThat("ロック・タイムアウトは障害としないこと", lockTimeout, equalTo(false));
+		assertThat("SQLの取り消しは障害としないこと", cancel, equalTo(false));
+		assertThat("リソース不足は障害とすること", resource, equalTo(true));
+	}
+
+	/**
+	 * 個別のSQLSTATEを指定した場合は前方一致するエラーのみ障害とすること。
+	 */
+	@Test
+	public void isFailure_02() {
+		// arrange
+		CircuitBreaker breaker = new CircuitBreaker("test", true, 4, 4, 50, 60000, Arrays.asList("08", "57011"), () -> null);
+		// act
+		boolean connection = breaker.isFailure(connectionError);
+		boolean unavailable = breaker.isFailure(new SQLException("unavailable", "57019", -1035));
+		// assert
+		assertThat("クラスを指定したSQLSTATEは障害とすること", connection, equalTo(true));
+		assertThat("指定していないSQLSTATEは障害としないこと", unavailable, equalTo(false));
+	}
+
+	/**
+	 * 遮断してから一定時間経過後、回復を確認できた場合は遮断が解除されること。
+	 */
+	@Test
+	public void acquire_03() {
+		// arrange
+		CircuitBreaker breaker = new CircuitBreaker("test", true, 2, 2, 50, 0, Arrays.asList("08", "57"), () -> null);
+		breaker.onError(connectionError);
+		breaker.onError(connectionError);
+		// act
+		breaker.acquire();
+		// assert
+		assertThat("遮断が解除されていること", breaker.getState(), equalTo(State.CLOSED));
+	}
+
+	/**
+	 * 遮断してから一定時間経過後、回復を確認できなかった場合は遮断が継続されること。
+	 */
+	@Test
+	public void acquire_04() {
+		// arrange
+		CircuitBreaker breaker = new CircuitBreaker("test", true, 2, 2, 50, 0, Arrays.asList("08", "57"), () -> {
+			throw connectionError;
+		});
+		breaker.onError(connectionError);
+		breaker.onError(connectionError);
+		// act
+		try {
+			breaker.acquire();
+			fail("実行された場合はNG");
+		} catch (DatabaseUnavailableException e) {
+			// assert
+			assertThat("遮断が継続されていること", breaker.getState(), equalTo(State.OPEN));
+		}
+	}
+
+	/**
+	 * 無効の場合は遮断されないこと。
+	 */
+	@Test
+	public void acquire_05() {
+		// arrange
+		CircuitBreaker breaker = new CircuitBreaker("test", false, 2, 2, 50, 60000, Arrays.asList("08", "57"), () -> null);
+		breaker.onError(connectionError);
+		breaker.onError(connectionError);
+		// act
+		breaker.acquire();
+		// assert
+		assertThat("遮断されないこと", breaker.getState(), equalTo(State.CLOSED));
+	}
+
+	/**
+	 * データ・ソース毎に異なるインスタンスが取得されること。
+	 */
+	@Test
+	public void of_01() {
+		// act
+		CircuitBreaker shard1 = CircuitBreaker.of("shard:test1", () -> null);
+		CircuitBreaker shard2 = CircuitBreaker.of("shard:test2", () -> null);
+		// assert
+		assertTrue("データ・ソース毎に異なるインスタンスであること", shard1 != shard2);
+		assertTrue("同じデータ・ソースは同じインスタンスであること", shard1 == CircuitBreaker.of("shard:test1", () -> null));
+	}
+
+}
@@ -0,0 +1,177 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import jp.co.hogehoge.framework.db.DatabaseMetrics.Metric;
+import untest.conf.TestDBConfig;
+
+public class TestConnectionPool {
+
+	// 接続先URL
+	private static final String URL = TestDBConfig.HOST.get() + ":" + TestDBConfig.PORT.get() + "/"
+			+ TestDBConfig.DATABASE.get() + ":" + TestDBConfig.OPTION.get();
+
+	// コネクション・プール
+	private ConnectionPool pool = null;
+
+	// コネクション・プールの生成
+	@Before
+	public void before() {
+		pool = new ConnectionPool(URL, TestDBConfig.USER.get(), TestDBConfig.PASSWORD.get(), 0, 2, 500, 600000,
+				1800000, 0, 30000, 500, 5);
+	}
+
+	// コネクション・プールの停止
+	@After
+	public void after() {
+		pool.close();
+	}
+
+	/**
+	 * 返却したコネクションが再利用されること。
+	 * 
+	 * @throws SQLException
+	 */
+	@Test
+	public void getConnection_01() throws SQLException {
+		// arrange
+		try (Connection conn = pool.getConnection()) {
+			assertFalse("コネクションが取得できること", conn.isClosed());
+		}
+		// act
+		try (Connection conn = pool.getConnection()) {
+			// assert
+			assertFalse("コネクションが取得できること", conn.isClosed());
+			assertThat("返却したコネクションが再利用されること", pool.getTotalConnections(), equalTo(1));
+		}
+	}
+
+	/**
+	 * 最大コネクション数に達している場合、最大待機時間経過後にエラーとなること。
+	 * 
+	 * @throws SQLException
+	 */
+	@Test
+	public void getConnection_02() throws SQLException {
+		// arrange
+		try (Connection conn1 = pool.getConnection(); Connection conn2 = pool.getConnection()) {
+			// act
+			try (Connection conn3 = pool.getConnection()) {
+				fail("実行された場合はNG");
+			} catch (SQLTransientConnectionException e) {
+				// assert
+				assertThat("最大コネクション数を超えないこと", pool.getTotalConnections(), equalTo(2));
+			}
+		}
+	}
+
+	/**
+	 * 待機中のスレッドへ返却したコネクションが受け渡されること。
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void getConnection_03() throws Exception {
+		// arrange
+		Connection conn1 = pool.getConnection();
+		Connection conn2 = pool.getConnection();
+		boolean[] acquired = { false };
+		Thread waiter = new Thread(() -> {
+			try (Connection conn = pool.getConnection()) {
+				acquired[0] = !conn.isClosed();
+			} catch (SQLException e) {
+				// NOP
+			}
+		});
+		// act
+		waiter.start();
+		Thread.sleep(100);
+		conn1.close();
+		waiter.join();
+		conn2.close();
+		// assert
+		assertTrue("待機中のスレッドがコネクションを取得できること", acquired[0]);
+	}
+
+	/**
+	 * 接続を確認できないコネクションは破棄され、新規のコネクションが取得できること。
+	 * 
+	 * @throws SQLException
+	 */
+	@Test
+	public void getConnection_04() throws SQLException {
+		// arrange
+		pool.close();
+		pool = new ConnectionPool(URL, TestDBConfig.USER.get(), TestDBConfig.PASSWORD.get(), 0, 2, 500, 600000,
+				1800000, 0, 30000, 0, 5);
+		try (Connection conn = pool.getConnection()) {
+			assertFalse("コネクションが取得できること", conn.isClosed());
+		}
+		List<?> entries = Whitebox.getInternalState(pool, "entries");
+		Connection raw = Whitebox.getInternalState(entries.get(0), "raw");
+		raw.close(); // フェイルオーバー等による切断を想定
+		long failed = DatabaseMetrics.get(Metric.VALIDATION_FAILED);
+		// act
+		try (Connection conn = pool.getConnection()) {
+			// assert
+			assertTrue("新規のコネクションが取得できること", conn.isValid(5));
+			assertThat("切断されたコネクションが破棄されること", pool.getTotalConnections(), equalTo(1));
+			assertThat("破棄したコネクション数が集計されること", DatabaseMetrics.get(Metric.VALIDATION_FAILED), equalTo(failed + 1));
+		}
+	}
+
+	/**
+	 * クローズしたステートメントをコネクションが保持し続けないこと。
+	 * 
+	 * @throws SQLException
+	 */
+	@Test
+	public void getConnection_05() throws SQLException {
+		// arrange
+		try (Connection conn = pool.getConnection()) {
+			// act
+			for (int i = 0; i < 100; i++) {
+				try (PreparedStatement ps = conn.prepareStatement("VALUES 1")) {
+					ps.execute();
+				}
+			}
+			try (Statement statement = conn.createStatement()) {
+				// assert
+				List<?> statements = Whitebox.getInternalState(Proxy.getInvocationHandler(conn), "statements");
+				assertThat("クローズしていないステートメントのみ保持すること", statements.size(), equalTo(1));
+			}
+		}
+	}
+
+	/**
+	 * 返却後のコネクションは操作できないこと。
+	 * 
+	 * @throws SQLException
+	 */
+	@Test(expected = SQLException.class)
+	public void close_01() throws SQLException {
+		// arrange
+		Connection conn = pool.getConnection();
+		conn.close();
+		// act
+		conn.commit();
+	}
+
+}
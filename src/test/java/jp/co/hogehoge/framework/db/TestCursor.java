@@ -0,0 +1,73 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jp.co.hogehoge.framework.test.db.TestDB;
+import untest.conf.TestDBConfig;
+import untest.entity.AllTypeEntity;
+import untest.sql.UnitTestSql;
+
+public class TestCursor {
+
+	// 検索条件
+	private final AllTypeEntity condition = (new AllTypeEntity()).setCharColumn("12345");
+
+	// データ・ソースの設定
+	@BeforeClass
+	public static void beforeClass() {
+		TestDB.setup(DatabaseConfig.DATA_SOURCE_NAME.get(), // データ・ソース
+				TestDBConfig.HOST.get(), // ホスト名
+				TestDBConfig.PORT.get(), // ポート番号
+				TestDBConfig.DATABASE.get(), // データベース名
+				TestDBConfig.USER.get(), // ユーザー名
+				TestDBConfig.PASSWORD.get(), // パスワード
+				TestDBConfig.OPTION.get()); // 接続オプション
+	}
+
+	/**
+	 * 要求件数ずつ取得し、終端まで取得した結果が一括で取得した結果と一致すること。
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void fetch_01() throws Exception {
+		// arrange
+		List<AllTypeEntity> expected = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(condition));
+		List<Entity> actual = new ArrayList<>();
+		// act
+		try (Cursor cursor = UnitTestSql.SELECT_002.cursor(condition)) {
+			while (!cursor.isExhausted()) {
+				List<Entity> rows = cursor.fetch(1);
+				// assert
+				assertTrue("要求件数を超えて取得しないこと", rows.size() <= 1);
+				actual.addAll(rows);
+			}
+		}
+		assertThat("全てのレコードが取得できること", actual, equalTo(new ArrayList<Entity>(expected)));
+	}
+
+	/**
+	 * エンティティを取得するSELECT処理以外の場合、エラーとなること。
+	 */
+	@Test
+	public void cursor_01() {
+		// act
+		try {
+			UnitTestSql.DELETE_001.cursor(null);
+			fail("実行された場合はNG");
+		} catch (IllegalStateException e) {
+			// assert
+			assertTrue("SQLIDが通知されること", e.getMessage().contains(UnitTestSql.DELETE_001.getSqlId()));
+		}
+	}
+
+}
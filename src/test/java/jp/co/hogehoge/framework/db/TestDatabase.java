@@ -0,0 +1,111 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jp.co.hogehoge.framework.db.exception.DatabaseConnectionException;
+import jp.co.hogehoge.framework.test.db.TestDB;
+import untest.conf.TestDBConfig;
+import untest.entity.AllTypeEntity;
+import untest.sql.UnitTestSql;
+
+public class TestDatabase {
+
+	// データ・ソースの設定
+	@BeforeClass
+	public static void beforeClass() {
+		TestDB.setup(DatabaseConfig.DATA_SOURCE_NAME.get(), // データ・ソース
+				TestDBConfig.HOST.get(), // ホスト名
+				TestDBConfig.PORT.get(), // ポート番号
+				TestDBConfig.DATABASE.get(), // データベース名
+				TestDBConfig.USER.get(), // ユーザー名
+				TestDBConfig.PASSWORD.get(), // パスワード
+				TestDBConfig.OPTION.get()); // 接続オプション
+	}
+
+	// 検索条件
+	private final AllTypeEntity condition = (new AllTypeEntity()).setCharColumn("12345");
+
+	// 設定したデータ・ソースを破棄
+	@After
+	public void after() {
+		Database.reset();
+	}
+
+	/**
+	 * 設定したデータ・ソースでSQLが実行されること。
+	 */
+	@Test
+	public void configure_01() {
+		// arrange
+		DataSource original = Database.dataSource();
+		AtomicInteger count = new AtomicInteger();
+		DataSource dataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+				new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+					if ("getConnection".equals(method.getName())) {
+						count.incrementAndGet();
+					}
+					return method.invoke(original, args);
+				});
+		Database.configure(dataSource);
+		// act
+		Transaction.execute(() -> UnitTestSql.SELECT_002.execute(condition));
+		// assert
+		assertTrue("設定したデータ・ソースからコネクションが取得されること", count.get() > 0);
+	}
+
+	/**
+	 * 接続先URLが指定されていない場合、エラーとなること。
+	 */
+	@Test
+	public void configure_02() {
+		// arrange
+		Properties properties = new Properties();
+		properties.setProperty("db.pool.url", " ");
+		// act
+		try {
+			Database.configure(properties);
+			fail("実行された場合はNG");
+		} catch (IllegalArgumentException e) {
+			// assert
+			assertThat("初期状態のデータ・ソースが維持されること", Database.dataSource() instanceof ConnectionPool, equalTo(false));
+		}
+	}
+
+	/**
+	 * 初期化前のデータ・ソースに接続しないこと、および初期状態に戻した場合に再度初期化されること。
+	 */
+	@Test
+	public void reset_01() {
+		// arrange
+		Database.configure((DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+				new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+					throw new SQLException("接続不可");
+				}));
+		try {
+			Transaction.execute(() -> UnitTestSql.SELECT_002.execute(condition));
+			fail("実行された場合はNG");
+		} catch (DatabaseConnectionException e) {
+			// NOP
+		}
+		// act
+		Database.reset();
+		// assert
+		assertTrue("初期状態のデータ・ソースでSQLが実行されること",
+				Transaction.execute(() -> UnitTestSql.SELECT_002.execute(condition)) != null);
+	}
+
+}
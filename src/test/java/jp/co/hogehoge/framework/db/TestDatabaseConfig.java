@@ -54,4 +54,521 @@ public class TestDatabaseConfig {
 		assertThat("リトライ時の待機時間が取得できること", actual, equalTo(1000));
 	}
 
+	/**
+	 * 一括ローダーの収集待機時間が取得できること。
+	 */
+	@Test
+	public void BATCH_LOADER_WINDOW_01() {
+		// act
+		Integer actual = DatabaseConfig.BATCH_LOADER_WINDOW.get();
+		// assert
+		assertThat("一括ローダーの収集待機時間が取得できること", actual, equalTo(5));
+	}
+
+	/**
+	 * 一括ローダーの最大キー数が取得できること。
+	 */
+	@Test
+	public void BATCH_LOADER_MAX_SIZE_01() {
+		// act
+		Integer actual = DatabaseConfig.BATCH_LOADER_MAX_SIZE.get();
+		// assert
+		assertThat("一括ローダーの最大キー数が取得できること", actual, equalTo(100));
+	}
+
+	/**
+	 * SQL実行結果キャッシュの上限件数が取得できること。
+	 */
+	@Test
+	public void QUERY_CACHE_SIZE_01() {
+		// act
+		Integer actual = DatabaseConfig.QUERY_CACHE_SIZE.get();
+		// assert
+		assertThat("SQL実行結果キャッシュの上限件数が取得できること", actual, equalTo(10000));
+	}
+
+	/**
+	 * SQL実行結果キャッシュのストライプ数が取得できること。
+	 */
+	@Test
+	public void QUERY_CACHE_STRIPES_01() {
+		// act
+		Integer actual = DatabaseConfig.QUERY_CACHE_STRIPES.get();
+		// assert
+		assertThat("SQL実行結果キャッシュのストライプ数が取得できること", actual, equalTo(16));
+	}
+
+	/**
+	 * エンティティ・キャッシュの上限件数が取得できること。
+	 */
+	@Test
+	public void ENTITY_CACHE_CAPACITY_01() {
+		// act
+		Integer actual = DatabaseConfig.ENTITY_CACHE_CAPACITY.get();
+		// assert
+		assertThat("エンティティ・キャッシュの上限件数が取得できること", actual, equalTo(1000));
+	}
+
+	/**
+	 * グループ・コミットの最大処理数が取得できること。
+	 */
+	@Test
+	public void GROUP_COMMIT_MAX_SIZE_01() {
+		// act
+		Integer actual = DatabaseConfig.GROUP_COMMIT_MAX_SIZE.get();
+		// assert
+		assertThat("グループ・コミットの最大処理数が取得できること", actual, equalTo(100));
+	}
+
+	/**
+	 * グループ・コミットの最大待機時間が取得できること。
+	 */
+	@Test
+	public void GROUP_COMMIT_WAIT_01() {
+		// act
+		Integer actual = DatabaseConfig.GROUP_COMMIT_WAIT.get();
+		// assert
+		assertThat("グループ・コミットの最大待機時間が取得できること", actual, equalTo(5));
+	}
+
+	/**
+	 * トランザクション再実行の上限回数が取得できること。
+	 */
+	@Test
+	public void REPLAY_COUNT_01() {
+		// act
+		Integer actual = DatabaseConfig.REPLAY_COUNT.get();
+		// assert
+		assertThat("トランザクション再実行の上限回数が取得できること", actual, equalTo(3));
+	}
+
+	/**
+	 * トランザクション再実行時の初回待機時間が取得できること。
+	 */
+	@Test
+	public void REPLAY_WAIT_01() {
+		// act
+		Integer actual = DatabaseConfig.REPLAY_WAIT.get();
+		// assert
+		assertThat("トランザクション再実行時の初回待機時間が取得できること", actual, equalTo(50));
+	}
+
+	/**
+	 * トランザクション再実行時の最大待機時間が取得できること。
+	 */
+	@Test
+	public void REPLAY_MAX_WAIT_01() {
+		// act
+		Integer actual = DatabaseConfig.REPLAY_MAX_WAIT.get();
+		// assert
+		assertThat("トランザクション再実行時の最大待機時間が取得できること", actual, equalTo(2000));
+	}
+
+	/**
+	 * トランザクション再実行を行う期限が取得できること。
+	 */
+	@Test
+	public void REPLAY_TIMEOUT_01() {
+		// act
+		Integer actual = DatabaseConfig.REPLAY_TIMEOUT.get();
+		// assert
+		assertThat("トランザクション再実行を行う期限が取得できること", actual, equalTo(10000));
+	}
+
+	/**
+	 * 既定のリトライ方針が取得できること。
+	 */
+	@Test
+	public void RETRY_POLICY_01() {
+		// act
+		String actual = DatabaseConfig.RETRY_POLICY.get();
+		// assert
+		assertThat("既定のリトライ方針が取得できること", actual, equalTo("fixed"));
+	}
+
+	/**
+	 * リトライ時の最大待機時間が取得できること。
+	 */
+	@Test
+	public void RETRY_MAX_WAIT_01() {
+		// act
+		Integer actual = DatabaseConfig.RETRY_MAX_WAIT.get();
+		// assert
+		assertThat("リトライ時の最大待機時間が取得できること", actual, equalTo(10000));
+	}
+
+	/**
+	 * リトライ上限のトークン数が取得できること。
+	 */
+	@Test
+	public void RETRY_BUDGET_CAPACITY_01() {
+		// act
+		Integer actual = DatabaseConfig.RETRY_BUDGET_CAPACITY.get();
+		// assert
+		assertThat("リトライ上限のトークン数が取得できること", actual, equalTo(100));
+	}
+
+	/**
+	 * リトライ上限の補充数が取得できること。
+	 */
+	@Test
+	public void RETRY_BUDGET_RATE_01() {
+		// act
+		Integer actual = DatabaseConfig.RETRY_BUDGET_RATE.get();
+		// assert
+		assertThat("リトライ上限の補充数が取得できること", actual, equalTo(10));
+	}
+
+	/**
+	 * サーキット・ブレーカーの有効設定が取得できること。
+	 */
+	@Test
+	public void CIRCUIT_BREAKER_ENABLED_01() {
+		// act
+		String actual = DatabaseConfig.CIRCUIT_BREAKER_ENABLED.get();
+		// assert
+		assertThat("サーキット・ブレーカーの有効設定が取得できること", actual, equalTo("false"));
+	}
+
+	/**
+	 * サーキット・ブレーカーの障害率を算出する処理数が取得できること。
+	 */
+	@Test
+	public void CIRCUIT_BREAKER_WINDOW_01() {
+		// act
+		Integer actual = DatabaseConfig.CIRCUIT_BREAKER_WINDOW.get();
+		// assert
+		assertThat("サーキット・ブレーカーの障害率を算出する処理数が取得できること", actual, equalTo(20));
+	}
+
+	/**
+	 * サーキット・ブレーカーの最小処理数が取得できること。
+	 */
+	@Test
+	public void CIRCUIT_BREAKER_MINIMUM_CALLS_01() {
+		// act
+		Integer actual = DatabaseConfig.CIRCUIT_BREAKER_MINIMUM_CALLS.get();
+		// assert
+		assertThat("サーキット・ブレーカーの最小処理数が取得できること", actual, equalTo(10));
+	}
+
+	/**
+	 * サーキット・ブレーカーの障害率が取得できること。
+	 */
+	@Test
+	public void CIRCUIT_BREAKER_THRESHOLD_01() {
+		// act
+		Integer actual = DatabaseConfig.CIRCUIT_BREAKER_THRESHOLD.get();
+		// assert
+		assertThat("サーキット・ブレーカーの障害率が取得できること", actual, equalTo(50));
+	}
+
+	/**
+	 * サーキット・ブレーカーの遮断時間が取得できること。
+	 */
+	@Test
+	public void CIRCUIT_BREAKER_OPEN_TIME_01() {
+		// act
+		Integer actual = DatabaseConfig.CIRCUIT_BREAKER_OPEN_TIME.get();
+		// assert
+		assertThat("サーキット・ブレーカーの遮断時間が取得できること", actual, equalTo(30000));
+	}
+
+	/**
+	 * サーキット・ブレーカーのSQLSTATEが取得できること。
+	 */
+	@Test
+	public void CIRCUIT_BREAKER_SQL_STATE_01() {
+		// act
+		String actual = DatabaseConfig.CIRCUIT_BREAKER_SQL_STATE.get();
+		// assert
+		assertThat("サーキット・ブレーカーのSQLSTATEが取得できること", actual, equalTo("08;57011;57019;57030"));
+	}
+
+	/**
+	 * サーキット・ブレーカーの確認用SQLが取得できること。
+	 */
+	@Test
+	public void CIRCUIT_BREAKER_PROBE_01() {
+		// act
+		String actual = DatabaseConfig.CIRCUIT_BREAKER_PROBE.get();
+		// assert
+		assertThat("サーキット・ブレーカーの確認用SQLが取得できること", actual, equalTo("SELECT 1 FROM SYSIBM.SYSDUMMY1"));
+	}
+
+	/**
+	 * コネクション・プールの使用有無が取得できること。
+	 */
+	@Test
+	public void POOL_ENABLED_01() {
+		// act
+		String actual = DatabaseConfig.POOL_ENABLED.get();
+		// assert
+		assertThat("コネクション・プールの使用有無が取得できること", actual, equalTo("false"));
+	}
+
+	/**
+	 * コネクション・プールの接続先URLが取得できること。
+	 */
+	@Test
+	public void POOL_URL_01() {
+		// act
+		String actual = DatabaseConfig.POOL_URL.get();
+		// assert
+		assertThat("コネクション・プールの接続先URLが取得できること", actual, equalTo(""));
+	}
+
+	/**
+	 * コネクション・プールの接続ユーザーが取得できること。
+	 */
+	@Test
+	public void POOL_USER_01() {
+		// act
+		String actual = DatabaseConfig.POOL_USER.get();
+		// assert
+		assertThat("コネクション・プールの接続ユーザーが取得できること", actual, equalTo(""));
+	}
+
+	/**
+	 * コネクション・プールの接続パスワードが取得できること。
+	 */
+	@Test
+	public void POOL_PASSWORD_01() {
+		// act
+		String actual = DatabaseConfig.POOL_PASSWORD.get();
+		// assert
+		assertThat("コネクション・プールの接続パスワードが取得できること", actual, equalTo(""));
+	}
+
+	/**
+	 * コネクション・プールの最小未使用コネクション数が取得できること。
+	 */
+	@Test
+	public void POOL_MIN_IDLE_01() {
+		// act
+		Integer actual = DatabaseConfig.POOL_MIN_IDLE.get();
+		// assert
+		assertThat("コネクション・プールの最小未使用コネクション数が取得できること", actual, equalTo(2));
+	}
+
+	/**
+	 * コネクション・プールの最大コネクション数が取得できること。
+	 */
+	@Test
+	public void POOL_MAX_SIZE_01() {
+		// act
+		Integer actual = DatabaseConfig.POOL_MAX_SIZE.get();
+		// assert
+		assertThat("コネクション・プールの最大コネクション数が取得できること", actual, equalTo(20));
+	}
+
+	/**
+	 * コネクション取得時の最大待機時間が取得できること。
+	 */
+	@Test
+	public void POOL_CONNECTION_TIMEOUT_01() {
+		// act
+		Integer actual = DatabaseConfig.POOL_CONNECTION_TIMEOUT.get();
+		// assert
+		assertThat("コネクション取得時の最大待機時間が取得できること", actual, equalTo(30000));
+	}
+
+	/**
+	 * 未使用コネクションの破棄時間が取得できること。
+	 */
+	@Test
+	public void POOL_IDLE_TIMEOUT_01() {
+		// act
+		Integer actual = DatabaseConfig.POOL_IDLE_TIMEOUT.get();
+		// assert
+		assertThat("未使用コネクションの破棄時間が取得できること", actual, equalTo(600000));
+	}
+
+	/**
+	 * コネクションの最大生存時間が取得できること。
+	 */
+	@Test
+	public void POOL_MAX_LIFETIME_01() {
+		// act
+		Integer actual = DatabaseConfig.POOL_MAX_LIFETIME.get();
+		// assert
+		assertThat("コネクションの最大生存時間が取得できること", actual, equalTo(1800000));
+	}
+
+	/**
+	 * コネクション返却の警告時間が取得できること。
+	 */
+	@Test
+	public void POOL_LEAK_DETECTION_01() {
+		// act
+		Integer actual = DatabaseConfig.POOL_LEAK_DETECTION.get();
+		// assert
+		assertThat("コネクション返却の警告時間が取得できること", actual, equalTo(0));
+	}
+
+	/**
+	 * コネクション・プールの保守処理の実行間隔が取得できること。
+	 */
+	@Test
+	public void POOL_HOUSEKEEPING_01() {
+		// act
+		Integer actual = DatabaseConfig.POOL_HOUSEKEEPING.get();
+		// assert
+		assertThat("コネクション・プールの保守処理の実行間隔が取得できること", actual, equalTo(30000));
+	}
+
+	/**
+	 * コネクションの接続を確認する際の最大待機時間が取得できること。
+	 */
+	@Test
+	public void VALIDATION_TIMEOUT_01() {
+		// act
+		Integer actual = DatabaseConfig.VALIDATION_TIMEOUT.get();
+		// assert
+		assertThat("コネクションの接続を確認する際の最大待機時間が取得できること", actual, equalTo(5));
+	}
+
+	/**
+	 * 直近に使用したコネクションの接続の確認を省略する時間が取得できること。
+	 */
+	@Test
+	public void VALIDATION_INTERVAL_01() {
+		// act
+		Integer actual = DatabaseConfig.VALIDATION_INTERVAL.get();
+		// assert
+		assertThat("直近に使用したコネクションの接続の確認を省略する時間が取得できること", actual, equalTo(500));
+	}
+
+	/**
+	 * ワークロード毎に同時に使用できるコネクション数が取得できること。
+	 */
+	@Test
+	public void BULKHEAD_01() {
+		// act
+		String actual = DatabaseConfig.BULKHEAD.get();
+		// assert
+		assertThat("ワークロード毎に同時に使用できるコネクション数が取得できること", actual, equalTo(""));
+	}
+
+	/**
+	 * ワークロードの同時実行数の上限に達している場合の最大待機時間が取得できること。
+	 */
+	@Test
+	public void BULKHEAD_TIMEOUT_01() {
+		// act
+		Integer actual = DatabaseConfig.BULKHEAD_TIMEOUT.get();
+		// assert
+		assertThat("ワークロードの同時実行数の上限に達している場合の最大待機時間が取得できること", actual, equalTo(1000));
+	}
+
+	/**
+	 * 読み取り用レプリカのデータ・ソース名が取得できること。
+	 */
+	@Test
+	public void REPLICA_DATA_SOURCE_NAME_01() {
+		// act
+		String actual = DatabaseConfig.REPLICA_DATA_SOURCE_NAME.get();
+		// assert
+		assertThat("読み取り用レプリカのデータ・ソース名が取得できること", actual, equalTo(""));
+	}
+
+	/**
+	 * 読み取り用レプリカの取得に失敗した場合にプライマリを使用する時間が取得できること。
+	 */
+	@Test
+	public void REPLICA_RETRY_INTERVAL_01() {
+		// act
+		Integer actual = DatabaseConfig.REPLICA_RETRY_INTERVAL.get();
+		// assert
+		assertThat("読み取り用レプリカの取得に失敗した場合にプライマリを使用する時間が取得できること", actual, equalTo(30000));
+	}
+
+	/**
+	 * 読み取り用レプリカのコネクション・プールの接続先URLが取得できること。
+	 */
+	@Test
+	public void POOL_REPLICA_URL_01() {
+		// act
+		String actual = DatabaseConfig.POOL_REPLICA_URL.get();
+		// assert
+		assertThat("読み取り用レプリカのコネクション・プールの接続先URLが取得できること", actual, equalTo(""));
+	}
+
+	/**
+	 * シャード毎のデータ・ソース名が取得できること。
+	 */
+	@Test
+	public void SHARDS_01() {
+		// act
+		String actual = DatabaseConfig.SHARDS.get();
+		// assert
+		assertThat("シャード毎のデータ・ソース名が取得できること", actual, equalTo(""));
+	}
+
+	/**
+	 * SQLのウォームアップの並列数が取得できること。
+	 */
+	@Test
+	public void WARM_UP_PARALLELISM_01() {
+		// act
+		Integer actual = DatabaseConfig.WARM_UP_PARALLELISM.get();
+		// assert
+		assertThat("SQLのウォームアップの並列数が取得できること", actual, equalTo(4));
+	}
+
+	/**
+	 * 非同期実行のスレッド数が取得できること。
+	 */
+	@Test
+	public void ASYNC_POOL_SIZE_01() {
+		// act
+		Integer actual = DatabaseConfig.ASYNC_POOL_SIZE.get();
+		// assert
+		assertThat("非同期実行のスレッド数が取得できること", actual, equalTo(0));
+	}
+
+	/**
+	 * 非同期実行の実行待ちの上限数が取得できること。
+	 */
+	@Test
+	public void ASYNC_QUEUE_SIZE_01() {
+		// act
+		Integer actual = DatabaseConfig.ASYNC_QUEUE_SIZE.get();
+		// assert
+		assertThat("非同期実行の実行待ちの上限数が取得できること", actual, equalTo(1000));
+	}
+
+	/**
+	 * カーソルで1回に取得するレコード数の上限が取得できること。
+	 */
+	@Test
+	public void STREAM_FETCH_SIZE_01() {
+		// act
+		Integer actual = DatabaseConfig.STREAM_FETCH_SIZE.get();
+		// assert
+		assertThat("カーソルで1回に取得するレコード数の上限が取得できること", actual, equalTo(500));
+	}
+
+	/**
+	 * 並列実行の制限時間が取得できること。
+	 */
+	@Test
+	public void PARALLEL_TIMEOUT_01() {
+		// act
+		Integer actual = DatabaseConfig.PARALLEL_TIMEOUT.get();
+		// assert
+		assertThat("並列実行の制限時間が取得できること", actual, equalTo(30000));
+	}
+
+	/**
+	 * 全てのシャードで並列に実行するスレッド数の上限が取得できること。
+	 */
+	@Test
+	public void SHARD_POOL_SIZE_01() {
+		// act
+		Integer actual = DatabaseConfig.SHARD_POOL_SIZE.get();
+		// assert
+		assertThat("全てのシャードで並列に実行するスレッド数の上限が取得できること", actual, equalTo(0));
+	}
+
 }
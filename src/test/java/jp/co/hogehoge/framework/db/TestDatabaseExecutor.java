@@ -0,0 +1,93 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jp.co.hogehoge.framework.test.db.TestDB;
+import untest.conf.TestDBConfig;
+import untest.entity.AllTypeEntity;
+import untest.sql.UnitTestSql;
+
+public class TestDatabaseExecutor {
+
+	// データ・ソースの設定
+	@BeforeClass
+	public static void beforeClass() {
+		TestDB.setup(DatabaseConfig.DATA_SOURCE_NAME.get(), // データ・ソース
+				TestDBConfig.HOST.get(), // ホスト名
+				TestDBConfig.PORT.get(), // ポート番号
+				TestDBConfig.DATABASE.get(), // データベース名
+				TestDBConfig.USER.get(), // ユーザー名
+				TestDBConfig.PASSWORD.get(), // パスワード
+				TestDBConfig.OPTION.get()); // 接続オプション
+	}
+
+	/**
+	 * SQLが非同期に実行されること。
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void executeAsync_01() throws Exception {
+		// arrange
+		AllTypeEntity condition = (new AllTypeEntity()).setCharColumn("12345");
+		// act
+		CompletableFuture<List<AllTypeEntity>> actual = UnitTestSql.SELECT_002.executeAsync(condition);
+		// assert
+		assertTrue("SQL実行結果が取得できること", actual.get(30, TimeUnit.SECONDS) != null);
+		assertFalse("呼び出し元のスレッドでトランザクションが開始されないこと", Transaction.isActive());
+	}
+
+	/**
+	 * 取り消した場合、実行中のステートメントが中止されること。
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void cancel_01() throws Exception {
+		// arrange
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		Statement statement = (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+				new Class<?>[] { Statement.class }, (proxy, method, args) -> {
+					if ("cancel".equals(method.getName())) {
+						cancelled.countDown();
+					}
+					return null;
+				});
+		CompletableFuture<Integer> future = DatabaseExecutor.submit(() -> {
+			DatabaseExecutor.running(statement);
+			started.countDown();
+			try {
+				cancelled.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return 1;
+		});
+		started.await(30, TimeUnit.SECONDS);
+		// act
+		future.cancel(true);
+		// assert
+		assertTrue("ステートメントが中止されること", cancelled.await(30, TimeUnit.SECONDS));
+		try {
+			future.join();
+			fail("実行された場合はNG");
+		} catch (CancellationException e) {
+			// NOP
+		}
+	}
+
+}
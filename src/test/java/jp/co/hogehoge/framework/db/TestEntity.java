@@ -8,7 +8,9 @@ import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
@@ -111,4 +113,21 @@ public class TestEntity {
 		assertThat("想定されるスネークケースへ変換されること", actual, equalTo("VARCHAR"));
 	}
 
+	/**
+	 * リストに格納したエンティティが複製され、複製元と同じ値を持つこと。
+	 */
+	@Test
+	public void copyOf_01() {
+		// arrange
+		AllTypeEntity entity = (new AllTypeEntity()).setVarcharColumn("12345").setBlobColumn("あいうえお".getBytes());
+		List<AllTypeEntity> original = Arrays.asList(entity);
+		// act
+		List<AllTypeEntity> actual = Entity.copyOf(original);
+		// assert
+		assertThat("同じ値を持つこと", actual, equalTo(original));
+		assertTrue("リストが複製されること", actual != original);
+		assertTrue("エンティティが複製されること", actual.get(0) != entity);
+		assertTrue("BLOBが複製されること", actual.get(0).getBlobColumn() != entity.getBlobColumn());
+	}
+
 }
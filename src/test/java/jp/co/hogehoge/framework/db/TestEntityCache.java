@@ -0,0 +1,122 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import untest.entity.AllTypeEntity;
+
+public class TestEntityCache {
+
+	// 参照テーブル名リスト
+	private final Collection<String> tables = Collections.singletonList("UNIT_TEST_ENTITY_TABLE");
+
+	// SQL実行回数
+	private final AtomicInteger count = new AtomicInteger();
+
+	// キャッシュの削除
+	@Before
+	public void before() {
+		EntityCache.configure(AllTypeEntity.class, 2);
+		EntityCache.clear();
+	}
+
+	/**
+	 * 同一の主キーで取得した場合にSQLが実行されず、ヒット数が計上されること。
+	 */
+	@Test
+	public void get_01() {
+		// arrange
+		long hits = EntityCache.getStatistics(AllTypeEntity.class).getHitCount();
+		// act
+		EntityCache.get(AllTypeEntity.class, tables, key("12345"), () -> count.incrementAndGet());
+		Integer actual = EntityCache.get(AllTypeEntity.class, tables, key("12345"), () -> count.incrementAndGet());
+		// assert
+		assertThat("キャッシュした実行結果が取得できること", actual, equalTo(1));
+		assertThat("ヒット数が計上されること", EntityCache.getStatistics(AllTypeEntity.class).getHitCount(),
+				equalTo(hits + 1));
+	}
+
+	/**
+	 * 取得したエンティティを変更してもキャッシュしたエンティティに影響しないこと。
+	 */
+	@Test
+	public void get_02() {
+		// arrange
+		Optional<AllTypeEntity> first = EntityCache.get(AllTypeEntity.class, tables, key("12345"),
+				() -> Optional.of(new AllTypeEntity().setVarcharColumn("12345")));
+		first.get().setVarcharColumn("changed");
+		// act
+		Optional<AllTypeEntity> second = EntityCache.get(AllTypeEntity.class, tables, key("12345"),
+				() -> Optional.of(new AllTypeEntity()));
+		second.get().setVarcharColumn("other");
+		Optional<AllTypeEntity> actual = EntityCache.get(AllTypeEntity.class, tables, key("12345"),
+				() -> Optional.of(new AllTypeEntity()));
+		// assert
+		assertThat("キャッシュしたエンティティが変更されないこと", actual.get().getVarcharColumn(), equalTo("12345"));
+	}
+
+	/**
+	 * 主キーを指定して削除した場合に該当するエントリーのみ削除されること。
+	 */
+	@Test
+	public void evict_01() {
+		// arrange
+		EntityCache.get(AllTypeEntity.class, tables, key("12345"), () -> count.incrementAndGet());
+		EntityCache.get(AllTypeEntity.class, tables, key("54321"), () -> count.incrementAndGet());
+		// act
+		EntityCache.evict(tables, key("12345"));
+		Integer actual1 = EntityCache.get(AllTypeEntity.class, tables, key("12345"), () -> count.incrementAndGet());
+		Integer actual2 = EntityCache.get(AllTypeEntity.class, tables, key("54321"), () -> count.incrementAndGet());
+		// assert
+		assertThat("削除したエントリーは再取得されること", actual1, equalTo(3));
+		assertThat("削除していないエントリーは保持されること", actual2, equalTo(2));
+	}
+
+	/**
+	 * 主キーを指定せずに削除した場合にテーブルに紐付く領域全体が削除されること。
+	 */
+	@Test
+	public void evict_02() {
+		// arrange
+		EntityCache.get(AllTypeEntity.class, tables, key("12345"), () -> count.incrementAndGet());
+		// act
+		EntityCache.evict(tables, null);
+		// assert
+		assertThat("領域全体が削除されること", EntityCache.getStatistics(AllTypeEntity.class).getSize(), equalTo(0));
+	}
+
+	/**
+	 * 上限件数を超えた場合に最も参照されていないエントリーが削除されること。
+	 */
+	@Test
+	public void configure_01() {
+		// arrange
+		long evictions = EntityCache.getStatistics(AllTypeEntity.class).getEvictionCount();
+		// act
+		EntityCache.get(AllTypeEntity.class, tables, key("00001"), () -> count.incrementAndGet());
+		EntityCache.get(AllTypeEntity.class, tables, key("00002"), () -> count.incrementAndGet());
+		EntityCache.get(AllTypeEntity.class, tables, key("00003"), () -> count.incrementAndGet());
+		// assert
+		assertThat("上限件数を超えないこと", EntityCache.getStatistics(AllTypeEntity.class).getSize(), equalTo(2));
+		assertThat("削除数が計上されること", EntityCache.getStatistics(AllTypeEntity.class).getEvictionCount(),
+				equalTo(evictions + 1));
+	}
+
+	// 主キーの生成
+	private static Map<String, Object> key(String value) {
+		Map<String, Object> key = new HashMap<>();
+		key.put("VARCHAR_COLUMN", value);
+		return key;
+	}
+
+}
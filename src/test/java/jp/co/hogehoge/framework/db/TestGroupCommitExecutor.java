@@ -0,0 +1,165 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jp.co.hogehoge.framework.db.exception.TransactionException;
+import jp.co.hogehoge.framework.test.db.TestDB;
+import untest.conf.TestDBConfig;
+import untest.entity.AllTypeEntity;
+import untest.sql.UnitTestSql;
+
+public class TestGroupCommitExecutor {
+
+	// 初期登録データ
+	private final AllTypeEntity initData = (new AllTypeEntity()).setVarcharColumn("12345")
+			.setCharColumn("12345")
+			.setIntegerColumn(1)
+			.setDateColumn(LocalDate.now())
+			.setDoubleColumn(12.5)
+			.setClobColumn("あいうえお")
+			.setBlobColumn("あいうえお".getBytes())
+			.setBigDecimalColumn(BigDecimal.valueOf(22.30))
+			.setLongColumn((long) 12345)
+			.setTimestampColumn(LocalDateTime.now());
+
+	// データ・ソースの設定
+	@BeforeClass
+	public static void beforeClass() {
+		TestDB.setup(DatabaseConfig.DATA_SOURCE_NAME.get(), // データ・ソース
+				TestDBConfig.HOST.get(), // ホスト名
+				TestDBConfig.PORT.get(), // ポート番号
+				TestDBConfig.DATABASE.get(), // データベース名
+				TestDBConfig.USER.get(), // ユーザー名
+				TestDBConfig.PASSWORD.get(), // パスワード
+				TestDBConfig.OPTION.get()); // 接続オプション
+	}
+
+	// テスト用テーブルの構築と初期データの登録
+	@Before
+	public void before() {
+		Transaction.execute(() -> {
+			try {
+				UnitTestSql.SELECT_001.execute(initData); // テーブルが存在していない場合エラー
+				UnitTestSql.DELETE_001.execute();
+			} catch (Exception e) { // テーブルが存在していない場合
+				UnitTestSql.CREATE_001.execute();
+			}
+			UnitTestSql.INSERT_001.execute(initData);
+		});
+	}
+
+	/**
+	 * 登録した処理がまとめてコミットされ、コミット後に処理結果が確定すること。
+	 */
+	@Test
+	public void submit_01() {
+		// arrange
+		AllTypeEntity data1 = initData.clone().setVarcharColumn("00001");
+		AllTypeEntity data2 = initData.clone().setVarcharColumn("00002");
+		// act
+		CompletableFuture<Integer> future1;
+		CompletableFuture<Integer> future2;
+		try (GroupCommitExecutor executor = new GroupCommitExecutor(10, 100)) {
+			future1 = executor.submit(() -> UnitTestSql.INSERT_001.execute(data1));
+			future2 = executor.submit(() -> UnitTestSql.INSERT_001.execute(data2));
+		}
+		// assert
+		assertThat("処理結果が確定すること", future1.join(), equalTo(1));
+		assertThat("処理結果が確定すること", future2.join(), equalTo(1));
+		List<AllTypeEntity> records = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(initData));
+		assertThat("全ての処理がコミットされていること", records.size(), equalTo(3));
+	}
+
+	/**
+	 * エラーが発生した処理のみロールバックされ、他の処理はコミットされること。
+	 */
+	@Test
+	public void submit_02() {
+		// arrange
+		AllTypeEntity data1 = initData.clone().setVarcharColumn("00001");
+		AllTypeEntity data2 = initData.clone().setVarcharColumn("00002");
+		// act
+		CompletableFuture<Integer> future1;
+		CompletableFuture<Void> future2;
+		try (GroupCommitExecutor executor = new GroupCommitExecutor(10, 100)) {
+			future1 = executor.submit(() -> UnitTestSql.INSERT_001.execute(data1));
+			future2 = executor.submit(() -> {
+				UnitTestSql.INSERT_001.execute(data2);
+				throw new IllegalStateException("rollback");
+			});
+		}
+		// assert
+		assertThat("正常終了した処理の結果が確定すること", future1.join(), equalTo(1));
+		try {
+			future2.join();
+			fail("正常終了した場合はNG");
+		} catch (CompletionException e) {
+			assertThat("エラーが通知されること", e.getCause(), instanceOf(TransactionException.class));
+		}
+		List<AllTypeEntity> records = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(initData));
+		assertThat("エラーが発生した処理のみロールバックされていること", records.size(), equalTo(2));
+	}
+
+	/**
+	 * 停止後は処理を受け付けないこと。
+	 */
+	@Test(expected = TransactionException.class)
+	public void submit_03() {
+		// arrange
+		GroupCommitExecutor executor = new GroupCommitExecutor();
+		executor.close();
+		// act
+		executor.submit(() -> UnitTestSql.INSERT_001.execute(initData));
+	}
+
+	/**
+	 * 処理からErrorがスローされた場合、まとめて実行した処理にエラーが通知され、書き込みスレッドは継続すること。
+	 */
+	@Test
+	public void submit_04() {
+		// arrange
+		AllTypeEntity data1 = initData.clone().setVarcharColumn("00001");
+		AllTypeEntity data2 = initData.clone().setVarcharColumn("00002");
+		Error error = new Error("unit");
+		// act
+		CompletableFuture<Integer> future1;
+		CompletableFuture<Void> future2;
+		CompletableFuture<Integer> future3;
+		try (GroupCommitExecutor executor = new GroupCommitExecutor(10, 100)) {
+			future1 = executor.submit(() -> UnitTestSql.INSERT_001.execute(data1));
+			future2 = executor.submit(() -> {
+				throw error;
+			});
+			future1.handle((r, e) -> null).join();
+			future3 = executor.submit(() -> UnitTestSql.INSERT_001.execute(data2));
+		}
+		// assert
+		try {
+			future1.join();
+			fail("正常終了した場合はNG");
+		} catch (CompletionException e) {
+			assertThat("同じトランザクションの処理にエラーが通知されること", e.getCause(), sameInstance(error));
+		}
+		assertTrue("エラーが通知されること", future2.isCompletedExceptionally());
+		assertThat("後続の処理が実行されること", future3.join(), equalTo(1));
+		List<AllTypeEntity> records = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(initData));
+		assertThat("Errorが発生したトランザクションはロールバックされていること", records.size(), equalTo(2));
+	}
+
+}
@@ -0,0 +1,135 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import untest.entity.AllTypeEntity;
+
+import org.junit.Test;
+
+public class TestQueryCache {
+
+	// 参照テーブル名リスト
+	private final Collection<String> tables = Collections.singletonList("UNIT_TEST_CACHE_TABLE");
+
+	/**
+	 * 有効なエントリーが存在する場合にSQLが実行されないこと。
+	 */
+	@Test
+	public void get_01() {
+		// arrange
+		QueryCache cache = new QueryCache(10, 2);
+		AtomicInteger count = new AtomicInteger();
+		SqlKey key = new SqlKey("sql.test.select001", null);
+		// act
+		cache.get(key, tables, 60000, () -> count.incrementAndGet());
+		Integer actual = cache.get(key, tables, 60000, () -> count.incrementAndGet());
+		// assert
+		assertThat("キャッシュした実行結果が取得できること", actual, equalTo(1));
+		assertThat("SQLが1回のみ実行されること", count.get(), equalTo(1));
+	}
+
+	/**
+	 * 参照テーブルが更新された場合にSQLが再実行されること。
+	 */
+	@Test
+	public void get_02() {
+		// arrange
+		QueryCache cache = new QueryCache(10, 2);
+		AtomicInteger count = new AtomicInteger();
+		SqlKey key = new SqlKey("sql.test.select001", null);
+		cache.get(key, tables, 60000, () -> count.incrementAndGet());
+		// act
+		TableVersions.invalidate(tables);
+		Integer actual = cache.get(key, tables, 60000, () -> count.incrementAndGet());
+		// assert
+		assertThat("再実行した結果が取得できること", actual, equalTo(2));
+	}
+
+	/**
+	 * 有効期間を経過した場合にSQLが再実行されること。
+	 * 
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void get_03() throws InterruptedException {
+		// arrange
+		QueryCache cache = new QueryCache(10, 2);
+		AtomicInteger count = new AtomicInteger();
+		SqlKey key = new SqlKey("sql.test.select001", null);
+		cache.get(key, tables, 1, () -> count.incrementAndGet());
+		Thread.sleep(10);
+		// act
+		Integer actual = cache.get(key, tables, 1, () -> count.incrementAndGet());
+		// assert
+		assertThat("再実行した結果が取得できること", actual, equalTo(2));
+	}
+
+	/**
+	 * 上限件数を超えた場合に最も参照されていないエントリーが削除されること。
+	 */
+	@Test
+	public void get_04() {
+		// arrange
+		QueryCache cache = new QueryCache(2, 1);
+		AtomicInteger count = new AtomicInteger();
+		SqlKey key1 = new SqlKey("sql.test.select001", null);
+		SqlKey key2 = new SqlKey("sql.test.select002", null);
+		SqlKey key3 = new SqlKey("sql.test.select003", null);
+		cache.get(key1, tables, 60000, () -> count.incrementAndGet());
+		cache.get(key2, tables, 60000, () -> count.incrementAndGet());
+		cache.get(key1, tables, 60000, () -> count.incrementAndGet()); // key1を参照
+		cache.get(key3, tables, 60000, () -> count.incrementAndGet()); // key2が削除される
+		// act
+		Integer actual1 = cache.get(key1, tables, 60000, () -> count.incrementAndGet());
+		Integer actual2 = cache.get(key2, tables, 60000, () -> count.incrementAndGet());
+		// assert
+		assertThat("参照されたエントリーは保持されること", actual1, equalTo(1));
+		assertThat("参照されていないエントリーは削除されること", actual2, equalTo(4));
+	}
+
+	/**
+	 * SQL実行中に参照テーブルが更新された場合はキャッシュされないこと。
+	 */
+	@Test
+	public void get_05() {
+		// arrange
+		QueryCache cache = new QueryCache(10, 2);
+		AtomicInteger count = new AtomicInteger();
+		SqlKey key = new SqlKey("sql.test.select001", null);
+		cache.get(key, Arrays.asList("UNIT_TEST_CACHE_TABLE"), 60000, () -> {
+			TableVersions.invalidate(tables);
+			return count.incrementAndGet();
+		});
+		// act
+		Integer actual = cache.get(key, tables, 60000, () -> count.incrementAndGet());
+		// assert
+		assertThat("再実行した結果が取得できること", actual, equalTo(2));
+	}
+
+	/**
+	 * 呼び出し元が実行結果を変更してもキャッシュに影響しないこと。
+	 */
+	@Test
+	public void get_06() {
+		// arrange
+		QueryCache cache = new QueryCache(10, 2);
+		SqlKey key = new SqlKey("sql.test.select001", null);
+		AllTypeEntity first = cache.get(key, tables, 60000, () -> (new AllTypeEntity()).setVarcharColumn("12345"));
+		first.setVarcharColumn("changed");
+		// act
+		AllTypeEntity second = cache.get(key, tables, 60000, () -> (new AllTypeEntity()).setVarcharColumn("other"));
+		second.setVarcharColumn("changed again");
+		AllTypeEntity actual = cache.get(key, tables, 60000, () -> (new AllTypeEntity()).setVarcharColumn("other"));
+		// assert
+		assertThat("キャッシュした値が変更されないこと", actual.getVarcharColumn(), equalTo("12345"));
+		assertTrue("取得毎に別のインスタンスが返却されること", actual != second);
+	}
+
+}
@@ -0,0 +1,140 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jp.co.hogehoge.framework.db.QueryGroup.Query;
+import jp.co.hogehoge.framework.db.exception.SqlExecuteException;
+import jp.co.hogehoge.framework.test.db.TestDB;
+import untest.conf.TestDBConfig;
+import untest.entity.AllTypeEntity;
+import untest.sql.UnitTestSql;
+
+public class TestQueryGroup {
+
+	// SQLプロパティ名
+	private static final String FILE_NAME = "test_sql.properties";
+
+	// 検索条件
+	private final AllTypeEntity condition = (new AllTypeEntity()).setVarcharColumn("12345").setCharColumn("12345");
+
+	// データ・ソースの設定
+	@BeforeClass
+	public static void beforeClass() {
+		TestDB.setup(DatabaseConfig.DATA_SOURCE_NAME.get(), // データ・ソース
+				TestDBConfig.HOST.get(), // ホスト名
+				TestDBConfig.PORT.get(), // ポート番号
+				TestDBConfig.DATABASE.get(), // データベース名
+				TestDBConfig.USER.get(), // ユーザー名
+				TestDBConfig.PASSWORD.get(), // パスワード
+				TestDBConfig.OPTION.get()); // 接続オプション
+	}
+
+	/**
+	 * 並列に実行したSELECT処理の実行結果が、個別に実行した結果と一致すること。
+	 */
+	@Test
+	public void execute_01() {
+		// arrange
+		Optional<AllTypeEntity> single = Transaction.execute(() -> UnitTestSql.SELECT_001.execute(condition));
+		List<AllTypeEntity> list = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(condition));
+		QueryGroup group = Transaction.parallel();
+		Query<Optional<AllTypeEntity>> actual1 = group.add(UnitTestSql.SELECT_001, condition);
+		Query<List<AllTypeEntity>> actual2 = group.add(UnitTestSql.SELECT_002, condition);
+		// act
+		group.execute();
+		// assert
+		assertThat("単一レコードが取得できること", actual1.get(), equalTo(single));
+		assertThat("複数レコードが取得できること", actual2.get(), equalTo(list));
+	}
+
+	/**
+	 * いずれかのSELECT処理でエラーが発生した場合、グループ全体がエラーとなること。
+	 */
+	@Test
+	public void execute_02() {
+		// arrange
+		Sql<AllTypeEntity, List<AllTypeEntity>> undefined = Sql.define(FILE_NAME, "sql.test.undefined",
+				Command.select(), ResultSetParser.toEntityList(AllTypeEntity.class));
+		QueryGroup group = Transaction.parallel();
+		group.add(UnitTestSql.SELECT_002, condition);
+		Query<List<AllTypeEntity>> query = group.add(undefined, condition);
+		// act
+		try {
+			group.execute();
+			fail("実行された場合はNG");
+		} catch (SqlExecuteException e) {
+			// assert
+			try {
+				query.get();
+				fail("実行された場合はNG");
+			} catch (IllegalStateException ie) {
+				// エラーとなったSELECT処理の実行結果は取得できないこと
+			}
+		}
+	}
+
+	/**
+	 * 制限時間内に完了しない場合、制限時間を含むエラーとなること。
+	 */
+	@Test
+	public void execute_03() {
+		// arrange
+		QueryGroup group = Transaction.parallel();
+		group.add(UnitTestSql.SELECT_002, condition);
+		// act
+		try {
+			group.execute(0, TimeUnit.MILLISECONDS);
+			fail("実行された場合はNG");
+		} catch (SqlExecuteException e) {
+			// assert
+			assertTrue("制限時間が通知されること", e.getMessage().endsWith("[制限時間=0ms]"));
+		}
+	}
+
+	/**
+	 * 非同期に実行中の処理から実行した場合、エラーとなること。
+	 */
+	@Test
+	public void execute_04() {
+		// arrange
+		QueryGroup group = Transaction.parallel();
+		group.add(UnitTestSql.SELECT_002, condition);
+		// act
+		try {
+			DatabaseExecutor.submit(() -> {
+				group.execute();
+				return null;
+			}).join();
+			fail("実行された場合はNG");
+		} catch (CompletionException e) {
+			// assert
+			assertTrue("非同期に実行中の処理からは実行できないこと", e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	/**
+	 * SELECT処理以外はグループに追加できないこと。
+	 */
+	@Test
+	public void add_01() {
+		// act
+		try {
+			Transaction.parallel().add(UnitTestSql.DELETE_001);
+			fail("実行された場合はNG");
+		} catch (IllegalArgumentException e) {
+			// NOP
+		}
+	}
+
+}
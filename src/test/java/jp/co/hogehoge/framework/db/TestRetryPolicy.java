@@ -0,0 +1,83 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestRetryPolicy {
+
+	// リトライ上限の初期化
+	@Before
+	public void before() {
+		RetryBudget.reset();
+	}
+
+	/**
+	 * 一定時間待機する方針で、最大リトライ回数を超えた場合はリトライしないこと。
+	 */
+	@Test
+	public void fixed_01() {
+		// arrange
+		RetryPolicy policy = RetryPolicy.fixed(2, 100);
+		// act & assert
+		assertThat("待機時間が一定であること", policy.nextWait(1, 0), equalTo(100L));
+		assertThat("待機時間が一定であること", policy.nextWait(2, 100), equalTo(100L));
+		assertThat("最大リトライ回数を超えた場合はリトライしないこと", policy.nextWait(3, 100), equalTo(-1L));
+	}
+
+	/**
+	 * 待機時間を指数的に延長する方針で、待機時間が最小待機時間から最大待機時間の範囲となること。
+	 */
+	@Test
+	public void exponential_01() {
+		// arrange
+		RetryPolicy policy = RetryPolicy.exponential(100, 10, 500);
+		// act & assert
+		long wait = 0;
+		for (int count = 1; count <= 100; count++) {
+			long next = policy.nextWait(count, wait);
+			assertTrue("最小待機時間以上であること", next >= 10);
+			assertTrue("前回の待機時間の3倍以下であること", next <= Math.max(10, wait * 3));
+			assertTrue("最大待機時間以下であること", next <= 500);
+			wait = next;
+		}
+		assertThat("最大リトライ回数を超えた場合はリトライしないこと", policy.nextWait(101, wait), equalTo(-1L));
+	}
+
+	/**
+	 * 呼び出し元の期限までに待機を終えられない場合はリトライしないこと。
+	 */
+	@Test
+	public void backoff_01() {
+		// arrange
+		RetryPolicy policy = RetryPolicy.fixed(5, 1000);
+		// act
+		long actual = Deadline.within(100, TimeUnit.MILLISECONDS, () -> RetryBudget.backoff(policy, 1, 0));
+		// assert
+		assertThat("リトライしないこと", actual, equalTo(-1L));
+		assertThat("期限外では待機時間が返却されること", RetryBudget.backoff(policy, 1, 0), equalTo(1000L));
+	}
+
+	/**
+	 * アプリケーション全体のリトライ上限に達した場合はリトライしないこと。
+	 */
+	@Test
+	public void backoff_02() {
+		// arrange
+		RetryPolicy policy = RetryPolicy.fixed(Integer.MAX_VALUE, 0);
+		int capacity = DatabaseConfig.RETRY_BUDGET_CAPACITY.get();
+		// act
+		for (int i = 0; i < capacity; i++) {
+			RetryBudget.backoff(policy, 1, 0);
+		}
+		long actual = RetryBudget.backoff(policy, 1, 0);
+		// assert
+		assertThat("リトライしないこと", actual, equalTo(-1L));
+	}
+
+}
@@ -0,0 +1,50 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TestShardResolver {
+
+	// シャード名リスト
+	private final List<String> shards = Arrays.asList("shard1", "shard2", "shard3");
+
+	/**
+	 * 同一のキーの値に対して、常に同一のシャードが決定されること。
+	 */
+	@Test
+	public void hash_01() {
+		// arrange
+		ShardResolver resolver = ShardResolver.hash();
+		// act
+		String actual1 = resolver.resolve("CUSTOMER-00001", shards);
+		String actual2 = resolver.resolve("CUSTOMER-00001", shards);
+		// assert
+		assertThat("同一のシャードが決定されること", actual1, equalTo(actual2));
+	}
+
+	/**
+	 * 負のハッシュ値を持つキーを含め、全てのキーが定義されたシャードに振り分けられること。
+	 */
+	@Test
+	public void hash_02() {
+		// arrange
+		ShardResolver resolver = ShardResolver.hash();
+		Set<String> actual = new HashSet<>();
+		// act
+		for (int key = -100; key < 100; key++) {
+			actual.add(resolver.resolve(key, shards));
+		}
+		// assert
+		assertTrue("定義されたシャードのみに振り分けられること", shards.containsAll(actual));
+		assertThat("全てのシャードに振り分けられること", actual.size(), equalTo(3));
+	}
+
+}
@@ -0,0 +1,33 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import jp.co.hogehoge.framework.db.exception.ShardingException;
+
+public class TestShards {
+
+	/**
+	 * シャードが定義されていない場合、全てのシャードで実行する処理がエラーとなり、処理が実行されないこと。
+	 */
+	@Test
+	public void gather_01() {
+		// arrange
+		AtomicInteger count = new AtomicInteger();
+		// act
+		try {
+			Shards.gather(shard -> count.incrementAndGet());
+			fail("実行された場合はNG");
+		} catch (ShardingException e) {
+			// assert
+			assertThat("エラーメッセージが取得できること", e.getMessage().contains("シャードが定義されていません。"), equalTo(true));
+			assertThat("処理が実行されないこと", count.get(), equalTo(0));
+		}
+	}
+
+}
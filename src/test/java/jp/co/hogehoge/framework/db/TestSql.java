@@ -9,19 +9,25 @@ import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.powermock.reflect.Whitebox;
 
+import jp.co.hogehoge.framework.db.DatabaseMetrics.Metric;
 import jp.co.hogehoge.framework.db.exception.PessimisticLockingException;
 import jp.co.hogehoge.framework.db.exception.SqlExecuteException;
 import jp.co.hogehoge.framework.test.db.TestDB;
 import untest.conf.TestDBConfig;
 import untest.entity.AllTypeEntity;
+import untest.sql.CustomSql;
 import untest.sql.UnitTestSql;
 
 public class TestSql {
@@ -257,7 +263,7 @@ public class TestSql {
 	}
 
 	/**
-	 * 待機中（Thread.sleep）で例外が発生しても正常にSQLが実行出来ること。
+	 * 待機中（Thread.sleep）に割り込まれた場合、リトライを中止してPessimisticLockingExceptionが発生し、割り込み状態が維持されること。
 	 * 
 	 * @throws InterruptedException
 	 * @throws SQLException
@@ -266,6 +272,7 @@ public class TestSql {
 	public void execute_04() throws InterruptedException, SQLException {
 		// arrange
 		AllTypeEntity data = initData.clone().setCharColumn("55555");
+		boolean[] interrupted = { false };
 
 		CustomThread child = new CustomThread(arg -> {
 			// act
@@ -273,6 +280,9 @@ public class TestSql {
 				UnitTestSql.SELECT_003.execute(initData); // select for update
 				UnitTestSql.UPDATE_001.execute(data);
 				conn.commit();
+				fail("実行された場合はNG");
+			} catch (PessimisticLockingException e) {
+				interrupted[0] = Thread.currentThread().isInterrupted();
 			} catch (SQLException e) {
 				// NOP
 			}
@@ -304,8 +314,9 @@ public class TestSql {
 		main.start();
 		main.join();
 		// assert
+		assertTrue("割り込み状態が維持されていること", interrupted[0]);
 		Optional<AllTypeEntity> result = Transaction.execute(() -> UnitTestSql.SELECT_001.execute(initData));
-		assertThat("更新されたデータが取得できること", result.get(), equalTo(data));
+		assertThat("更新されていないこと", result.get(), equalTo(initData));
 
 	}
 
@@ -348,6 +359,136 @@ public class TestSql {
 		main.join();
 	}
 
+	/**
+	 * トランザクション外で単独実行した更新処理がコミットされ、コネクションがスレッドに割り当てられないこと。
+	 */
+	@Test
+	public void execute_06() {
+		// arrange
+		Whitebox.setInternalState(DatabaseConnection.class, "CONNECTION", new ThreadLocal<DatabaseConnection>());
+		AllTypeEntity data = initData.clone().setVarcharColumn("00001");
+		// act
+		Integer actual = UnitTestSql.INSERT_001.execute(data);
+		// assert
+		assertThat("更新処理が実行されること", actual, equalTo(1));
+		ThreadLocal<DatabaseConnection> bound = Whitebox.getInternalState(DatabaseConnection.class, "CONNECTION");
+		assertTrue("コネクションがスレッドに割り当てられていないこと", Objects.isNull(bound.get()));
+		List<AllTypeEntity> records = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(initData));
+		assertThat("更新処理がコミットされていること", records.size(), equalTo(2));
+	}
+
+	/**
+	 * 読み取り用レプリカで実行できるSELECT処理は、レプリカを使用しない設定の場合はプライマリで実行されること。
+	 */
+	@Test
+	public void replicaSafe_01() {
+		// arrange
+		Whitebox.setInternalState(DatabaseConnection.class, "CONNECTION", new ThreadLocal<DatabaseConnection>());
+		Sql<AllTypeEntity, List<AllTypeEntity>> select = Sql
+				.<AllTypeEntity, AllTypeEntity>defineSelectMultipleRecords(FILE_NAME, "sql.test.select002",
+						AllTypeEntity.class)
+				.replicaSafe();
+		long replica = DatabaseMetrics.get(Metric.REPLICA);
+		// act
+		List<AllTypeEntity> actual = select.execute(initData);
+		// assert
+		assertThat("SELECT処理が実行されること", actual.size(), equalTo(1));
+		assertThat("レプリカで実行されないこと", DatabaseMetrics.get(Metric.REPLICA), equalTo(replica));
+	}
+
+	/**
+	 * 同一SQL実行の集約を有効にした場合、同時に実行した全てのスレッドで実行結果が取得できること。
+	 * 
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void coalesce_01() throws InterruptedException {
+		// arrange
+		Sql<AllTypeEntity, Optional<AllTypeEntity>> select = Sql
+				.<AllTypeEntity, AllTypeEntity>defineSelectSingleRecord(FILE_NAME, "sql.test.select001",
+						AllTypeEntity.class)
+				.coalesce();
+		List<Optional<AllTypeEntity>> results = new CopyOnWriteArrayList<>();
+		List<CustomThread> threads = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			threads.add(new CustomThread(arg -> {
+				try (DatabaseConnection conn = DatabaseConnection.getConnection()) {
+					results.add(select.execute(initData));
+					conn.commit();
+				} catch (SQLException e) {
+					// NOP
+				}
+			}));
+		}
+		// act
+		for (CustomThread thread : threads) {
+			thread.start();
+		}
+		for (CustomThread thread : threads) {
+			thread.join();
+		}
+		// assert
+		assertThat("全てのスレッドで実行結果が取得できること", results.size(), equalTo(10));
+		for (Optional<AllTypeEntity> actual : results) {
+			assertThat("正常にレコードが取得できること", actual.get(), equalTo(initData));
+		}
+	}
+
+	/**
+	 * SQL実行結果キャッシュを有効にした場合、対象テーブルの更新がコミットされるまでキャッシュした結果が取得できること。
+	 */
+	@Test
+	public void cache_01() {
+		// arrange
+		Sql<AllTypeEntity, Optional<AllTypeEntity>> select = Sql
+				.<AllTypeEntity, AllTypeEntity>defineSelectSingleRecord(FILE_NAME, "sql.test.select001",
+						AllTypeEntity.class)
+				.tables("UNIT_TEST_TABLE")
+				.cache(60000);
+		Sql<AllTypeEntity, Integer> update = Sql
+				.<AllTypeEntity>defineUpdateRecords(FILE_NAME, "sql.test.update001")
+				.tables("UNIT_TEST_TABLE");
+		AllTypeEntity data = initData.clone().setCharColumn("55555");
+		Transaction.execute(() -> select.execute(initData));
+		// act
+		Optional<AllTypeEntity> inner = Transaction.execute(() -> {
+			update.execute(data);
+			return select.execute(initData);
+		});
+		Optional<AllTypeEntity> actual = Transaction.execute(() -> select.execute(initData));
+		// assert
+		assertThat("更新したトランザクション内では更新後のデータが取得できること", inner.get(), equalTo(data));
+		assertThat("コミット後は更新後のデータが取得できること", actual.get(), equalTo(data));
+	}
+
+	/**
+	 * アイデンティティ・マップを有効にした場合、同一トランザクション内で同一の実行結果が取得でき、
+	 * 対象テーブルを更新した後は再取得されること。
+	 */
+	@Test
+	public void identityMap_01() {
+		// arrange
+		Sql<AllTypeEntity, Optional<AllTypeEntity>> select = Sql
+				.<AllTypeEntity, AllTypeEntity>defineSelectSingleRecord(FILE_NAME, "sql.test.select001",
+						AllTypeEntity.class)
+				.tables("UNIT_TEST_TABLE")
+				.identityMap();
+		Sql<AllTypeEntity, Integer> update = Sql
+				.<AllTypeEntity>defineUpdateRecords(FILE_NAME, "sql.test.update001")
+				.tables("UNIT_TEST_TABLE");
+		AllTypeEntity data = initData.clone().setCharColumn("55555");
+		// act
+		Transaction.execute(() -> {
+			Optional<AllTypeEntity> first = select.execute(initData);
+			Optional<AllTypeEntity> second = select.execute(initData);
+			update.execute(data);
+			Optional<AllTypeEntity> third = select.execute(initData);
+			// assert
+			assertTrue("同一の実行結果が取得できること", first == second);
+			assertThat("更新後は再取得されること", third.get(), equalTo(data));
+		});
+	}
+
 	/**
 	 * 想定通りのSQLが取得できること。
 	 */
@@ -374,4 +515,18 @@ public class TestSql {
 		assertThat("想定通りのSQLIDが取得できること", actual, equalTo("sql.test.drop001"));
 	}
 
+	/**
+	 * パッケージ外で直接継承したSQL定義で、遅延実行が即時に実行されること。
+	 */
+	@Test
+	public void executeDeferred_01() {
+		// arrange
+		CustomSql custom = new CustomSql();
+		// act
+		Integer actual = custom.executeDeferred(null).join();
+		// assert
+		assertThat("即時に実行されること", actual, equalTo(1));
+		assertThat("SELECT処理として扱わないこと", ((Sql<?, ?>) custom).isQuery(), equalTo(false));
+	}
+
 }
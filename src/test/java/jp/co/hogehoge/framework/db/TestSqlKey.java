@@ -0,0 +1,64 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TestSqlKey {
+
+	/**
+	 * SQLIDとパラメータが一致する場合に同一と判定されること。
+	 */
+	@Test
+	public void equals_01() {
+		// arrange
+		Map<String, Object> args1 = new HashMap<>();
+		args1.put("VARCHAR_COLUMN", "12345");
+		args1.put("BLOB_COLUMN", "あいうえお".getBytes());
+		Map<String, Object> args2 = new HashMap<>();
+		args2.put("VARCHAR_COLUMN", "12345");
+		args2.put("BLOB_COLUMN", "あいうえお".getBytes());
+		// act
+		SqlKey key1 = new SqlKey("sql.test.select001", args1);
+		SqlKey key2 = new SqlKey("sql.test.select001", args2);
+		// assert
+		assertTrue("同一と判定されること", key1.equals(key2));
+		assertThat("ハッシュ値が一致すること", key1.hashCode(), equalTo(key2.hashCode()));
+	}
+
+	/**
+	 * パラメータが一致しない場合に異なると判定されること。
+	 */
+	@Test
+	public void equals_02() {
+		// arrange
+		Map<String, Object> args1 = new HashMap<>();
+		args1.put("VARCHAR_COLUMN", "12345");
+		Map<String, Object> args2 = new HashMap<>();
+		args2.put("VARCHAR_COLUMN", "54321");
+		// act
+		SqlKey key1 = new SqlKey("sql.test.select001", args1);
+		SqlKey key2 = new SqlKey("sql.test.select001", args2);
+		// assert
+		assertFalse("異なると判定されること", key1.equals(key2));
+	}
+
+	/**
+	 * SQLIDが一致しない場合に異なると判定されること。
+	 */
+	@Test
+	public void equals_03() {
+		// act
+		SqlKey key1 = new SqlKey("sql.test.select001", null);
+		SqlKey key2 = new SqlKey("sql.test.select002", null);
+		// assert
+		assertFalse("異なると判定されること", key1.equals(key2));
+	}
+
+}
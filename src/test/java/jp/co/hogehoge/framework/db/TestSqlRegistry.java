@@ -0,0 +1,46 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+
+import org.junit.Test;
+
+import jp.co.hogehoge.framework.db.SqlRegistry.WarmUpReport;
+import untest.entity.AllTypeEntity;
+import untest.sql.UnitTestSql;
+
+public class TestSqlRegistry {
+
+	// SQLプロパティ名
+	private static final String FILE_NAME = "test_sql.properties";
+
+	/**
+	 * 定義したSQLが登録されること。
+	 */
+	@Test
+	public void register_01() {
+		// act
+		Sql<AllTypeEntity, Optional<AllTypeEntity>> sql = Sql.define(FILE_NAME, "sql.test.select001",
+				Command.select(), ResultSetParser.toEntity(AllTypeEntity.class));
+		// assert
+		assertTrue("定義したSQLが登録されていること", SqlRegistry.getAll().contains(sql));
+	}
+
+	/**
+	 * SQLが定義されていない場合、ウォームアップの失敗として報告されること。
+	 */
+	@Test
+	public void warmUp_01() {
+		// arrange
+		Sql.define(FILE_NAME, "sql.test.undefined", Command.select(), ResultSetParser.toEntity(AllTypeEntity.class));
+		// act
+		WarmUpReport actual = SqlRegistry.warmUp(UnitTestSql.class);
+		// assert
+		assertFalse("ウォームアップが失敗となること", actual.isSuccess());
+		assertTrue("定義されていないSQLが報告されること", actual.getFailures().containsKey("sql.test.undefined"));
+		assertFalse("定義済みのSQLは報告されないこと", actual.getFailures().containsKey("sql.test.select001"));
+	}
+
+}
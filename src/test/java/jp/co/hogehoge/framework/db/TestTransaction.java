@@ -0,0 +1,384 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jp.co.hogehoge.framework.db.DatabaseMetrics.Metric;
+import jp.co.hogehoge.framework.db.TransactionAttribute.Isolation;
+import jp.co.hogehoge.framework.db.exception.TransactionException;
+import jp.co.hogehoge.framework.test.db.TestDB;
+import jp.co.hogehoge.framework.test.db.ds.TestDataSource;
+import mockit.Mock;
+import mockit.MockUp;
+import untest.conf.TestDBConfig;
+import untest.entity.AllTypeEntity;
+import untest.sql.UnitTestSql;
+
+public class TestTransaction {
+
+	// 初期登録データ
+	private final AllTypeEntity initData = (new AllTypeEntity()).setVarcharColumn("12345")
+			.setCharColumn("12345")
+			.setIntegerColumn(1)
+			.setDateColumn(LocalDate.now())
+			.setDoubleColumn(12.5)
+			.setClobColumn("あいうえお")
+			.setBlobColumn("あいうえお".getBytes())
+			.setBigDecimalColumn(BigDecimal.valueOf(22.30))
+			.setLongColumn((long) 12345)
+			.setTimestampColumn(LocalDateTime.now());
+
+	// データ・ソースの設定
+	@BeforeClass
+	public static void beforeClass() {
+		TestDB.setup(DatabaseConfig.DATA_SOURCE_NAME.get(), // データ・ソース
+				TestDBConfig.HOST.get(), // ホスト名
+				TestDBConfig.PORT.get(), // ポート番号
+				TestDBConfig.DATABASE.get(), // データベース名
+				TestDBConfig.USER.get(), // ユーザー名
+				TestDBConfig.PASSWORD.get(), // パスワード
+				TestDBConfig.OPTION.get()); // 接続オプション
+	}
+
+	// テスト用テーブルの構築と初期データの登録
+	@Before
+	public void before() {
+		Transaction.execute(() -> {
+			try {
+				UnitTestSql.SELECT_001.execute(initData); // テーブルが存在していない場合エラー
+				UnitTestSql.DELETE_001.execute();
+			} catch (Exception e) { // テーブルが存在していない場合
+				UnitTestSql.CREATE_001.execute();
+			}
+			UnitTestSql.INSERT_001.execute(initData);
+		});
+	}
+
+	/**
+	 * 更新処理を遅延実行するトランザクションで、コミット時に更新処理が実行され処理件数が確定すること。
+	 */
+	@Test
+	public void writeBehind_01() {
+		// arrange
+		AllTypeEntity data1 = initData.clone().setVarcharColumn("00001");
+		AllTypeEntity data2 = initData.clone().setVarcharColumn("00002");
+		// act
+		List<CompletableFuture<Integer>> actual = Transaction.writeBehind(() -> {
+			Integer result = UnitTestSql.INSERT_001.execute(data1);
+			CompletableFuture<Integer> future = UnitTestSql.INSERT_001.executeDeferred(data2);
+			assertThat("遅延実行時は処理件数が不明であること", result, equalTo(Statement.SUCCESS_NO_INFO));
+			assertTrue("コミット前は処理件数が確定していないこと", !future.isDone());
+			return Arrays.asList(CompletableFuture.completedFuture(result), future);
+		});
+		// assert
+		assertThat("コミット後に処理件数が確定すること", actual.get(1).join(), equalTo(1));
+		List<AllTypeEntity> records = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(initData));
+		assertThat("全ての更新処理が実行されていること", records.size(), equalTo(3));
+	}
+
+	/**
+	 * 更新処理を遅延実行するトランザクションで、SELECT処理の前に蓄積した更新処理が実行されること。
+	 */
+	@Test
+	public void writeBehind_02() {
+		// arrange
+		AllTypeEntity data = initData.clone().setVarcharColumn("00001");
+		// act
+		Integer actual = Transaction.writeBehind(() -> {
+			UnitTestSql.INSERT_001.execute(data);
+			return UnitTestSql.SELECT_002.execute(initData).size();
+		});
+		// assert
+		assertThat("SELECT処理の前に更新処理が実行されていること", actual, equalTo(2));
+	}
+
+	/**
+	 * 更新処理を遅延実行するトランザクションでエラーが発生した場合、蓄積した更新処理が破棄されること。
+	 */
+	@Test
+	public void writeBehind_03() {
+		// arrange
+		AllTypeEntity data = initData.clone().setVarcharColumn("00001");
+		CompletableFuture<?>[] future = new CompletableFuture<?>[1];
+		// act
+		try {
+			Transaction.writeBehind(() -> {
+				future[0] = UnitTestSql.INSERT_001.executeDeferred(data);
+				throw new IllegalStateException("rollback");
+			});
+		} catch (TransactionException e) {
+			// NOP
+		}
+		// assert
+		assertTrue("蓄積した更新処理にエラーが通知されること", future[0].isCompletedExceptionally());
+		List<AllTypeEntity> records = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(initData));
+		assertThat("更新処理が実行されていないこと", records.size(), equalTo(1));
+	}
+
+	/**
+	 * セーブポイントを設定したネストしたトランザクションでエラーが発生した場合、セーブポイントまでのみロールバックされること。
+	 */
+	@Test
+	public void nested_01() {
+		// arrange
+		AllTypeEntity data1 = initData.clone().setVarcharColumn("00001");
+		AllTypeEntity data2 = initData.clone().setVarcharColumn("00002");
+		// act
+		Transaction.execute(() -> {
+			UnitTestSql.INSERT_001.execute(data1);
+			try {
+				Transaction.nested(() -> {
+					UnitTestSql.INSERT_001.execute(data2);
+					throw new IllegalStateException("rollback");
+				});
+			} catch (TransactionException e) {
+				// NOP
+			}
+		});
+		// assert
+		List<AllTypeEntity> records = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(initData));
+		assertThat("ネストしたトランザクションの更新処理のみロールバックされていること", records.size(), equalTo(2));
+	}
+
+	/**
+	 * コネクション取得前のネストしたトランザクションではコネクションを取得せず、エラーが発生した場合はネストしたトランザクションの更新処理のみロールバックされること。
+	 */
+	@Test
+	public void nested_03() {
+		// arrange
+		AllTypeEntity data1 = initData.clone().setVarcharColumn("00001");
+		AllTypeEntity data2 = initData.clone().setVarcharColumn("00002");
+		boolean[] acquired = { true };
+		// act
+		Transaction.execute(() -> {
+			try {
+				Transaction.nested(() -> {
+					acquired[0] = Objects.nonNull(Transaction.current().getAcquiredConnection());
+					UnitTestSql.INSERT_001.execute(data1);
+					throw new IllegalStateException("rollback");
+				});
+			} catch (TransactionException e) {
+				// NOP
+			}
+			Transaction.nested(() -> {
+				UnitTestSql.INSERT_001.execute(data2);
+			});
+		});
+		// assert
+		assertTrue("ネストしたトランザクションの開始時にコネクションを取得しないこと", !acquired[0]);
+		List<AllTypeEntity> records = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(initData));
+		assertThat("エラーが発生したネストしたトランザクションの更新処理のみロールバックされていること", records.size(), equalTo(2));
+	}
+
+	/**
+	 * ネストしたトランザクションでエラーが発生した場合、エラーを捕捉しても最上位のトランザクション全体がロールバックされること。
+	 */
+	@Test
+	public void nested_02() {
+		// arrange
+		AllTypeEntity data1 = initData.clone().setVarcharColumn("00001");
+		AllTypeEntity data2 = initData.clone().setVarcharColumn("00002");
+		boolean[] thrown = { false };
+		// act
+		try {
+			Transaction.execute(() -> {
+				UnitTestSql.INSERT_001.execute(data1);
+				try {
+					Transaction.execute(() -> {
+						UnitTestSql.INSERT_001.execute(data2);
+						throw new IllegalStateException("rollback");
+					});
+				} catch (TransactionException e) {
+					// NOP
+				}
+			});
+		} catch (TransactionException e) {
+			thrown[0] = true;
+		}
+		// assert
+		assertTrue("最上位のトランザクションでエラーがスローされること", thrown[0]);
+		List<AllTypeEntity> records = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(initData));
+		assertThat("全ての更新処理がロールバックされていること", records.size(), equalTo(1));
+	}
+
+	/**
+	 * 再実行可能なトランザクションで再実行対象のエラーが発生した場合、トランザクション全体が再実行されること。
+	 */
+	@Test
+	public void replay_01() {
+		// arrange
+		AllTypeEntity data = initData.clone().setVarcharColumn("00001");
+		int[] count = { 0 };
+		long before = DatabaseMetrics.get(Metric.REPLAY);
+		// act
+		Integer actual = Transaction.replay(() -> {
+			Integer result = UnitTestSql.INSERT_001.execute(data);
+			if (count[0]++ == 0) {
+				throw new SQLException("deadlock", "40001", -911);
+			}
+			return result;
+		});
+		// assert
+		assertThat("再実行後の結果が返却されること", actual, equalTo(1));
+		assertThat("トランザクション全体が再実行されること", count[0], equalTo(2));
+		assertThat("再実行回数が集計されること", DatabaseMetrics.get(Metric.REPLAY) - before, equalTo(1L));
+		List<AllTypeEntity> records = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(initData));
+		assertThat("最初の実行はロールバックされていること", records.size(), equalTo(2));
+	}
+
+	/**
+	 * 再実行可能なトランザクションで再実行対象外のエラーが発生した場合、再実行されないこと。
+	 */
+	@Test
+	public void replay_02() {
+		// arrange
+		int[] count = { 0 };
+		// act
+		try {
+			Transaction.replay(() -> {
+				count[0]++;
+				throw new SQLException("error", "42000", -204);
+			});
+		} catch (TransactionException e) {
+			// NOP
+		}
+		// assert
+		assertThat("再実行されないこと", count[0], equalTo(1));
+	}
+
+	/**
+	 * SQLを実行しないトランザクションではコネクションを取得しないこと。
+	 */
+	@Test
+	public void execute_01() {
+		// arrange
+		new MockUp<TestDataSource>() {
+			@Mock
+			public Connection getConnection() throws SQLException {
+				throw new SQLException("コネクションを取得した場合はNG");
+			}
+		};
+		// act
+		Integer actual = Transaction.execute(() -> 1);
+		// assert
+		assertThat("コネクションを取得せずに処理結果が返却されること", actual, equalTo(1));
+	}
+
+
+	/**
+	 * 読み取り専用、分離レベルを指定したトランザクションで、コネクションに設定が反映されること。
+	 */
+	@Test
+	public void readOnly_01() throws SQLException {
+		// arrange
+		Object[] actual = new Object[2];
+		// act
+		List<AllTypeEntity> records = new TransactionAttribute().readOnly().isolation(Isolation.UR).execute(() -> {
+			DatabaseConnection conn = DatabaseConnection.getConnection();
+			actual[0] = conn.isReadOnly();
+			actual[1] = conn.getTransactionIsolation();
+			return UnitTestSql.SELECT_002.execute(initData);
+		});
+		// assert
+		assertThat("SELECT処理が実行されること", records.size(), equalTo(1));
+		assertThat("読み取り専用が設定されること", actual[0], equalTo(true));
+		assertThat("分離レベルが設定されること", actual[1], equalTo(Connection.TRANSACTION_READ_UNCOMMITTED));
+	}
+
+	/**
+	 * 読み取り専用のトランザクションで更新処理を行っていない場合、コミットが行われないこと。
+	 */
+	@Test
+	public void readOnly_02() {
+		// arrange
+		new MockUp<DatabaseConnection>() {
+			@Mock
+			protected DatabaseConnection commit() throws SQLException {
+				throw new SQLException("コミットした場合はNG");
+			}
+		};
+		// act
+		List<AllTypeEntity> records = Transaction.readOnly(() -> UnitTestSql.SELECT_002.execute(initData));
+		// assert
+		assertThat("コミットせずにSELECT処理の実行結果が返却されること", records.size(), equalTo(1));
+	}
+
+	/**
+	 * 読み取り専用のトランザクションで更新処理を実行した場合、エラーとなり更新されないこと。
+	 */
+	@Test
+	public void readOnly_04() {
+		// arrange
+		AllTypeEntity data = initData.clone().setVarcharColumn("00001");
+		// act
+		try {
+			Transaction.readOnly(() -> {
+				UnitTestSql.INSERT_001.execute(data);
+			});
+			fail("実行された場合はNG");
+		} catch (TransactionException e) {
+			// assert
+			assertTrue("読み取り専用のトランザクションのエラーであること", e.getMessage().contains("読み取り専用"));
+		}
+		List<AllTypeEntity> records = Transaction.execute(() -> UnitTestSql.SELECT_002.execute(initData));
+		assertThat("更新されていないこと", records.size(), equalTo(1));
+	}
+
+	/**
+	 * 読み取り専用のトランザクションで更新処理を行っていない場合も、コネクションの設定が元に戻ること。
+	 */
+	@Test
+	public void readOnly_03() throws SQLException {
+		// arrange
+		DataSource original = Database.dataSource();
+		Connection[] connection = new Connection[1];
+		Database.configure((DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+				new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+					Object result = method.invoke(original, args);
+					if (!"getConnection".equals(method.getName())) {
+						return result;
+					}
+					// クローズ後に設定を確認するため、コネクションをクローズしない
+					connection[0] = (Connection) result;
+					return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+							new Class<?>[] { Connection.class },
+							(p, m, a) -> "close".equals(m.getName()) ? null : m.invoke(result, a));
+				}));
+		try {
+			// act
+			List<AllTypeEntity> records = new TransactionAttribute().readOnly().isolation(Isolation.UR)
+					.execute(() -> UnitTestSql.SELECT_002.execute(initData));
+			// assert
+			assertThat("SELECT処理が実行されること", records.size(), equalTo(1));
+			assertThat("読み取り専用が元に戻ること", connection[0].isReadOnly(), equalTo(false));
+			assertTrue("分離レベルが元に戻ること",
+					connection[0].getTransactionIsolation() != Connection.TRANSACTION_READ_UNCOMMITTED);
+		} finally {
+			if (Objects.nonNull(connection[0])) {
+				connection[0].close();
+			}
+			Database.reset();
+		}
+	}
+
+}
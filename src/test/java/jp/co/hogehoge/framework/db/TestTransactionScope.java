@@ -0,0 +1,126 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import untest.conf.TestDBConfig;
+import untest.entity.AllTypeEntity;
+import untest.sql.UnitTestSql;
+
+public class TestTransactionScope {
+
+	// 接続先URL
+	private static final String URL = TestDBConfig.HOST.get() + ":" + TestDBConfig.PORT.get() + "/"
+			+ TestDBConfig.DATABASE.get() + ":" + TestDBConfig.OPTION.get();
+
+	// 最大コネクション数
+	private static final int MAX_SIZE = 10;
+
+	// コネクション・プール
+	private ConnectionPool pool = null;
+
+	// コネクション・プールの停止
+	@After
+	public void after() {
+		Database.reset();
+		if (pool != null) {
+			pool.close();
+		}
+	}
+
+	/**
+	 * 処理の範囲でのみトランザクション・コンテキストが関連付けられること。
+	 */
+	@Test
+	public void call_01() {
+		// arrange
+		TransactionContext context = new TransactionContext(new TransactionAttribute());
+		// act
+		TransactionContext actual = TransactionScope.call(context, TransactionScope::current);
+		// assert
+		assertThat("処理の範囲で関連付けられていること", actual, equalTo(context));
+		assertThat("処理の終了後に関連付けが解除されること", TransactionScope.current(), equalTo(null));
+	}
+
+	/**
+	 * Java 25以降でマルチリリースJARから実行した場合、ScopedValueで管理する実装に置き換わること。
+	 * surefireはtarget/classesで実行するため対象外とし、パッケージ後にfailsafeで実行する（java25プロファイル）。
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void scopedValue_01() throws Exception {
+		// arrange
+		String version = System.getProperty("java.specification.version");
+		Assume.assumeTrue("Java 25より前の場合は対象外", !version.startsWith("1.") && Integer.parseInt(version) >= 25);
+		Assume.assumeTrue("マルチリリースJARから実行していない場合は対象外", TransactionScope.class.getProtectionDomain()
+				.getCodeSource().getLocation().getPath().endsWith(".jar"));
+		// act
+		Class<?> type = TransactionScope.class.getDeclaredField("CONTEXT").getType();
+		// assert
+		assertThat("ScopedValueで管理する実装であること", type.getName(), equalTo("java.lang.ScopedValue"));
+	}
+
+	/**
+	 * 上限のあるコネクション・プールで、多数の仮想スレッドのトランザクションが実行できること（Java 21以降）。
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void virtualThread_01() throws Exception {
+		// arrange
+		Method factory = null;
+		try {
+			factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			Assume.assumeNoException("仮想スレッドを使用できない場合は対象外", e);
+			return;
+		}
+		pool = new ConnectionPool(URL, TestDBConfig.USER.get(), TestDBConfig.PASSWORD.get(), 0, MAX_SIZE, 60000,
+				600000, 1800000, 0, 30000, 500, 5);
+		Database.configure(pool);
+		AllTypeEntity condition = (new AllTypeEntity()).setCharColumn("12345");
+		AtomicInteger leaked = new AtomicInteger();
+		List<Future<?>> futures = new ArrayList<>();
+		// act
+		ExecutorService executor = (ExecutorService) factory.invoke(null);
+		try {
+			for (int i = 0; i < 5000; i++) {
+				futures.add(executor.submit(() -> {
+					Transaction.execute(() -> UnitTestSql.SELECT_002.execute(condition));
+					if (Transaction.isActive()) {
+						leaked.incrementAndGet();
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		// assert
+		AtomicInteger total = Whitebox.getInternalState(pool, "total");
+		assertTrue("コネクション数が上限を超えないこと", total.get() <= MAX_SIZE);
+		assertThat("トランザクション・コンテキストが残らないこと", leaked.get(), equalTo(0));
+		assertFalse("呼び出し元のスレッドにトランザクション・コンテキストが関連付けられないこと", Transaction.isActive());
+	}
+
+}
@@ -0,0 +1,37 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestWriteBehindQueue {
+
+	/**
+	 * INSERT、UPDATE、DELETE、MERGEが遅延実行の対象となること。
+	 */
+	@Test
+	public void isDeferrable_01() {
+		// act & assert
+		assertTrue("INSERTが対象となること", WriteBehindQueue.isDeferrable("INSERT INTO T (A) VALUES (:a)"));
+		assertTrue("UPDATEが対象となること", WriteBehindQueue.isDeferrable("  update T set A = :a"));
+		assertTrue("DELETEが対象となること", WriteBehindQueue.isDeferrable("\r\nDelete From T"));
+		assertTrue("MERGEが対象となること", WriteBehindQueue.isDeferrable("MERGE INTO T USING S ON T.A = S.A"));
+		assertTrue("先頭のコメントを除いて判定すること",
+				WriteBehindQueue.isDeferrable("-- comment\n/* block\ncomment */ INSERT INTO T VALUES (1)"));
+	}
+
+	/**
+	 * DDL、CALL等が遅延実行の対象とならないこと。
+	 */
+	@Test
+	public void isDeferrable_02() {
+		// act & assert
+		assertTrue("CREATEが対象とならないこと", !WriteBehindQueue.isDeferrable("CREATE TABLE T (A INTEGER)"));
+		assertTrue("DROPが対象とならないこと", !WriteBehindQueue.isDeferrable("DROP TABLE T"));
+		assertTrue("CALLが対象とならないこと", !WriteBehindQueue.isDeferrable("CALL PROC(:a)"));
+		assertTrue("TRUNCATEが対象とならないこと", !WriteBehindQueue.isDeferrable("TRUNCATE TABLE T IMMEDIATE"));
+		assertTrue("キーワードの前方一致で判定しないこと", !WriteBehindQueue.isDeferrable("UPDATES"));
+		assertTrue("コメント内のキーワードで判定しないこと", !WriteBehindQueue.isDeferrable("/* INSERT */ DROP TABLE T"));
+	}
+
+}
@@ -0,0 +1,31 @@
+package untest.sql;
+
+import jp.co.hogehoge.framework.db.Sql;
+import untest.entity.AllTypeEntity;
+
+/**
+ * パッケージ外でSqlを直接継承したSQL定義（公開された抽象メソッドのみ実装）。
+ */
+public class CustomSql extends Sql<AllTypeEntity, Integer> {
+
+	@Override
+	public Integer execute(AllTypeEntity param) {
+		return 1;
+	}
+
+	@Override
+	public Integer execute() {
+		return this.execute(null);
+	}
+
+	@Override
+	public String getSql() {
+		return "";
+	}
+
+	@Override
+	public String getSqlId() {
+		return "custom";
+	}
+
+}
@@ -48,4 +48,7 @@ public class UnitTestSql {
 	public static final Sql<AllTypeEntity, Optional<AllTypeEntity>> SELECT_004 = Sql
 			.defineSelectSingleRecord(FILE_NAME, "sql.test.select004", AllTypeEntity.class);
 
+	public static final Sql<AllTypeEntity, List<AllTypeEntity>> SELECT_005 = Sql
+			.defineSelectMultipleRecords(FILE_NAME, "sql.test.select005", AllTypeEntity.class);
+
 }
@@ -0,0 +1,242 @@
+package jp.co.hogehoge.framework.db;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jp.co.hogehoge.framework.test.db.TestDB;
+import untest.conf.TestDBConfig;
+import untest.entity.AllTypeEntity;
+import untest.sql.UnitTestSql;
+
+public class TestSqlPublisher {
+
+	// 登録件数
+	private static final int COUNT = 5;
+
+	// 検索条件
+	private final AllTypeEntity condition = (new AllTypeEntity()).setCharColumn("12345");
+
+	// 取得したコネクション数
+	private final AtomicInteger opened = new AtomicInteger();
+
+	// クローズしたコネクション数
+	private final AtomicInteger closed = new AtomicInteger();
+
+	// データ・ソースの設定
+	@BeforeClass
+	public static void beforeClass() {
+		TestDB.setup(DatabaseConfig.DATA_SOURCE_NAME.get(), // データ・ソース
+				TestDBConfig.HOST.get(), // ホスト名
+				TestDBConfig.PORT.get(), // ポート番号
+				TestDBConfig.DATABASE.get(), // データベース名
+				TestDBConfig.USER.get(), // ユーザー名
+				TestDBConfig.PASSWORD.get(), // パスワード
+				TestDBConfig.OPTION.get()); // 接続オプション
+	}
+
+	// テスト用データの登録と、コネクションの取得、クローズを計数するデータ・ソースの設定
+	@Before
+	public void before() {
+		Transaction.execute(() -> {
+			try {
+				UnitTestSql.SELECT_001.execute(condition); // テーブルが存在していない場合エラー
+				UnitTestSql.DELETE_001.execute();
+			} catch (Exception e) { // テーブルが存在していない場合
+				UnitTestSql.CREATE_001.execute();
+			}
+			for (int i = 0; i < COUNT; i++) {
+				UnitTestSql.INSERT_001.execute((new AllTypeEntity()).setVarcharColumn("0000" + i).setCharColumn("12345"));
+			}
+		});
+		DataSource original = Database.dataSource();
+		Database.configure((DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+				new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+					Object result = method.invoke(original, args);
+					if (!"getConnection".equals(method.getName())) {
+						return result;
+					}
+					opened.incrementAndGet();
+					return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+							new Class<?>[] { Connection.class }, (p, m, a) -> {
+								if ("close".equals(m.getName())) {
+									closed.incrementAndGet();
+								}
+								return m.invoke(result, a);
+							});
+				}));
+	}
+
+	// 設定したデータ・ソースを破棄
+	@After
+	public void after() {
+		Database.reset();
+	}
+
+	/**
+	 * 要求件数を超えて発行せず、追加で要求した場合に残りのレコードが発行されて完了し、コネクションが返却されること。
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void request_01() throws Exception {
+		// arrange
+		TestSubscriber subscriber = new TestSubscriber(null);
+		SqlPublisher.of(UnitTestSql.SELECT_002, condition).subscribe(subscriber);
+		// act
+		subscriber.subscription.request(2);
+		await(() -> subscriber.items.size() >= 2);
+		Thread.sleep(200);
+		// assert
+		assertThat("要求件数のみ発行されること", subscriber.items.size(), equalTo(2));
+		assertFalse("完了が通知されないこと", subscriber.completed);
+		// act
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertTrue("完了が通知されること", subscriber.terminated.await(10, TimeUnit.SECONDS));
+		// assert
+		assertThat("全てのレコードが発行されること", subscriber.items.size(), equalTo(COUNT));
+		assertTrue("完了が通知されること", subscriber.completed);
+		assertThat("コネクションが返却されること", closed.get(), equalTo(opened.get()));
+	}
+
+	/**
+	 * 要求件数に0を指定した場合、取得処理のスレッドでエラーが通知され、以降は発行されずにコネクションが返却されること。
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void request_02() throws Exception {
+		// arrange
+		TestSubscriber subscriber = new TestSubscriber(null);
+		SqlPublisher.of(UnitTestSql.SELECT_002, condition).subscribe(subscriber);
+		subscriber.subscription.request(1);
+		await(() -> subscriber.items.size() >= 1);
+		// act
+		subscriber.subscription.request(0);
+		assertTrue("エラーが通知されること", subscriber.terminated.await(10, TimeUnit.SECONDS));
+		subscriber.subscription.request(COUNT);
+		Thread.sleep(200);
+		// assert
+		assertTrue("要求件数の誤りが通知されること", subscriber.error instanceof IllegalArgumentException);
+		assertFalse("呼び出し元のスレッドで通知されないこと", subscriber.signalThread == Thread.currentThread());
+		assertThat("エラーの通知後は発行されないこと", subscriber.items.size(), equalTo(1));
+		assertThat("コネクションが返却されること", closed.get(), equalTo(opened.get()));
+	}
+
+	/**
+	 * 発行中に購読を取り消した場合、以降は発行も完了の通知も行われず、コネクションが返却されること。
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void cancel_01() throws Exception {
+		// arrange
+		TestSubscriber subscriber = new TestSubscriber(s -> s.subscription.cancel());
+		SqlPublisher.of(UnitTestSql.SELECT_002, condition).subscribe(subscriber);
+		// act
+		subscriber.subscription.request(COUNT);
+		await(() -> opened.get() > 0 && closed.get() == opened.get());
+		Thread.sleep(200);
+		// assert
+		assertThat("取り消し後は発行されないこと", subscriber.items.size(), equalTo(1));
+		assertThat("完了、エラーが通知されないこと", subscriber.terminated.getCount(), equalTo(1L));
+		assertThat("コネクションが返却されること", closed.get(), equalTo(opened.get()));
+	}
+
+	/**
+	 * 条件を満たすまで待機する。
+	 *
+	 * @param condition 条件
+	 * @throws InterruptedException
+	 */
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	/**
+	 * 通知内容を記録する購読者。
+	 */
+	private static final class TestSubscriber implements Flow.Subscriber<AllTypeEntity> {
+
+		/** 発行されたエンティティ */
+		private final List<AllTypeEntity> items = Collections.synchronizedList(new ArrayList<>());
+
+		/** 完了、エラーの通知 */
+		private final CountDownLatch terminated = new CountDownLatch(1);
+
+		/** 発行時の処理 */
+		private final Consumer<TestSubscriber> onNext;
+
+		/** 購読 */
+		private volatile Flow.Subscription subscription;
+
+		/** 完了が通知されたかどうか */
+		private volatile boolean completed;
+
+		/** 通知されたエラー */
+		private volatile Throwable error;
+
+		/** 完了、エラーを通知したスレッド */
+		private volatile Thread signalThread;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param onNext 発行時の処理（処理しない場合はnull）
+		 */
+		private TestSubscriber(Consumer<TestSubscriber> onNext) {
+			this.onNext = onNext;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(AllTypeEntity item) {
+			this.items.add(item);
+			if (this.onNext != null) {
+				this.onNext.accept(this);
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			this.error = throwable;
+			this.signalThread = Thread.currentThread();
+			this.terminated.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			this.completed = true;
+			this.signalThread = Thread.currentThread();
+			this.terminated.countDown();
+		}
+	}
+
+}